@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.jenkins.rest.domain;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.jclouds.http.HttpResponse;
+import org.jclouds.http.functions.ParseFirstJsonValueNamed;
+import org.jclouds.http.functions.ParseJson;
+import org.jclouds.json.config.GsonModule;
+import org.jclouds.json.internal.GsonWrapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.cdancy.jenkins.rest.domain.job.BuildInfo;
+import com.cdancy.jenkins.rest.domain.job.JobInfo;
+import com.cdancy.jenkins.rest.domain.plugins.Plugins;
+import com.cdancy.jenkins.rest.domain.queue.QueueItem;
+import com.google.common.io.ByteStreams;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.TypeLiteral;
+
+/**
+ * Benchmarks of deserializing the JSON fixtures of the mock tests the way
+ * jclouds parses responses, i.e. through the Gson configured by GsonModule
+ * with the AutoValue factories of the domain classes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonFixturesBenchmark {
+
+    private ParseJson<JobInfo> jobInfoParser;
+    private ParseJson<BuildInfo> buildInfoParser;
+    private ParseJson<Plugins> pluginsParser;
+    private ParseFirstJsonValueNamed<List<QueueItem>> queueParser;
+
+    private HttpResponse jobInfo;
+    private HttpResponse buildInfo;
+    private HttpResponse plugins;
+    private HttpResponse queue;
+
+    @Setup
+    public void setup() throws IOException {
+        final Injector injector = Guice.createInjector(new GsonModule());
+        jobInfoParser = injector.getInstance(new Key<ParseJson<JobInfo>>() { });
+        buildInfoParser = injector.getInstance(new Key<ParseJson<BuildInfo>>() { });
+        pluginsParser = injector.getInstance(new Key<ParseJson<Plugins>>() { });
+        queueParser = new ParseFirstJsonValueNamed<>(injector.getInstance(GsonWrapper.class),
+                new TypeLiteral<List<QueueItem>>() { }, "items");
+
+        jobInfo = fixture("/job-info.json");
+        buildInfo = fixture("/build-info.json");
+        plugins = fixture("/plugins.json");
+        queue = fixture("/queue.json");
+    }
+
+    @Benchmark
+    public JobInfo jobInfo() {
+        return jobInfoParser.apply(jobInfo);
+    }
+
+    @Benchmark
+    public BuildInfo buildInfo() {
+        return buildInfoParser.apply(buildInfo);
+    }
+
+    @Benchmark
+    public Plugins plugins() {
+        return pluginsParser.apply(plugins);
+    }
+
+    @Benchmark
+    public List<QueueItem> queue() {
+        return queueParser.apply(queue);
+    }
+
+    // the fixtures are on the classpath as the jmh source set includes the test resources
+    private static HttpResponse fixture(final String resource) throws IOException {
+        try (InputStream in = JsonFixturesBenchmark.class.getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IOException("Fixture " + resource + " not found");
+            }
+            return HttpResponse.builder().statusCode(200).payload(ByteStreams.toByteArray(in)).build();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.jenkins.rest.filters;
+
+import static com.cdancy.jenkins.rest.JenkinsConstants.USER_IN_USER_API;
+
+import java.util.concurrent.TimeUnit;
+
+import org.jclouds.http.HttpRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.cdancy.jenkins.rest.JenkinsApi;
+import com.cdancy.jenkins.rest.JenkinsAuthentication;
+import com.google.common.net.HttpHeaders;
+
+/**
+ * Compare the request filter chain against the way requests used to be
+ * filtered: the Authorization header concatenated on every call, the user
+ * placeholder substituted with a regex, and the request rebuilt once per
+ * filter. Run with the gc profiler, e.g. `./gradlew jmh`, to compare the
+ * bytes allocated per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AuthenticationFilterBenchmark {
+
+    private static final String USER_PLACE_HOLDER = "%7B" + USER_IN_USER_API + "%7D";
+
+    private JenkinsAuthentication creds;
+    private JenkinsAuthenticationFilter authenticationFilter;
+    private JenkinsUserInjectionFilter userInjectionFilter;
+    private HttpRequest jobRequest;
+    private HttpRequest userRequest;
+
+    @Setup
+    public void setup() {
+        creds = JenkinsAuthentication.builder().apiToken("random_user:random_token").build();
+        // API tokens need no crumb so the JenkinsApi is never used
+        authenticationFilter = new JenkinsAuthenticationFilter(creds, (JenkinsApi) null);
+        userInjectionFilter = new JenkinsUserInjectionFilter(creds, authenticationFilter);
+        jobRequest = HttpRequest.builder().method("GET")
+                .endpoint("http://127.0.0.1:8080/job/DevTest/api/json").build();
+        userRequest = HttpRequest.builder().method("GET")
+                .endpoint("http://127.0.0.1:8080/user/" + USER_PLACE_HOLDER + "/api/json").build();
+    }
+
+    @Benchmark
+    public HttpRequest authenticate() {
+        return authenticationFilter.filter(jobRequest);
+    }
+
+    @Benchmark
+    public HttpRequest authenticateLegacy() {
+        return legacyAuthenticate(jobRequest);
+    }
+
+    @Benchmark
+    public HttpRequest injectUser() {
+        return userInjectionFilter.filter(userRequest);
+    }
+
+    @Benchmark
+    public HttpRequest injectUserLegacy() {
+        final HttpRequest authenticated = legacyAuthenticate(userRequest);
+        final String requestPath = authenticated.getEndpoint().getRawPath().replaceAll(USER_PLACE_HOLDER, creds.identity);
+        return authenticated.toBuilder().fromHttpRequest(authenticated).replacePath(requestPath).build();
+    }
+
+    private HttpRequest legacyAuthenticate(final HttpRequest request) {
+        final String authHeader = creds.authType().getAuthScheme() + " " + creds.authValue();
+        return request.toBuilder().addHeader(HttpHeaders.AUTHORIZATION, authHeader).build();
+    }
+}
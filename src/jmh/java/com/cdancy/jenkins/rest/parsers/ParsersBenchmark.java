@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.jenkins.rest.parsers;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.jclouds.http.HttpResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.cdancy.jenkins.rest.domain.common.LongResponse;
+import com.cdancy.jenkins.rest.domain.crumb.Crumb;
+import com.cdancy.jenkins.rest.domain.job.ProgressiveText;
+
+/**
+ * Benchmarks of the path param parsers and response parsers applied to
+ * every matching request. Responses carry byte array payloads, which can be
+ * read any number of times, so they are built once.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParsersBenchmark {
+
+    private static final String FOLDER_PATH = "/team/platform/services/";
+
+    private final FolderPathParser folderPathParser = new FolderPathParser();
+    private final OptionalFolderPathParser optionalFolderPathParser = new OptionalFolderPathParser();
+    private final LocationToQueueId locationToQueueId = new LocationToQueueId();
+    private final OutputToProgressiveText outputToProgressiveText = new OutputToProgressiveText();
+    private final CrumbParser crumbParser = new CrumbParser();
+
+    private HttpResponse queuedResponse;
+    private HttpResponse progressiveTextResponse;
+    private HttpResponse crumbResponse;
+
+    @Setup
+    public void setup() {
+        queuedResponse = HttpResponse.builder().statusCode(201)
+                .addHeader("Location", "http://127.0.0.1:8080/queue/item/1/").build();
+        final StringBuilder output = new StringBuilder();
+        for (int line = 0; line < 100; line++) {
+            output.append("[Pipeline] echo line ").append(line).append('\n');
+        }
+        progressiveTextResponse = HttpResponse.builder().statusCode(200)
+                .payload(output.toString().getBytes(StandardCharsets.UTF_8))
+                .addHeader("X-Text-Size", Integer.toString(output.length()))
+                .addHeader("X-More-Data", "true").build();
+        crumbResponse = HttpResponse.builder().statusCode(200)
+                .payload("Jenkins-Crumb:04a1109fc2db171362c966ebe9fc87f0".getBytes(StandardCharsets.UTF_8))
+                .addHeader("Set-Cookie", "JSESSIONID.ae1b2c3d=node0abcdefghij; Path=/; HttpOnly").build();
+    }
+
+    @Benchmark
+    public String folderPath() {
+        return folderPathParser.apply(FOLDER_PATH);
+    }
+
+    @Benchmark
+    public String optionalFolderPath() {
+        return optionalFolderPathParser.apply(FOLDER_PATH);
+    }
+
+    @Benchmark
+    public LongResponse locationToQueueId() {
+        return locationToQueueId.apply(queuedResponse);
+    }
+
+    @Benchmark
+    public ProgressiveText outputToProgressiveText() {
+        return outputToProgressiveText.apply(progressiveTextResponse);
+    }
+
+    @Benchmark
+    public Crumb crumb() {
+        return crumbParser.apply(crumbResponse);
+    }
+}
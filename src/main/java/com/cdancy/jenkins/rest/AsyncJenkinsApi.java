@@ -0,0 +1,42 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.jenkins.rest;
+
+import com.cdancy.jenkins.rest.features.AsyncJobsApi;
+import com.cdancy.jenkins.rest.features.AsyncQueueApi;
+import com.cdancy.jenkins.rest.features.AsyncStatisticsApi;
+import com.cdancy.jenkins.rest.features.AsyncSystemApi;
+
+/**
+ * CompletableFuture based view of {@link JenkinsApi}.
+ *
+ * <p>Each delegate mirrors its blocking counterpart method for method, so the
+ * same `@Named` endpoints, parsers and fallbacks apply. Calls are dispatched on
+ * the jclouds user executor which can be sized with the
+ * {@code jclouds.user-threads} property.
+ */
+public interface AsyncJenkinsApi {
+
+    AsyncJobsApi jobsApi();
+
+    AsyncQueueApi queueApi();
+
+    AsyncStatisticsApi statisticsApi();
+
+    AsyncSystemApi systemApi();
+}
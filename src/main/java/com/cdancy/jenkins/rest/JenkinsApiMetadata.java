@@ -48,7 +48,18 @@ public class JenkinsApiMetadata extends BaseHttpApiMetadata<JenkinsApi> {
     }
 
     public static Properties defaultProperties() {
-        return BaseHttpApiMetadata.defaultProperties();
+        final Properties properties = BaseHttpApiMetadata.defaultProperties();
+        properties.setProperty(JenkinsConstants.CRUMB_TTL_PROPERTY, JenkinsConstants.DEFAULT_CRUMB_TTL);
+        properties.setProperty(JenkinsConstants.TRANSPORT_PROPERTY, JenkinsConstants.DEFAULT_TRANSPORT);
+        properties.setProperty(JenkinsConstants.HTTP_VERSION_PROPERTY, JenkinsConstants.DEFAULT_HTTP_VERSION);
+        properties.setProperty(JenkinsConstants.KEEP_ALIVE_PROPERTY, JenkinsConstants.DEFAULT_KEEP_ALIVE);
+        properties.setProperty(JenkinsConstants.IDLE_TIMEOUT_PROPERTY, JenkinsConstants.DEFAULT_IDLE_TIMEOUT);
+        properties.setProperty(JenkinsConstants.ADAPTIVE_INITIAL_LIMIT_PROPERTY, JenkinsConstants.DEFAULT_ADAPTIVE_INITIAL_LIMIT);
+        properties.setProperty(JenkinsConstants.ADAPTIVE_MAX_LIMIT_PROPERTY, JenkinsConstants.DEFAULT_ADAPTIVE_MAX_LIMIT);
+        properties.setProperty(JenkinsConstants.ADAPTIVE_LATENCY_THRESHOLD_PROPERTY, JenkinsConstants.DEFAULT_ADAPTIVE_LATENCY_THRESHOLD);
+        properties.setProperty(JenkinsConstants.CACHE_MAX_BYTES_PROPERTY, JenkinsConstants.DEFAULT_CACHE_MAX_BYTES);
+        properties.setProperty(JenkinsConstants.CACHE_OPERATIONS_PROPERTY, JenkinsConstants.DEFAULT_CACHE_OPERATIONS);
+        return properties;
     }
 
     public static class Builder extends BaseHttpApiMetadata.Builder<JenkinsApi, Builder> {
@@ -34,6 +34,7 @@ import org.jclouds.javax.annotation.Nullable;
 public class JenkinsAuthentication extends Credentials {
 
     private final AuthenticationType authType;
+    private final String authHeader;
 
     /**
      * Create instance of JenkinsAuthentication.
@@ -45,6 +46,9 @@ public class JenkinsAuthentication extends Credentials {
     private JenkinsAuthentication(final String identity, final String credential, final AuthenticationType authType) {
         super(identity,  credential.contains(":") ? base64().encode(credential.getBytes()) : credential);
         this.authType = authType;
+        this.authHeader = authType != AuthenticationType.Anonymous
+                ? authType.getAuthScheme() + " " + this.credential
+                : null;
     }
 
     /**
@@ -57,6 +61,17 @@ public class JenkinsAuthentication extends Credentials {
         return this.credential;
     }
 
+    /**
+     * Return the value of the Authorization header for these credentials. It
+     * is computed once, when the credentials are built.
+     *
+     * @return the Authorization header value, or null when Anonymous.
+     */
+    @Nullable
+    public String authHeader() {
+        return this.authHeader;
+    }
+
     /**
      * Return the authentication type.
      *
@@ -17,18 +17,43 @@
 
 package com.cdancy.jenkins.rest;
 
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.cdancy.jenkins.rest.async.AsyncDelegates;
 import com.cdancy.jenkins.rest.auth.AuthenticationType;
 import com.cdancy.jenkins.rest.config.JenkinsAuthenticationModule;
+import com.cdancy.jenkins.rest.config.JenkinsHttpCommandExecutorServiceModule;
+import com.cdancy.jenkins.rest.config.JenkinsMetricsModule;
+import com.cdancy.jenkins.rest.http.HostConnections;
+import com.cdancy.jenkins.rest.http.Transport;
+import com.cdancy.jenkins.rest.http.TransportStats;
+import com.cdancy.jenkins.rest.metrics.JenkinsMetrics;
 import com.google.common.collect.Lists;
+import com.google.inject.Injector;
+import com.google.inject.Key;
 import com.google.inject.Module;
+import com.google.inject.name.Names;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
+import org.jclouds.Constants;
 import org.jclouds.ContextBuilder;
+import org.jclouds.concurrent.config.ConfiguresExecutorService;
+import org.jclouds.concurrent.config.ExecutorServiceModule;
+import org.jclouds.http.config.ConfiguresHttpCommandExecutorService;
 import org.jclouds.javax.annotation.Nullable;
 
 public final class JenkinsClient implements Closeable {
@@ -36,7 +61,12 @@ public final class JenkinsClient implements Closeable {
     private final String endPoint;
     private final JenkinsAuthentication credentials;
     private final JenkinsApi jenkinsApi;
+    private final AsyncJenkinsApi asyncJenkinsApi;
     private final Properties overrides;
+    private final HostConnections hostConnections;
+    private final String transport;
+    private final ExecutorService userExecutor;
+    private final ExecutorService virtualThreadExecutor;
 
     /**
      * Create a JenkinsClient inferring endpoint and authentication from
@@ -62,6 +92,14 @@ public final class JenkinsClient implements Closeable {
             @Nullable final JenkinsAuthentication authentication,
             @Nullable final Properties overrides,
             @Nullable final List<Module> modules) {
+        this(endPoint, authentication, overrides, modules, null);
+    }
+
+    private JenkinsClient(@Nullable final String endPoint,
+            @Nullable final JenkinsAuthentication authentication,
+            @Nullable final Properties overrides,
+            @Nullable final List<Module> modules,
+            @Nullable final ExecutorService virtualThreadExecutor) {
         this.endPoint = endPoint != null
                 ? endPoint
                 : JenkinsUtils.inferEndpoint();
@@ -69,20 +107,33 @@ public final class JenkinsClient implements Closeable {
                 ? authentication
                 : JenkinsUtils.inferAuthentication();
         this.overrides = mergeOverrides(overrides);
-        this.jenkinsApi = createApi(this.endPoint, this.credentials, this.overrides, modules);
+        this.virtualThreadExecutor = virtualThreadExecutor;
+        final List<Module> allModules = modules != null ? Lists.newArrayList(modules) : Lists.newArrayList();
+        if (virtualThreadExecutor != null) {
+            allModules.add(new ExecutorServiceModule(virtualThreadExecutor));
+        }
+        final Injector injector = createInjector(this.endPoint, this.credentials, this.overrides, allModules);
+        this.jenkinsApi = injector.getInstance(JenkinsApi.class);
+        this.userExecutor = injector.getInstance(Key.get(ExecutorService.class, Names.named(Constants.PROPERTY_USER_THREADS)));
+        this.asyncJenkinsApi = AsyncDelegates.create(AsyncJenkinsApi.class, JenkinsApi.class, this.jenkinsApi, this.userExecutor);
+        this.hostConnections = injector.getInstance(HostConnections.class);
+        this.transport = injector.getInstance(Key.get(String.class, Names.named(JenkinsConstants.TRANSPORT_PROPERTY)));
     }
 
-    private JenkinsApi createApi(final String endPoint, final JenkinsAuthentication authentication, final Properties overrides, final List<Module> modules) {
+    private Injector createInjector(final String endPoint, final JenkinsAuthentication authentication, final Properties overrides, final List<Module> modules) {
         final List<Module> allModules = Lists.newArrayList(new JenkinsAuthenticationModule(authentication));
         if (modules != null) {
             allModules.addAll(modules);
         }
+        if (allModules.stream().noneMatch(module -> module.getClass().isAnnotationPresent(ConfiguresHttpCommandExecutorService.class))) {
+            allModules.add(new JenkinsHttpCommandExecutorServiceModule());
+        }
         return ContextBuilder
                 .newBuilder(new JenkinsApiMetadata.Builder().build())
                 .endpoint(endPoint)
                 .modules(allModules)
                 .overrides(overrides)
-                .buildApi(JenkinsApi.class);
+                .buildInjector();
     }
 
     /**
@@ -125,6 +176,77 @@ public final class JenkinsClient implements Closeable {
         return this.jenkinsApi;
     }
 
+    /**
+     * Get the CompletableFuture based view of this client's api. Calls are
+     * dispatched on the jclouds user executor, which is unbounded by default
+     * and can be sized with the {@code jclouds.user-threads} override.
+     *
+     * @return AsyncJenkinsApi sharing this client's connection and configuration.
+     */
+    public AsyncJenkinsApi asyncApi() {
+        return this.asyncJenkinsApi;
+    }
+
+    /**
+     * Get the usage of the connections this client holds to each host. Only
+     * requests sent through one of the built-in transports are tracked.
+     *
+     * @return TransportStats snapshot.
+     */
+    public TransportStats transportStats() {
+        return this.hostConnections.stats(this.transport);
+    }
+
+    /**
+     * Whether this client's calls are dispatched on virtual threads, see
+     * `Builder.virtualThreads`.
+     *
+     * @return true if the user executor starts a virtual thread per task.
+     */
+    public boolean usesVirtualThreads() {
+        return this.virtualThreadExecutor != null;
+    }
+
+    /**
+     * Run the calls concurrently on the jclouds user executor and wait for
+     * all of them. With virtual threads each call gets a thread of its own,
+     * so thousands of blocking calls can be in flight at once, bounded only
+     * by `Builder.maxConnectionsPerHost`.
+     *
+     * <p>The first call to fail cancels those still running and is rethrown.
+     *
+     * @param calls the calls to make, typically lambdas over `api()`.
+     * @param <T> type returned by the calls.
+     * @return the result of each call, in the order of the calls.
+     * @throws ExecutionException wrapping the failure of the first call to fail.
+     * @throws InterruptedException if interrupted while waiting, in which case all calls are cancelled.
+     */
+    public <T> List<T> parallel(final Collection<? extends Callable<T>> calls) throws InterruptedException, ExecutionException {
+        final CompletionService<Integer> completion = new ExecutorCompletionService<>(this.userExecutor);
+        final List<Future<Integer>> futures = new ArrayList<>(calls.size());
+        final Object[] results = new Object[calls.size()];
+        try {
+            int index = 0;
+            for (final Callable<T> call : calls) {
+                final int slot = index++;
+                futures.add(completion.submit(() -> {
+                    results[slot] = call.call();
+                    return slot;
+                }));
+            }
+            for (int done = 0; done < futures.size(); done++) {
+                completion.take().get();
+            }
+        } finally {
+            for (final Future<Integer> future : futures) {
+                future.cancel(true);
+            }
+        }
+        @SuppressWarnings("unchecked")
+        final List<T> list = (List<T>) Arrays.asList(results);
+        return list;
+    }
+
     public static Builder builder() {
         return new Builder();
     }
@@ -134,6 +256,9 @@ public final class JenkinsClient implements Closeable {
         if (this.api() != null) {
             this.api().close();
         }
+        if (this.virtualThreadExecutor != null) {
+            this.virtualThreadExecutor.shutdownNow();
+        }
     }
 
     public static class Builder {
@@ -142,6 +267,10 @@ public final class JenkinsClient implements Closeable {
         private JenkinsAuthentication.Builder authBuilder;
         private Properties overrides;
         private List<Module> modules = Lists.newArrayList();
+        private JenkinsMetrics metrics;
+        private Transport transport;
+        private boolean virtualThreads;
+        private final Properties transportOverrides = new Properties();
 
         /**
          * Define the base endpoint to connect to.
@@ -206,6 +335,242 @@ public final class JenkinsClient implements Closeable {
             return this;
         }
 
+        /**
+         * Optional JenkinsMetrics to receive the latency, status code, size
+         * and retries of every call, keyed by the `@Named` value of the api
+         * method, along with the failures handled by fallbacks. Defaults to
+         * recording nothing.
+         *
+         * @param metrics the JenkinsMetrics to report to.
+         * @return this Builder.
+         */
+        public Builder metrics(final JenkinsMetrics metrics) {
+            this.metrics = metrics;
+            return this;
+        }
+
+        /**
+         * Optional Transport to send requests through. Defaults to
+         * `URL_CONNECTION`, or the value of the `jenkins.rest.transport`
+         * override. Ignored when one of the modules configures its own
+         * transport.
+         *
+         * @param transport the Transport to send requests through.
+         * @return this Builder.
+         */
+        public Builder transport(final Transport transport) {
+            this.transport = transport;
+            return this;
+        }
+
+        /**
+         * Dispatch the calls of `asyncApi()` and `parallel`, as well as the
+         * jclouds timeouts, on virtual threads rather than on a pool of
+         * platform threads. Requires JDK 21 or later and is ignored on older
+         * JDKs, see `JenkinsClient.usesVirtualThreads`. Defaults to false.
+         *
+         * @param virtualThreads true to use virtual threads when available.
+         * @return this Builder.
+         */
+        public Builder virtualThreads(final boolean virtualThreads) {
+            this.virtualThreads = virtualThreads;
+            return this;
+        }
+
+        /**
+         * Maximum number of connections, or of concurrent requests over
+         * HTTP/2, to each host. Further requests wait up to the connect
+         * timeout for one to be released. Defaults to 0, i.e. unbounded.
+         *
+         * @param maxConnectionsPerHost maximum connections per host, 0 for no limit.
+         * @return this Builder.
+         */
+        public Builder maxConnectionsPerHost(final int maxConnectionsPerHost) {
+            checkArgument(maxConnectionsPerHost >= 0, "maxConnectionsPerHost must be >= 0");
+            transportOverrides.setProperty(Constants.PROPERTY_MAX_CONNECTIONS_PER_HOST, Integer.toString(maxConnectionsPerHost));
+            return this;
+        }
+
+        /**
+         * Drop pooled connections once no request has been in flight for
+         * this long, e.g. to stay below the idle timeout of a load balancer.
+         * Only supported by the `HTTP_CLIENT` transport, HttpURLConnection
+         * leaving idle connections to the JDK's keep-alive cache.
+         *
+         * @param idleTimeout time after which idle connections are dropped.
+         * @return this Builder.
+         */
+        public Builder idleTimeout(final Duration idleTimeout) {
+            transportOverrides.setProperty(JenkinsConstants.IDLE_TIMEOUT_PROPERTY, Long.toString(positiveMillis(idleTimeout, "idleTimeout")));
+            return this;
+        }
+
+        /**
+         * Whether to keep connections open between requests. Defaults to
+         * true. Can only be turned off with the `URL_CONNECTION` transport.
+         *
+         * @param keepAlive false to close each connection after its response.
+         * @return this Builder.
+         */
+        public Builder keepAlive(final boolean keepAlive) {
+            transportOverrides.setProperty(JenkinsConstants.KEEP_ALIVE_PROPERTY, Boolean.toString(keepAlive));
+            return this;
+        }
+
+        /**
+         * Time allowed to establish a connection. Defaults to 60 seconds.
+         * With either transport it also bounds the wait for a connection,
+         * under {@link #maxConnectionsPerHost(int)}, and for room under a
+         * throttle.
+         *
+         * @param connectTimeout the connect timeout.
+         * @return this Builder.
+         */
+        public Builder connectTimeout(final Duration connectTimeout) {
+            transportOverrides.setProperty(Constants.PROPERTY_CONNECTION_TIMEOUT, Long.toString(positiveMillis(connectTimeout, "connectTimeout")));
+            return this;
+        }
+
+        /**
+         * Read timeout of the responses. Defaults to 60 seconds. With the
+         * `URL_CONNECTION` transport it is the time allowed between two
+         * reads of a response, headers or body. With `HTTP_CLIENT` it only
+         * bounds the wait for the response headers: a body stalling after
+         * them is not timed out.
+         *
+         * @param readTimeout the read timeout.
+         * @return this Builder.
+         */
+        public Builder readTimeout(final Duration readTimeout) {
+            transportOverrides.setProperty(Constants.PROPERTY_SO_TIMEOUT, Long.toString(positiveMillis(readTimeout, "readTimeout")));
+            return this;
+        }
+
+        /**
+         * Connect timeout of one operation, named after the `@Named` value
+         * of its api method, e.g. `system:info`. With `URL_CONNECTION` it
+         * bounds both establishing the connection and the wait for a
+         * connection or throttle slot. With `HTTP_CLIENT` it only bounds the
+         * latter, connections being established within the client's single
+         * {@link #connectTimeout(Duration)}.
+         *
+         * @param operation name of the operation.
+         * @param connectTimeout the connect timeout of that operation.
+         * @return this Builder.
+         */
+        public Builder connectTimeout(final String operation, final Duration connectTimeout) {
+            transportOverrides.setProperty(operationTimeout(operation, ".connect"), Long.toString(positiveMillis(connectTimeout, "connectTimeout")));
+            return this;
+        }
+
+        /**
+         * Read timeout of one operation, named after the `@Named` value of
+         * its api method, e.g. a shorter one for `system:info`. As with
+         * {@link #readTimeout(Duration)}, with `HTTP_CLIENT` it only bounds
+         * the wait for the response headers, not the reading of the body,
+         * e.g. of a `jobs:artifact` download.
+         *
+         * @param operation name of the operation.
+         * @param readTimeout the read timeout of that operation.
+         * @return this Builder.
+         */
+        public Builder readTimeout(final String operation, final Duration readTimeout) {
+            transportOverrides.setProperty(operationTimeout(operation, ".read"), Long.toString(positiveMillis(readTimeout, "readTimeout")));
+            return this;
+        }
+
+        /**
+         * Throttle requests on the client side: at most `requestsPerSecond`
+         * requests, with bursts of up to a second worth of requests, and at
+         * most `maxInFlight` requests waiting for or streaming their
+         * response. Limits are set either for one operation, e.g.
+         * `jobs:build`, or for a kind of operation, `RequestThrottle.READS`
+         * or `RequestThrottle.WRITES`. An operation's own limit replaces
+         * that of its kind. Requests over a limit wait before being sent,
+         * failing if no room is made within their connect timeout.
+         *
+         * @param operationOrKind name of the operation, or kind of operation.
+         * @param requestsPerSecond maximum rate of requests, 0 for no limit.
+         * @param maxInFlight maximum number of requests in flight, 0 for no limit.
+         * @return this Builder.
+         */
+        public Builder throttle(final String operationOrKind, final double requestsPerSecond, final int maxInFlight) {
+            checkArgument(operationOrKind != null && !operationOrKind.trim().isEmpty(), "operationOrKind cannot be null or empty");
+            checkArgument(requestsPerSecond >= 0, "requestsPerSecond must be >= 0");
+            checkArgument(maxInFlight >= 0, "maxInFlight must be >= 0");
+            checkArgument(requestsPerSecond > 0 || maxInFlight > 0, "one of requestsPerSecond and maxInFlight must be > 0");
+            final String prefix = JenkinsConstants.THROTTLE_PROPERTY_PREFIX + operationOrKind.trim();
+            transportOverrides.setProperty(prefix + ".rate", Double.toString(requestsPerSecond));
+            transportOverrides.setProperty(prefix + ".max-in-flight", Integer.toString(maxInFlight));
+            return this;
+        }
+
+        /**
+         * Adapt the number of requests in flight to how the controller
+         * copes: it is halved on a 429, 503 or 504, or on a response slower
+         * than `latencyThreshold`, and grows by one each time a full window
+         * of requests gets fast responses. Requests beyond the limit wait
+         * before being sent. Changes of the limit are reported to the
+         * `JenkinsMetrics`.
+         *
+         * @param initialLimit the number of requests allowed in flight to start with.
+         * @param maxLimit the number of requests the limit never goes above.
+         * @param latencyThreshold optional latency above which responses count as overload, null to only go by status codes.
+         * @return this Builder.
+         */
+        public Builder adaptiveConcurrency(final int initialLimit, final int maxLimit, @Nullable final Duration latencyThreshold) {
+            checkArgument(initialLimit > 0, "initialLimit must be > 0");
+            checkArgument(maxLimit >= initialLimit, "maxLimit must be >= initialLimit");
+            transportOverrides.setProperty(JenkinsConstants.ADAPTIVE_INITIAL_LIMIT_PROPERTY, Integer.toString(initialLimit));
+            transportOverrides.setProperty(JenkinsConstants.ADAPTIVE_MAX_LIMIT_PROPERTY, Integer.toString(maxLimit));
+            transportOverrides.setProperty(JenkinsConstants.ADAPTIVE_LATENCY_THRESHOLD_PROPERTY,
+                    latencyThreshold != null ? Long.toString(positiveMillis(latencyThreshold, "latencyThreshold")) : "0");
+            return this;
+        }
+
+        /**
+         * Keep the responses of `jobs:get-config`, `jobs:job-info`,
+         * `pluginManager:plugins` and `queue:queue` which carry an `ETag` or
+         * `Last-Modified` header, see {@link #responseCache(long, Collection)}.
+         *
+         * @param maxBytes total size of the response bodies kept.
+         * @return this Builder.
+         */
+        public Builder responseCache(final long maxBytes) {
+            return responseCache(maxBytes, Arrays.asList(JenkinsConstants.DEFAULT_CACHE_OPERATIONS.split(",")));
+        }
+
+        /**
+         * Keep the responses to the given operations which carry an `ETag`
+         * or `Last-Modified` header. Later calls send the validators of the
+         * stored response and get it back, without it being transferred
+         * again, when Jenkins answers 304. The least recently used responses
+         * are dropped once their bodies add up to more than `maxBytes`. Each
+         * lookup is reported to the `JenkinsMetrics` as a hit or a miss.
+         *
+         * @param maxBytes total size of the response bodies kept.
+         * @param operations names of the GET operations to cache, e.g. `jobs:job-info`.
+         * @return this Builder.
+         */
+        public Builder responseCache(final long maxBytes, final Collection<String> operations) {
+            checkArgument(maxBytes > 0, "maxBytes must be > 0");
+            checkArgument(operations != null && !operations.isEmpty(), "operations cannot be null or empty");
+            transportOverrides.setProperty(JenkinsConstants.CACHE_MAX_BYTES_PROPERTY, Long.toString(maxBytes));
+            transportOverrides.setProperty(JenkinsConstants.CACHE_OPERATIONS_PROPERTY, String.join(",", operations));
+            return this;
+        }
+
+        private static String operationTimeout(final String operation, final String suffix) {
+            checkArgument(operation != null && !operation.trim().isEmpty(), "operation cannot be null or empty");
+            return JenkinsConstants.TIMEOUTS_PROPERTY_PREFIX + operation.trim() + suffix;
+        }
+
+        private static long positiveMillis(final Duration duration, final String name) {
+            checkArgument(duration != null && duration.toMillis() > 0 && duration.toMillis() <= Integer.MAX_VALUE,
+                    name + " must be between 1ms and " + Integer.MAX_VALUE + "ms");
+            return duration.toMillis();
+        }
+
         /**
          * Build an instance of JenkinsClient.
          *
@@ -218,7 +583,42 @@ public final class JenkinsClient implements Closeable {
                     ? authBuilder.build()
                     : null;
 
-            return new JenkinsClient(endPoint, authentication, overrides, modules);
+            final List<Module> allModules = Lists.newArrayList(modules);
+            if (metrics != null) {
+                allModules.add(new JenkinsMetricsModule(metrics));
+            }
+
+            Properties allOverrides = overrides;
+            if (transport != null || !transportOverrides.isEmpty()) {
+                allOverrides = new Properties();
+                if (overrides != null) {
+                    allOverrides.putAll(overrides);
+                }
+                allOverrides.putAll(transportOverrides);
+                if (transport != null) {
+                    allOverrides.setProperty(JenkinsConstants.TRANSPORT_PROPERTY, transport.name());
+                }
+                validateTransport(allOverrides);
+            }
+
+            final boolean userExecutorConfigured = allModules.stream()
+                    .anyMatch(module -> module.getClass().isAnnotationPresent(ConfiguresExecutorService.class));
+            final ExecutorService virtualThreadExecutor = virtualThreads && !userExecutorConfigured
+                    ? JenkinsUtils.newVirtualThreadPerTaskExecutor()
+                    : null;
+
+            return new JenkinsClient(endPoint, authentication, allOverrides, allModules, virtualThreadExecutor);
+        }
+
+        // reject settings the selected transport cannot honour
+        private void validateTransport(final Properties allOverrides) {
+            final Transport selected = Transport.valueOf(allOverrides.getProperty(JenkinsConstants.TRANSPORT_PROPERTY,
+                    JenkinsConstants.DEFAULT_TRANSPORT).trim().toUpperCase());
+            checkArgument(selected == Transport.HTTP_CLIENT || !transportOverrides.containsKey(JenkinsConstants.IDLE_TIMEOUT_PROPERTY),
+                    "idleTimeout requires the HTTP_CLIENT transport");
+            checkArgument(selected == Transport.URL_CONNECTION
+                    || Boolean.parseBoolean(allOverrides.getProperty(JenkinsConstants.KEEP_ALIVE_PROPERTY, JenkinsConstants.DEFAULT_KEEP_ALIVE)),
+                    "keepAlive(false) requires the URL_CONNECTION transport");
         }
     }
 }
@@ -45,6 +45,48 @@ public class JenkinsConstants {
 
     public static final String JENKINS_COOKIES_JSESSIONID = "JSESSIONID";
 
+    // seconds a crumb is re-used for before a new one is fetched, 0 to keep it until rejected
+    public static final String CRUMB_TTL_PROPERTY = "jenkins.rest.crumb.ttl";
+    public static final String DEFAULT_CRUMB_TTL = "1800";
+
+    // name of the Transport requests are sent through
+    public static final String TRANSPORT_PROPERTY = "jenkins.rest.transport";
+    public static final String DEFAULT_TRANSPORT = "URL_CONNECTION";
+
+    // HttpClient.Version the HTTP_CLIENT transport asks for
+    public static final String HTTP_VERSION_PROPERTY = "jenkins.rest.http.version";
+    public static final String DEFAULT_HTTP_VERSION = "HTTP_2";
+
+    // whether connections are kept open between requests
+    public static final String KEEP_ALIVE_PROPERTY = "jenkins.rest.keep.alive";
+    public static final String DEFAULT_KEEP_ALIVE = "true";
+
+    // milliseconds without any request in flight after which pooled connections are dropped, 0 to keep them
+    public static final String IDLE_TIMEOUT_PROPERTY = "jenkins.rest.idle.timeout";
+    public static final String DEFAULT_IDLE_TIMEOUT = "0";
+
+    // prefix of the per-operation timeouts, in milliseconds: jenkins.rest.timeouts.<operation>.connect and .read
+    public static final String TIMEOUTS_PROPERTY_PREFIX = "jenkins.rest.timeouts.";
+
+    // prefix of the client-side throttle limits: jenkins.rest.throttle.<operation or kind>.rate and .max-in-flight
+    public static final String THROTTLE_PROPERTY_PREFIX = "jenkins.rest.throttle.";
+
+    // adaptive limit of the requests in flight, disabled while the maximum is 0
+    public static final String ADAPTIVE_INITIAL_LIMIT_PROPERTY = "jenkins.rest.adaptive.initial-limit";
+    public static final String DEFAULT_ADAPTIVE_INITIAL_LIMIT = "4";
+    public static final String ADAPTIVE_MAX_LIMIT_PROPERTY = "jenkins.rest.adaptive.max-limit";
+    public static final String DEFAULT_ADAPTIVE_MAX_LIMIT = "0";
+    // milliseconds above which a response counts as a sign of overload, 0 to only go by status codes
+    public static final String ADAPTIVE_LATENCY_THRESHOLD_PROPERTY = "jenkins.rest.adaptive.latency-threshold";
+    public static final String DEFAULT_ADAPTIVE_LATENCY_THRESHOLD = "0";
+
+    // bytes of response bodies kept for conditional GETs, 0 to disable the cache
+    public static final String CACHE_MAX_BYTES_PROPERTY = "jenkins.rest.cache.max-bytes";
+    public static final String DEFAULT_CACHE_MAX_BYTES = "0";
+    // comma separated operations whose responses are cached
+    public static final String CACHE_OPERATIONS_PROPERTY = "jenkins.rest.cache.operations";
+    public static final String DEFAULT_CACHE_OPERATIONS = "jobs:get-config,jobs:job-info,pluginManager:plugins,queue:queue";
+
     protected JenkinsConstants() {
         throw new UnsupportedOperationException("Purposefully not implemented");
     }
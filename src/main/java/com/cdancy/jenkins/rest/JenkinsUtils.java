@@ -46,6 +46,8 @@ import java.util.Collections;
 import java.util.Enumeration;
 import java.util.Objects;
 import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.jclouds.javax.annotation.Nullable;
 
@@ -228,6 +230,22 @@ public class JenkinsUtils {
         return overrides;
     }
 
+    /**
+     * Create an ExecutorService starting a new virtual thread for each task.
+     * Virtual threads are looked up at runtime as they are only available
+     * from JDK 21.
+     *
+     * @return the ExecutorService, or null when running on an older JDK.
+     */
+    @Nullable
+    public static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (final ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
     /**
      * Add the passed environment variables to the currently existing env-vars.
      *
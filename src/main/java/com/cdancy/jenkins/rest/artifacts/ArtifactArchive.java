@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.jenkins.rest.artifacts;
+
+import java.io.FileNotFoundException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import org.jclouds.javax.annotation.Nullable;
+
+import com.cdancy.jenkins.rest.features.JobsApi;
+
+/**
+ * Read every artifact of a build through the single zip archive returned by
+ * `JobsApi.artifactsArchive`, handling entries as they arrive rather than
+ * downloading the archive first.
+ */
+public final class ArtifactArchive {
+
+    // Jenkins puts every artifact under this directory within the archive
+    static final String ARCHIVE_PREFIX = "archive/";
+
+    /**
+     * Receives each file of the archive in turn.
+     */
+    @FunctionalInterface
+    public interface EntryConsumer {
+
+        /**
+         * Handle one artifact. The stream must not be used once this method
+         * returns and closing it has no effect.
+         *
+         * @param relativePath path of the artifact relative to the build.
+         * @param content the content of the artifact.
+         * @throws IOException if the artifact could not be handled.
+         */
+        void accept(String relativePath, InputStream content) throws IOException;
+    }
+
+    /**
+     * Pass each artifact of the build, one after the other, to the consumer.
+     *
+     * @param jobsApi the JobsApi to fetch the archive with.
+     * @param optionalFolderPath optional folder path the job lives in.
+     * @param jobName name of the job.
+     * @param buildNumber number of the build.
+     * @param consumer receives each artifact.
+     * @return the number of artifacts read.
+     * @throws IOException if the build does not exist or the archive could not be read.
+     */
+    public static int forEachEntry(final JobsApi jobsApi,
+            @Nullable final String optionalFolderPath,
+            final String jobName,
+            final int buildNumber,
+            final EntryConsumer consumer) throws IOException {
+        final InputStream archive = jobsApi.artifactsArchive(optionalFolderPath, jobName, buildNumber);
+        if (archive == null) {
+            throw new FileNotFoundException("No artifacts archive found for " + jobName + " #" + buildNumber);
+        }
+        int count = 0;
+        try (ZipInputStream zip = new ZipInputStream(archive)) {
+            final InputStream entryStream = new FilterInputStream(zip) {
+                @Override
+                public void close() {
+                    // the zip stream is closed once all entries have been read
+                }
+            };
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                if (!entry.isDirectory()) {
+                    consumer.accept(relativePath(entry.getName()), entryStream);
+                    count++;
+                }
+                zip.closeEntry();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Extract every artifact of the build into the target directory keeping
+     * their relative paths. Existing files are replaced.
+     *
+     * @param jobsApi the JobsApi to fetch the archive with.
+     * @param optionalFolderPath optional folder path the job lives in.
+     * @param jobName name of the job.
+     * @param buildNumber number of the build.
+     * @param targetDirectory directory to extract into.
+     * @return the paths of the extracted files.
+     * @throws IOException if the build does not exist or the archive could not be extracted.
+     * @throws IllegalArgumentException if an entry would be extracted outside the target directory.
+     */
+    public static List<Path> extract(final JobsApi jobsApi,
+            @Nullable final String optionalFolderPath,
+            final String jobName,
+            final int buildNumber,
+            final Path targetDirectory) throws IOException {
+        final List<Path> extracted = new ArrayList<>();
+        forEachEntry(jobsApi, optionalFolderPath, jobName, buildNumber, (relativePath, content) -> {
+            final Path target = ArtifactDownloader.resolve(targetDirectory, relativePath);
+            if (target.getParent() != null) {
+                Files.createDirectories(target.getParent());
+            }
+            Files.copy(content, target, StandardCopyOption.REPLACE_EXISTING);
+            extracted.add(target);
+        });
+        return extracted;
+    }
+
+    static String relativePath(final String entryName) {
+        return entryName.startsWith(ARCHIVE_PREFIX) ? entryName.substring(ARCHIVE_PREFIX.length()) : entryName;
+    }
+
+    private ArtifactArchive() {
+        throw new UnsupportedOperationException("Purposefully not implemented");
+    }
+}
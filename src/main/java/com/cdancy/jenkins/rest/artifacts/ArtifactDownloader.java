@@ -0,0 +1,495 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.jenkins.rest.artifacts;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.jclouds.http.HttpResponse;
+import org.jclouds.http.HttpResponseException;
+import org.jclouds.javax.annotation.Nullable;
+
+import com.cdancy.jenkins.rest.domain.job.Artifact;
+import com.cdancy.jenkins.rest.domain.job.BuildInfo;
+import com.cdancy.jenkins.rest.features.JobsApi;
+import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Download build artifacts straight into files.
+ *
+ * <p>The size of each artifact is first asked for with a one byte ranged
+ * request. Artifacts larger than `chunkSize` are then fetched as several
+ * ranges in parallel, each written at its own position of the target file
+ * through `FileChannel.transferFrom`. A range which fails part way is
+ * retried from the last byte written rather than from the start. When Jenkins
+ * does not honour ranges the artifact is fetched in one piece instead.
+ *
+ * <p>Data is written to a `.part` file next to the target which is moved in
+ * place once the whole artifact has been received.
+ */
+public final class ArtifactDownloader implements Closeable {
+
+    static final String PART_SUFFIX = ".part";
+
+    // bytes moved per transferFrom call, bounding how much is fetched again when a range is resumed
+    private static final long TRANSFER_SIZE = 64 * 1024;
+
+    private static final int PARTIAL_CONTENT = 206;
+    private static final int RANGE_NOT_SATISFIABLE = 416;
+
+    private final JobsApi jobsApi;
+    private final Executor executor;
+    private final ExecutorService ownedExecutor;
+    private final long chunkSize;
+    private final int maxRetries;
+    private final long retryDelayMillis;
+
+    private ArtifactDownloader(final Builder builder) {
+        this.jobsApi = builder.jobsApi;
+        this.ownedExecutor = builder.executor == null
+                ? Executors.newFixedThreadPool(builder.parallelism, new ThreadFactoryBuilder()
+                        .setNameFormat("jenkins-artifact-downloader-%d").setDaemon(true).build())
+                : null;
+        this.executor = builder.executor != null ? builder.executor : ownedExecutor;
+        this.chunkSize = builder.chunkSize;
+        this.maxRetries = builder.maxRetries;
+        this.retryDelayMillis = builder.retryDelayMillis;
+    }
+
+    /**
+     * Download every artifact of a build, concurrently, into the target
+     * directory keeping their relative paths.
+     *
+     * @param optionalFolderPath optional folder path the job lives in.
+     * @param jobName name of the job.
+     * @param buildInfo the build whose artifacts should be downloaded.
+     * @param targetDirectory directory to download into.
+     * @return future completed with the paths of the downloaded files.
+     */
+    public CompletableFuture<List<Path>> downloadAll(@Nullable final String optionalFolderPath,
+            final String jobName,
+            final BuildInfo buildInfo,
+            final Path targetDirectory) {
+        final List<CompletableFuture<Path>> downloads = new ArrayList<>();
+        for (final Artifact artifact : buildInfo.artifacts()) {
+            final Path target;
+            try {
+                target = resolve(targetDirectory, artifact.relativePath());
+            } catch (final IllegalArgumentException e) {
+                final CompletableFuture<List<Path>> failed = new CompletableFuture<>();
+                failed.completeExceptionally(e);
+                return failed;
+            }
+            downloads.add(download(optionalFolderPath, jobName, buildInfo.number(), artifact.relativePath(), target));
+        }
+        return CompletableFuture.allOf(downloads.toArray(new CompletableFuture<?>[0])).thenApply(done -> {
+            final List<Path> paths = new ArrayList<>(downloads.size());
+            for (final CompletableFuture<Path> download : downloads) {
+                paths.add(download.join());
+            }
+            return paths;
+        });
+    }
+
+    /**
+     * Download a single artifact into the target file, replacing it if it
+     * already exists.
+     *
+     * @param optionalFolderPath optional folder path the job lives in.
+     * @param jobName name of the job.
+     * @param buildNumber number of the build.
+     * @param relativeArtifactPath path of the artifact relative to the build.
+     * @param target file to download into.
+     * @return future completed with the target once the download is complete.
+     */
+    public CompletableFuture<Path> download(@Nullable final String optionalFolderPath,
+            final String jobName,
+            final int buildNumber,
+            final String relativeArtifactPath,
+            final Path target) {
+        final Download download = new Download(optionalFolderPath, jobName, buildNumber, relativeArtifactPath, target);
+        final CompletableFuture<Path> result = CompletableFuture
+                .supplyAsync(download::open, executor)
+                .thenCompose(chunks -> CompletableFuture.allOf(chunks.stream()
+                        .map(chunk -> CompletableFuture.runAsync(() -> download.fetch(chunk[0], chunk[1]), executor))
+                        .toArray(CompletableFuture[]::new)))
+                .thenApply(done -> download.commit());
+        result.whenComplete((path, error) -> download.close(error != null));
+        return result;
+    }
+
+    /**
+     * Shut down the executor if it was created by this downloader.
+     */
+    @Override
+    public void close() {
+        if (ownedExecutor != null) {
+            ownedExecutor.shutdownNow();
+        }
+    }
+
+    static Path resolve(final Path directory, final String relativePath) {
+        final Path base = directory.toAbsolutePath().normalize();
+        final Path target = base.resolve(relativePath).normalize();
+        checkArgument(target.startsWith(base) && !target.equals(base), "artifact path escapes target directory: %s", relativePath);
+        return target;
+    }
+
+    // parse the total length out of a `Content-Range: bytes 0-0/1234` header, -1 if unknown
+    static long totalLength(@Nullable final String contentRange) {
+        if (contentRange != null) {
+            final int slash = contentRange.lastIndexOf('/');
+            if (slash != -1 && slash < contentRange.length() - 1 && contentRange.charAt(slash + 1) != '*') {
+                try {
+                    return Long.parseLong(contentRange.substring(slash + 1).trim());
+                } catch (final NumberFormatException e) {
+                    return -1;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private final class Download {
+
+        private final String optionalFolderPath;
+        private final String jobName;
+        private final int buildNumber;
+        private final String relativeArtifactPath;
+        private final Path target;
+        private final Path part;
+        private FileChannel channel;
+
+        Download(final String optionalFolderPath, final String jobName, final int buildNumber, final String relativeArtifactPath, final Path target) {
+            this.optionalFolderPath = optionalFolderPath;
+            this.jobName = jobName;
+            this.buildNumber = buildNumber;
+            this.relativeArtifactPath = relativeArtifactPath;
+            this.target = target;
+            this.part = target.resolveSibling(target.getFileName() + PART_SUFFIX);
+        }
+
+        // ask for the first byte to learn the total length and split the rest into ranges of chunkSize
+        List<long[]> open() {
+            try {
+                if (target.getParent() != null) {
+                    Files.createDirectories(target.getParent());
+                }
+                channel = FileChannel.open(part, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+
+                final HttpResponse probe;
+                try {
+                    probe = request("bytes=0-0");
+                } catch (final HttpResponseException e) {
+                    if (e.getResponse() != null && e.getResponse().getStatusCode() == RANGE_NOT_SATISFIABLE) {
+                        // nothing to ask a range of: the artifact is empty
+                        return new ArrayList<>();
+                    }
+                    throw e;
+                }
+
+                final List<long[]> chunks = new ArrayList<>();
+                if (probe.getStatusCode() != PARTIAL_CONTENT) {
+                    // ranges not honoured so take the whole body here, starting over if need be
+                    try {
+                        write(probe, 0, Long.MAX_VALUE);
+                    } catch (final IOException e) {
+                        chunks.add(new long[] { 0, -1 });
+                    }
+                    return chunks;
+                }
+
+                write(probe, 0, 1);
+                final long total = totalLength(probe.getFirstHeaderOrNull("Content-Range"));
+                if (total < 0) {
+                    // length unknown so read whatever follows the first byte in one go
+                    chunks.add(new long[] { 1, -1 });
+                    return chunks;
+                }
+                if (total > 1) {
+                    // transferFrom never writes past the end of the file so size it up front
+                    channel.write(ByteBuffer.allocate(1), total - 1);
+                }
+                for (long start = 1; start < total; start += chunkSize) {
+                    chunks.add(new long[] { start, Math.min(start + chunkSize, total) - 1 });
+                }
+                return chunks;
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        // fetch bytes [start, end], or [start, EOF) when end is -1, resuming from the last byte written on failure
+        void fetch(final long start, final long end) {
+            long position = start;
+            int attempt = 0;
+            while (true) {
+                try {
+                    final HttpResponse response = request("bytes=" + position + "-" + (end >= 0 ? end : ""));
+                    if (response.getStatusCode() != PARTIAL_CONTENT && position != 0) {
+                        if (end >= 0) {
+                            closePayload(response);
+                            throw new RangeNotSupportedException("Range requests not honoured for " + relativeArtifactPath);
+                        }
+                        // the only chunk runs to the end and the whole artifact was sent again so start over
+                        position = 0;
+                    }
+                    final long expected = end >= 0 ? end - position + 1 : Long.MAX_VALUE;
+                    position += write(response, position, expected);
+                    if (end >= 0 && position <= end) {
+                        throw new EOFException("Premature end of " + relativeArtifactPath + " at byte " + position);
+                    }
+                    return;
+                } catch (final IOException | RuntimeException e) {
+                    if (e instanceof PartialTransferException) {
+                        // resume from the last byte written
+                        position += ((PartialTransferException) e).transferred;
+                    }
+                    if (!retryable(e) || ++attempt > maxRetries) {
+                        Throwables.throwIfUnchecked(e);
+                        throw new UncheckedIOException((IOException) e);
+                    }
+                    sleep(attempt);
+                }
+            }
+        }
+
+        Path commit() {
+            try {
+                channel.force(false);
+                channel.close();
+                return Files.move(part, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void close(final boolean failed) {
+            try {
+                if (channel != null) {
+                    channel.close();
+                }
+                if (failed) {
+                    Files.deleteIfExists(part);
+                }
+            } catch (final IOException e) {
+                // best effort
+            }
+        }
+
+        private HttpResponse request(final String range) throws FileNotFoundException {
+            final HttpResponse response = jobsApi.artifactRange(optionalFolderPath, jobName, buildNumber, relativeArtifactPath, range);
+            if (response == null) {
+                throw new FileNotFoundException("No artifact " + relativeArtifactPath + " found for " + jobName + " #" + buildNumber);
+            }
+            return response;
+        }
+
+        // transfer up to `count` bytes of the response body to the file, starting at `position`
+        private long write(final HttpResponse response, final long position, final long count) throws IOException {
+            if (response.getPayload() == null) {
+                return 0;
+            }
+            try (InputStream stream = response.getPayload().openStream();
+                    ReadableByteChannel source = Channels.newChannel(stream)) {
+                long written = 0;
+                try {
+                    while (written < count) {
+                        final long transferred = channel.transferFrom(source, position + written, Math.min(count - written, TRANSFER_SIZE));
+                        if (transferred <= 0) {
+                            break;
+                        }
+                        written += transferred;
+                    }
+                } catch (final IOException e) {
+                    throw new PartialTransferException(written, e);
+                }
+                return written;
+            }
+        }
+
+        private void closePayload(final HttpResponse response) throws IOException {
+            if (response.getPayload() != null) {
+                response.getPayload().openStream().close();
+            }
+        }
+
+        private boolean retryable(final Exception e) {
+            if (e instanceof FileNotFoundException) {
+                return false;
+            }
+            if (e instanceof HttpResponseException) {
+                final HttpResponse response = ((HttpResponseException) e).getResponse();
+                return response == null || response.getStatusCode() >= 500;
+            }
+            if (e instanceof RangeNotSupportedException) {
+                return false;
+            }
+            for (final Throwable cause : Throwables.getCausalChain(e)) {
+                if (cause instanceof IOException) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void sleep(final int attempt) {
+            if (retryDelayMillis > 0) {
+                try {
+                    TimeUnit.MILLISECONDS.sleep(retryDelayMillis * attempt);
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new CompletionException(new InterruptedIOException("Interrupted while retrying " + relativeArtifactPath));
+                }
+            }
+        }
+    }
+
+    private static final class PartialTransferException extends IOException {
+
+        private final long transferred;
+
+        PartialTransferException(final long transferred, final IOException cause) {
+            super(cause.getMessage(), cause);
+            this.transferred = transferred;
+        }
+    }
+
+    private static final class RangeNotSupportedException extends IOException {
+
+        RangeNotSupportedException(final String message) {
+            super(message);
+        }
+    }
+
+    public static Builder builder(final JobsApi jobsApi) {
+        return new Builder(jobsApi);
+    }
+
+    public static class Builder {
+
+        private final JobsApi jobsApi;
+        private Executor executor;
+        private int parallelism = 4;
+        private long chunkSize = 8L * 1024 * 1024;
+        private int maxRetries = 3;
+        private long retryDelayMillis = 1000;
+
+        Builder(final JobsApi jobsApi) {
+            this.jobsApi = Objects.requireNonNull(jobsApi, "jobsApi cannot be null");
+        }
+
+        /**
+         * Optional Executor to download on. When not set a fixed pool of
+         * `parallelism` daemon threads is created and shut down when the
+         * downloader is closed.
+         *
+         * @param executor the Executor to download on.
+         * @return this Builder.
+         */
+        public Builder executor(final Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        /**
+         * Number of ranges downloaded at the same time, across all artifacts,
+         * when no executor is given. Defaults to 4.
+         *
+         * @param parallelism number of download threads.
+         * @return this Builder.
+         */
+        public Builder parallelism(final int parallelism) {
+            checkArgument(parallelism > 0, "parallelism must be > 0");
+            this.parallelism = parallelism;
+            return this;
+        }
+
+        /**
+         * Size of the ranges large artifacts are split into. Defaults to 8MB.
+         *
+         * @param chunkSize size, in bytes, of each range.
+         * @return this Builder.
+         */
+        public Builder chunkSize(final long chunkSize) {
+            checkArgument(chunkSize > 0, "chunkSize must be > 0");
+            this.chunkSize = chunkSize;
+            return this;
+        }
+
+        /**
+         * Number of times a failed range is retried. Defaults to 3.
+         *
+         * @param maxRetries maximum retries per range.
+         * @return this Builder.
+         */
+        public Builder maxRetries(final int maxRetries) {
+            checkArgument(maxRetries >= 0, "maxRetries must be >= 0");
+            this.maxRetries = maxRetries;
+            return this;
+        }
+
+        /**
+         * Time to wait before the first retry of a range, multiplied by the
+         * attempt number for each further retry. Defaults to 1 second.
+         *
+         * @param retryDelay delay before retrying.
+         * @param unit unit of retryDelay.
+         * @return this Builder.
+         */
+        public Builder retryDelay(final long retryDelay, final TimeUnit unit) {
+            checkArgument(retryDelay >= 0, "retryDelay must be >= 0");
+            this.retryDelayMillis = unit.toMillis(retryDelay);
+            return this;
+        }
+
+        /**
+         * Build an instance of ArtifactDownloader.
+         *
+         * @return ArtifactDownloader
+         */
+        public ArtifactDownloader build() {
+            return new ArtifactDownloader(this);
+        }
+    }
+}
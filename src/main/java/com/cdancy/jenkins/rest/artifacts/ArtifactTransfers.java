@@ -0,0 +1,198 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.jenkins.rest.artifacts;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Objects;
+
+import org.jclouds.javax.annotation.Nullable;
+
+import com.cdancy.jenkins.rest.features.JobsApi;
+import com.google.common.io.BaseEncoding;
+
+/**
+ * Copy artifacts from `JobsApi.artifact` into files or channels through NIO,
+ * optionally computing a checksum in the same pass.
+ *
+ * <p>Without a checksum, transfers into a FileChannel are left to
+ * `FileChannel.transferFrom`. Otherwise bytes go through a direct buffer,
+ * allocated once per thread and re-used for every transfer, which is fed to
+ * both the MessageDigest and the target channel so the data is never copied
+ * into a heap array of our own. Instances are thread safe.
+ */
+public final class ArtifactTransfers {
+
+    private final JobsApi jobsApi;
+    private final int bufferSize;
+    private final ThreadLocal<ByteBuffer> buffers;
+
+    private ArtifactTransfers(final Builder builder) {
+        this.jobsApi = builder.jobsApi;
+        this.bufferSize = builder.bufferSize;
+        this.buffers = ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(bufferSize));
+    }
+
+    /**
+     * Transfer an artifact into a file, replacing it if it already exists.
+     *
+     * @param optionalFolderPath optional folder path the job lives in.
+     * @param jobName name of the job.
+     * @param buildNumber number of the build.
+     * @param relativeArtifactPath path of the artifact relative to the build.
+     * @param target file to write to.
+     * @param algorithm optional MessageDigest algorithm, e.g. `SHA-256`, to checksum the artifact with.
+     * @return the number of bytes transferred and the checksum if asked for.
+     * @throws IOException if the artifact does not exist or could not be transferred.
+     */
+    public TransferResult transfer(@Nullable final String optionalFolderPath,
+            final String jobName,
+            final int buildNumber,
+            final String relativeArtifactPath,
+            final Path target,
+            @Nullable final String algorithm) throws IOException {
+        final MessageDigest digest = digest(algorithm);
+        try (InputStream artifact = open(optionalFolderPath, jobName, buildNumber, relativeArtifactPath);
+                FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            return copy(artifact, channel, digest);
+        }
+    }
+
+    /**
+     * Transfer an artifact into a channel. The channel is left open.
+     *
+     * @param optionalFolderPath optional folder path the job lives in.
+     * @param jobName name of the job.
+     * @param buildNumber number of the build.
+     * @param relativeArtifactPath path of the artifact relative to the build.
+     * @param target channel to write to.
+     * @param algorithm optional MessageDigest algorithm, e.g. `SHA-256`, to checksum the artifact with.
+     * @return the number of bytes transferred and the checksum if asked for.
+     * @throws IOException if the artifact does not exist or could not be transferred.
+     */
+    public TransferResult transfer(@Nullable final String optionalFolderPath,
+            final String jobName,
+            final int buildNumber,
+            final String relativeArtifactPath,
+            final WritableByteChannel target,
+            @Nullable final String algorithm) throws IOException {
+        final MessageDigest digest = digest(algorithm);
+        try (InputStream artifact = open(optionalFolderPath, jobName, buildNumber, relativeArtifactPath)) {
+            return copy(artifact, target, digest);
+        }
+    }
+
+    private InputStream open(final String optionalFolderPath, final String jobName, final int buildNumber, final String relativeArtifactPath) throws FileNotFoundException {
+        final InputStream artifact = jobsApi.artifact(optionalFolderPath, jobName, buildNumber, relativeArtifactPath);
+        if (artifact == null) {
+            throw new FileNotFoundException("No artifact " + relativeArtifactPath + " found for " + jobName + " #" + buildNumber);
+        }
+        return artifact;
+    }
+
+    private TransferResult copy(final InputStream artifact, final WritableByteChannel target, @Nullable final MessageDigest digest) throws IOException {
+        final ReadableByteChannel source = Channels.newChannel(artifact);
+        long size = 0;
+        if (digest == null && target instanceof FileChannel) {
+            final FileChannel file = (FileChannel) target;
+            final long start = file.position();
+            long transferred;
+            while ((transferred = file.transferFrom(source, start + size, bufferSize)) > 0) {
+                size += transferred;
+            }
+            file.position(start + size);
+            return TransferResult.create(size, null, null);
+        }
+
+        final ByteBuffer buffer = buffers.get();
+        buffer.clear();
+        while (source.read(buffer) != -1) {
+            buffer.flip();
+            if (digest != null) {
+                buffer.mark();
+                digest.update(buffer);
+                buffer.reset();
+            }
+            while (buffer.hasRemaining()) {
+                size += target.write(buffer);
+            }
+            buffer.clear();
+        }
+        return digest != null
+                ? TransferResult.create(size, digest.getAlgorithm(), BaseEncoding.base16().lowerCase().encode(digest.digest()))
+                : TransferResult.create(size, null, null);
+    }
+
+    private static MessageDigest digest(@Nullable final String algorithm) {
+        if (algorithm == null) {
+            return null;
+        }
+        try {
+            return MessageDigest.getInstance(algorithm);
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IllegalArgumentException("Unknown digest algorithm: " + algorithm, e);
+        }
+    }
+
+    public static Builder builder(final JobsApi jobsApi) {
+        return new Builder(jobsApi);
+    }
+
+    public static class Builder {
+
+        private final JobsApi jobsApi;
+        private int bufferSize = 64 * 1024;
+
+        Builder(final JobsApi jobsApi) {
+            this.jobsApi = Objects.requireNonNull(jobsApi, "jobsApi cannot be null");
+        }
+
+        /**
+         * Size of the direct buffer each thread re-uses. Defaults to 64KB.
+         *
+         * @param bufferSize size, in bytes, of the buffer.
+         * @return this Builder.
+         */
+        public Builder bufferSize(final int bufferSize) {
+            checkArgument(bufferSize > 0, "bufferSize must be > 0");
+            this.bufferSize = bufferSize;
+            return this;
+        }
+
+        /**
+         * Build an instance of ArtifactTransfers.
+         *
+         * @return ArtifactTransfers
+         */
+        public ArtifactTransfers build() {
+            return new ArtifactTransfers(this);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.jenkins.rest.artifacts;
+
+import org.jclouds.javax.annotation.Nullable;
+
+import com.google.auto.value.AutoValue;
+
+/**
+ * Outcome of an {@link ArtifactTransfers} transfer.
+ */
+@AutoValue
+public abstract class TransferResult {
+
+    // number of bytes transferred
+    public abstract long size();
+
+    // name of the MessageDigest algorithm used, null when no checksum was asked for
+    @Nullable
+    public abstract String algorithm();
+
+    // lower case hex encoded digest of the transferred bytes, null when no checksum was asked for
+    @Nullable
+    public abstract String checksum();
+
+    TransferResult() {
+    }
+
+    public static TransferResult create(final long size, final String algorithm, final String checksum) {
+        return new AutoValue_TransferResult(size, algorithm, checksum);
+    }
+}
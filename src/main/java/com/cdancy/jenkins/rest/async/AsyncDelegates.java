@@ -0,0 +1,139 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.jenkins.rest.async;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Creates CompletableFuture based proxies on top of the blocking jclouds
+ * delegates. Each method of the async interface is matched, by name and
+ * parameter types, to a method of the sync interface: methods returning a
+ * CompletableFuture are run on the passed Executor while methods returning
+ * another interface (e.g. `AsyncJenkinsApi.jobsApi()`) are wrapped in turn.
+ */
+public final class AsyncDelegates {
+
+    /**
+     * Create an async proxy for the passed sync delegate.
+     *
+     * @param <A> the async interface type.
+     * @param <S> the sync interface type.
+     * @param asyncType the async interface to implement.
+     * @param syncType the sync interface whose methods are mirrored.
+     * @param delegate the sync delegate to invoke.
+     * @param executor the Executor blocking calls are dispatched on.
+     * @return instance of the async interface.
+     */
+    public static <A, S> A create(final Class<A> asyncType,
+            final Class<S> syncType,
+            final S delegate,
+            final Executor executor) {
+        return asyncType.cast(proxy(asyncType, syncType, delegate, executor));
+    }
+
+    private static Object proxy(final Class<?> asyncType, final Class<?> syncType, final Object delegate, final Executor executor) {
+        Objects.requireNonNull(delegate, "delegate cannot be null");
+        Objects.requireNonNull(executor, "executor cannot be null");
+        return Proxy.newProxyInstance(asyncType.getClassLoader(),
+                new Class<?>[] { asyncType },
+                new DelegatingHandler(asyncType, syncType, delegate, executor));
+    }
+
+    private static final class DelegatingHandler implements InvocationHandler {
+
+        private final Class<?> asyncType;
+        private final Object delegate;
+        private final Executor executor;
+        private final Map<Method, Method> syncMethods;
+        private final ConcurrentMap<Method, Object> nestedDelegates = new ConcurrentHashMap<>();
+
+        DelegatingHandler(final Class<?> asyncType, final Class<?> syncType, final Object delegate, final Executor executor) {
+            this.asyncType = asyncType;
+            this.delegate = delegate;
+            this.executor = executor;
+
+            // resolve everything up front so a missing mirror fails on creation rather than on first call
+            final ImmutableMap.Builder<Method, Method> builder = ImmutableMap.builder();
+            for (final Method asyncMethod : asyncType.getMethods()) {
+                try {
+                    builder.put(asyncMethod, syncType.getMethod(asyncMethod.getName(), asyncMethod.getParameterTypes()));
+                } catch (final NoSuchMethodException e) {
+                    throw new IllegalArgumentException("No method matching " + asyncMethod + " found on " + syncType.getName(), e);
+                }
+            }
+            this.syncMethods = builder.build();
+        }
+
+        @Override
+        public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+            if (method.getDeclaringClass() == Object.class) {
+                switch (method.getName()) {
+                    case "equals": return proxy == args[0];
+                    case "hashCode": return System.identityHashCode(proxy);
+                    default: return asyncType.getSimpleName() + "(" + delegate + ")";
+                }
+            }
+
+            final Method syncMethod = syncMethods.get(method);
+            if (CompletableFuture.class.isAssignableFrom(method.getReturnType())) {
+                return CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return syncMethod.invoke(delegate, args);
+                    } catch (final InvocationTargetException e) {
+                        Throwables.throwIfUnchecked(e.getCause());
+                        throw new CompletionException(e.getCause());
+                    } catch (final IllegalAccessException e) {
+                        throw new CompletionException(e);
+                    }
+                }, executor);
+            }
+
+            // nested delegates (e.g. jobsApi()) take no arguments so can be created once and re-used
+            final Object nested = nestedDelegates.get(method);
+            if (nested != null) {
+                return nested;
+            }
+            final Object syncDelegate;
+            try {
+                syncDelegate = syncMethod.invoke(delegate, args);
+            } catch (final InvocationTargetException e) {
+                throw e.getCause();
+            }
+            final Object asyncDelegate = proxy(method.getReturnType(), syncMethod.getReturnType(), syncDelegate, executor);
+            final Object existing = nestedDelegates.putIfAbsent(method, asyncDelegate);
+            return existing != null ? existing : asyncDelegate;
+        }
+    }
+
+    private AsyncDelegates() {
+        throw new UnsupportedOperationException("Purposefully not implemented");
+    }
+}
@@ -0,0 +1,443 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.jenkins.rest.cache;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.zip.CRC32;
+
+import org.jclouds.javax.annotation.Nullable;
+import org.jclouds.json.Json;
+import org.jclouds.json.config.GsonModule;
+
+import com.cdancy.jenkins.rest.domain.job.BuildInfo;
+import com.cdancy.jenkins.rest.domain.job.Workflow;
+import com.google.inject.Guice;
+
+/**
+ * Store of the BuildInfo and Workflow of finished builds on disk, surviving
+ * restarts, to put behind a {@link CompletedBuildCache}.
+ *
+ * <p>Results are appended, as JSON, to memory-mapped segment files of
+ * `segmentSize` bytes in the store's directory, a new segment being started
+ * once the current one is full. Each record carries the CRC32 of its content
+ * so that a record torn by a crash is dropped, along with anything after it
+ * in its segment, when the store is opened again. The index of where each
+ * build's record lives is kept in memory and rebuilt by scanning the
+ * segments on open, which reads every record to check its CRC32 but only
+ * keeps the keys. Storing a build again appends a new record which replaces
+ * the previous one, records are never removed.
+ *
+ * <p>Writes reach the page cache as soon as they are made and are forced to
+ * disk by {@link #flush()} and {@link #close()}. A directory can only be
+ * opened by one store at a time, in this process or another: the store
+ * holds an exclusive lock on a `lock` file in it until closed. Instances
+ * are thread safe.
+ */
+public final class BuildStore implements Closeable {
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String LOCK_FILE = "lock";
+    // "JRBS" followed by the format version
+    private static final int MAGIC = 0x4a524253;
+    private static final int VERSION = 1;
+    private static final int SEGMENT_HEADER = 8;
+    // record length and CRC32
+    private static final int RECORD_HEADER = 8;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final Json json;
+    private final FileChannel lockChannel;
+    private final List<Segment> segments = new CopyOnWriteArrayList<>();
+    private final Map<String, Location> index = new ConcurrentHashMap<>();
+    private int nextFile;
+    private boolean closed;
+
+    private BuildStore(final Builder builder) throws IOException {
+        this.directory = builder.directory;
+        this.segmentSize = builder.segmentSize;
+        this.json = Guice.createInjector(new GsonModule()).getInstance(Json.class);
+        Files.createDirectories(directory);
+        this.lockChannel = lock(directory);
+        try {
+            final List<Path> files = new ArrayList<>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+                stream.forEach(files::add);
+            }
+            Collections.sort(files);
+            for (final Path file : files) {
+                nextFile = fileNumber(file) + 1;
+                final Segment segment = Segment.open(file, segments.size(), Math.max(segmentSize, (int) Files.size(file)));
+                segments.add(segment);
+                segment.scan(index);
+            }
+        } catch (final IOException | RuntimeException e) {
+            try {
+                closeSegments();
+            } finally {
+                lockChannel.close();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Get the stored BuildInfo of a build.
+     *
+     * @param optionalFolderPath optional folder path the job lives in.
+     * @param jobName name of the job.
+     * @param buildNumber number of the build.
+     * @return the BuildInfo, or null if it was not stored.
+     */
+    public BuildInfo buildInfo(@Nullable final String optionalFolderPath, final String jobName, final int buildNumber) {
+        final String value = read(key("build", optionalFolderPath, jobName, buildNumber));
+        return value != null ? json.fromJson(value, BuildInfo.class) : null;
+    }
+
+    /**
+     * Get the stored Workflow of a pipeline run.
+     *
+     * @param optionalFolderPath optional folder path the job lives in.
+     * @param jobName name of the job.
+     * @param buildNumber number of the build.
+     * @return the Workflow, or null if it was not stored.
+     */
+    public Workflow workflow(@Nullable final String optionalFolderPath, final String jobName, final int buildNumber) {
+        final String value = read(key("workflow", optionalFolderPath, jobName, buildNumber));
+        return value != null ? json.fromJson(value, Workflow.class) : null;
+    }
+
+    /**
+     * Whether the BuildInfo or the Workflow of a build was stored, i.e.
+     * whether the build is known to have finished.
+     *
+     * @param optionalFolderPath optional folder path the job lives in.
+     * @param jobName name of the job.
+     * @param buildNumber number of the build.
+     * @return true if either was stored.
+     */
+    public boolean contains(@Nullable final String optionalFolderPath, final String jobName, final int buildNumber) {
+        return index.containsKey(key("build", optionalFolderPath, jobName, buildNumber))
+                || index.containsKey(key("workflow", optionalFolderPath, jobName, buildNumber));
+    }
+
+    /**
+     * Store the BuildInfo of a finished build.
+     *
+     * @param optionalFolderPath optional folder path the job lives in.
+     * @param jobName name of the job.
+     * @param buildNumber number of the build.
+     * @param buildInfo the BuildInfo to store.
+     * @throws IOException if the store could not be written to.
+     */
+    public void putBuildInfo(@Nullable final String optionalFolderPath, final String jobName, final int buildNumber,
+            final BuildInfo buildInfo) throws IOException {
+        write(key("build", optionalFolderPath, jobName, buildNumber), json.toJson(buildInfo));
+    }
+
+    /**
+     * Store the Workflow of a finished pipeline run.
+     *
+     * @param optionalFolderPath optional folder path the job lives in.
+     * @param jobName name of the job.
+     * @param buildNumber number of the build.
+     * @param workflow the Workflow to store.
+     * @throws IOException if the store could not be written to.
+     */
+    public void putWorkflow(@Nullable final String optionalFolderPath, final String jobName, final int buildNumber,
+            final Workflow workflow) throws IOException {
+        write(key("workflow", optionalFolderPath, jobName, buildNumber), json.toJson(workflow));
+    }
+
+    /**
+     * The number of results stored.
+     *
+     * @return number of results.
+     */
+    public int size() {
+        return index.size();
+    }
+
+    /**
+     * Force everything written so far to disk.
+     */
+    public synchronized void flush() {
+        if (!segments.isEmpty()) {
+            segments.get(segments.size() - 1).buffer.force();
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            try {
+                flush();
+                closeSegments();
+            } finally {
+                // releases the lock
+                lockChannel.close();
+            }
+        }
+    }
+
+    private String read(final String key) {
+        final Location location = index.get(key);
+        if (location == null) {
+            return null;
+        }
+        final ByteBuffer record = segments.get(location.segment).buffer.duplicate();
+        record.position(location.offset);
+        final byte[] value = new byte[location.length];
+        record.get(value);
+        return new String(value, StandardCharsets.UTF_8);
+    }
+
+    private synchronized void write(final String key, final String value) throws IOException {
+        if (closed) {
+            throw new IOException("BuildStore at " + directory + " is closed");
+        }
+        final byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        final byte[] valueBytes = value.getBytes(StandardCharsets.UTF_8);
+        final int length = 2 + keyBytes.length + valueBytes.length;
+        Segment segment = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+        if (segment == null || segment.remaining() < RECORD_HEADER + length) {
+            if (segment != null) {
+                segment.buffer.force();
+            }
+            final Path file = directory.resolve(String.format("%s%08d%s", SEGMENT_PREFIX, nextFile++, SEGMENT_SUFFIX));
+            segment = Segment.open(file, segments.size(), Math.max(segmentSize, SEGMENT_HEADER + RECORD_HEADER + length));
+            segments.add(segment);
+        }
+        index.put(key, segment.append(keyBytes, valueBytes));
+    }
+
+    private void closeSegments() throws IOException {
+        IOException failure = null;
+        for (final Segment segment : segments) {
+            try {
+                segment.channel.close();
+            } catch (final IOException e) {
+                failure = e;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private static FileChannel lock(final Path directory) throws IOException {
+        final FileChannel channel = FileChannel.open(directory.resolve(LOCK_FILE), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        FileLock lock = null;
+        try {
+            lock = channel.tryLock();
+        } catch (final OverlappingFileLockException e) {
+            // held by another store of this process
+        } catch (final IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        if (lock == null) {
+            channel.close();
+            throw new IOException("BuildStore at " + directory + " is already open");
+        }
+        return channel;
+    }
+
+    private static int fileNumber(final Path file) throws IOException {
+        final String name = file.getFileName().toString();
+        try {
+            return Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+        } catch (final NumberFormatException e) {
+            throw new IOException(file + " is not a segment of a BuildStore", e);
+        }
+    }
+
+    static String key(final String kind, @Nullable final String optionalFolderPath, final String jobName, final int buildNumber) {
+        Objects.requireNonNull(jobName, "jobName cannot be null");
+        // null and empty both mean the root folder
+        return kind + '\u0000' + (optionalFolderPath != null ? optionalFolderPath : "") + '\u0000' + jobName + '\u0000' + buildNumber;
+    }
+
+    // where the value of a record lives
+    private static final class Location {
+
+        final int segment;
+        final int offset;
+        final int length;
+
+        Location(final int segment, final int offset, final int length) {
+            this.segment = segment;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+
+    // one file of records, mapped in full, records being appended at `end`
+    private static final class Segment {
+
+        final int number;
+        final FileChannel channel;
+        final MappedByteBuffer buffer;
+        int end = SEGMENT_HEADER;
+
+        private Segment(final int number, final FileChannel channel, final MappedByteBuffer buffer) {
+            this.number = number;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        static Segment open(final Path file, final int number, final int size) throws IOException {
+            final FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            try {
+                final boolean created = channel.size() == 0;
+                final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+                if (created) {
+                    buffer.putInt(0, MAGIC);
+                    buffer.putInt(4, VERSION);
+                } else if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                    throw new IOException(file + " is not a segment of a BuildStore");
+                }
+                return new Segment(number, channel, buffer);
+            } catch (final IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+        }
+
+        int remaining() {
+            return buffer.capacity() - end;
+        }
+
+        // index every intact record, stopping at the first empty or torn one
+        void scan(final Map<String, Location> index) {
+            final ByteBuffer records = buffer.duplicate();
+            while (end + RECORD_HEADER <= records.capacity()) {
+                final int length = records.getInt(end);
+                if (length < 2 || end + RECORD_HEADER + length > records.capacity()) {
+                    return;
+                }
+                final int crc = records.getInt(end + 4);
+                records.limit(end + RECORD_HEADER + length).position(end + RECORD_HEADER);
+                final CRC32 checksum = new CRC32();
+                checksum.update(records.duplicate());
+                if ((int) checksum.getValue() != crc) {
+                    return;
+                }
+                final int keyLength = records.getShort() & 0xffff;
+                if (keyLength > length - 2) {
+                    return;
+                }
+                final byte[] key = new byte[keyLength];
+                records.get(key);
+                index.put(new String(key, StandardCharsets.UTF_8), new Location(number, records.position(), length - 2 - keyLength));
+                records.limit(records.capacity());
+                end += RECORD_HEADER + length;
+            }
+        }
+
+        Location append(final byte[] key, final byte[] value) {
+            final int length = 2 + key.length + value.length;
+            final ByteBuffer record = buffer.duplicate();
+            record.position(end + RECORD_HEADER);
+            record.putShort((short) key.length).put(key).put(value);
+
+            final CRC32 checksum = new CRC32();
+            checksum.update(buffer.duplicate().position(end + RECORD_HEADER).limit(end + RECORD_HEADER + length));
+            record.putInt(end + 4, (int) checksum.getValue());
+            // written last so that a record is only seen once complete
+            record.putInt(end, length);
+
+            final Location location = new Location(number, end + RECORD_HEADER + 2 + key.length, value.length);
+            end += RECORD_HEADER + length;
+            return location;
+        }
+    }
+
+    /**
+     * Open, or create, the store in the given directory.
+     *
+     * @param directory directory of the segment files.
+     * @return the opened BuildStore.
+     * @throws IOException if the directory or its segments could not be
+     *     read, or if the directory is already opened by another store.
+     */
+    public static BuildStore open(final Path directory) throws IOException {
+        return builder(directory).open();
+    }
+
+    public static Builder builder(final Path directory) {
+        return new Builder(directory);
+    }
+
+    public static class Builder {
+
+        private final Path directory;
+        private int segmentSize = 64 * 1024 * 1024;
+
+        Builder(final Path directory) {
+            this.directory = Objects.requireNonNull(directory, "directory cannot be null");
+        }
+
+        /**
+         * Size of each segment file. Defaults to 64MB. Records larger than
+         * this get a segment of their own.
+         *
+         * @param segmentSize size, in bytes, of a segment.
+         * @return this Builder.
+         */
+        public Builder segmentSize(final int segmentSize) {
+            checkArgument(segmentSize >= 4096, "segmentSize must be >= 4096");
+            this.segmentSize = segmentSize;
+            return this;
+        }
+
+        /**
+         * Open, or create, the BuildStore, indexing the segments already
+         * in its directory.
+         *
+         * @return BuildStore
+         * @throws IOException if the directory or its segments could not be
+         *     read, or if the directory is already opened by another store.
+         */
+        public BuildStore open() throws IOException {
+            return new BuildStore(this);
+        }
+    }
+}
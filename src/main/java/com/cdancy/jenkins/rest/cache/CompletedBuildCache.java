@@ -0,0 +1,356 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.jenkins.rest.cache;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.jclouds.javax.annotation.Nullable;
+
+import com.cdancy.jenkins.rest.domain.job.BuildInfo;
+import com.cdancy.jenkins.rest.domain.job.Workflow;
+import com.cdancy.jenkins.rest.features.JobsApi;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalCause;
+import com.google.common.collect.ImmutableSet;
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+
+/**
+ * Cache the BuildInfo, Workflow and test report of finished builds, which
+ * Jenkins no longer changes, in front of `JobsApi.buildInfo`, `workflow` and
+ * `testReport`.
+ *
+ * <p>Results are keyed by folder, job and build number and kept until
+ * evicted. Those of running builds are returned without being cached, a
+ * build counting as running while `BuildInfo.building()` is true or its
+ * Workflow is in progress, paused or queued. A test report is only cached
+ * once its build is known to have finished, which costs a small `building`
+ * request if neither the BuildInfo nor the Workflow of the build is cached.
+ *
+ * <p>Each result is weighed by the size of its JSON form and the least
+ * recently used results are evicted once the total goes above `maxBytes`.
+ * A deleted build, or one whose number was reused, is served from the cache
+ * until evicted or invalidated.
+ *
+ * <p>With a {@link BuildStore} the BuildInfo and Workflow of finished builds
+ * are also written to disk, and read back from it before going to Jenkins,
+ * so that they survive restarts. Instances are thread safe.
+ */
+public final class CompletedBuildCache {
+
+    /**
+     * Workflow statuses of runs which have not finished yet.
+     */
+    public static final Set<String> RUNNING_STATUSES = ImmutableSet.of("IN_PROGRESS", "PAUSED_PENDING_INPUT", "QUEUED");
+
+    private static final Gson GSON = new Gson();
+
+    private enum Kind { BUILD_INFO, WORKFLOW, TEST_REPORT }
+
+    private final JobsApi jobsApi;
+    private final BuildStore store;
+    private final Cache<BuildKey, Object> results;
+    private final AtomicLong weightBytes = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder storeHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder bypassed = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private CompletedBuildCache(final Builder builder) {
+        this.jobsApi = builder.jobsApi;
+        this.store = builder.store;
+        this.results = CacheBuilder.newBuilder()
+                .maximumWeight(builder.maxBytes)
+                .weigher((BuildKey key, Object result) -> key.weight)
+                .removalListener(removal -> {
+                    weightBytes.addAndGet(-removal.getKey().weight);
+                    if (removal.getCause() == RemovalCause.SIZE) {
+                        evictions.increment();
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * Get the BuildInfo of a build, from the cache if it has finished.
+     *
+     * @param optionalFolderPath optional folder path the job lives in.
+     * @param jobName name of the job.
+     * @param buildNumber number of the build.
+     * @return the BuildInfo, or null if the build does not exist.
+     * @throws UncheckedIOException if the BuildStore could not be written to.
+     */
+    public BuildInfo buildInfo(@Nullable final String optionalFolderPath, final String jobName, final int buildNumber) {
+        final BuildKey key = new BuildKey(Kind.BUILD_INFO, optionalFolderPath, jobName, buildNumber);
+        final BuildInfo cached = (BuildInfo) lookup(key);
+        if (cached != null) {
+            return cached;
+        }
+        final BuildInfo stored = store != null ? store.buildInfo(optionalFolderPath, jobName, buildNumber) : null;
+        if (stored != null) {
+            storeHits.increment();
+            return remember(key, stored);
+        }
+        misses.increment();
+        final BuildInfo buildInfo = jobsApi.buildInfo(optionalFolderPath, jobName, buildNumber);
+        if (buildInfo == null || buildInfo.building()) {
+            return bypass(buildInfo);
+        }
+        if (store != null) {
+            try {
+                store.putBuildInfo(optionalFolderPath, jobName, buildNumber, buildInfo);
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return remember(key, buildInfo);
+    }
+
+    /**
+     * Get the Workflow of a pipeline run, from the cache if it has finished.
+     *
+     * @param optionalFolderPath optional folder path the job lives in.
+     * @param jobName name of the job.
+     * @param buildNumber number of the build.
+     * @return the Workflow, or null if the build does not exist.
+     * @throws UncheckedIOException if the BuildStore could not be written to.
+     */
+    public Workflow workflow(@Nullable final String optionalFolderPath, final String jobName, final int buildNumber) {
+        final BuildKey key = new BuildKey(Kind.WORKFLOW, optionalFolderPath, jobName, buildNumber);
+        final Workflow cached = (Workflow) lookup(key);
+        if (cached != null) {
+            return cached;
+        }
+        final Workflow stored = store != null ? store.workflow(optionalFolderPath, jobName, buildNumber) : null;
+        if (stored != null) {
+            storeHits.increment();
+            return remember(key, stored);
+        }
+        misses.increment();
+        final Workflow workflow = jobsApi.workflow(optionalFolderPath, jobName, buildNumber);
+        if (workflow == null || !finished(workflow)) {
+            return bypass(workflow);
+        }
+        if (store != null) {
+            try {
+                store.putWorkflow(optionalFolderPath, jobName, buildNumber, workflow);
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return remember(key, workflow);
+    }
+
+    /**
+     * Get the test report of a build, from the cache if the build has
+     * finished. The returned JsonObject is shared and must not be modified.
+     *
+     * @param optionalFolderPath optional folder path the job lives in.
+     * @param jobName name of the job.
+     * @param buildNumber number of the build.
+     * @return the test report, or null if the build or its report does not exist.
+     */
+    public JsonObject testReport(@Nullable final String optionalFolderPath, final String jobName, final int buildNumber) {
+        final BuildKey key = new BuildKey(Kind.TEST_REPORT, optionalFolderPath, jobName, buildNumber);
+        final JsonObject cached = (JsonObject) lookup(key);
+        if (cached != null) {
+            return cached;
+        }
+        misses.increment();
+        // checked before fetching the report so that a report fetched from a finished build is final
+        final boolean finished = finished(optionalFolderPath, jobName, buildNumber);
+        final JsonObject testReport = jobsApi.testReport(optionalFolderPath, jobName, buildNumber);
+        if (testReport == null || !finished) {
+            return bypass(testReport);
+        }
+        return remember(key, testReport);
+    }
+
+    /**
+     * Drop every result of a build cached in memory, e.g. once it has been
+     * deleted. Results written to the BuildStore are kept.
+     *
+     * @param optionalFolderPath optional folder path the job lives in.
+     * @param jobName name of the job.
+     * @param buildNumber number of the build.
+     */
+    public void invalidate(@Nullable final String optionalFolderPath, final String jobName, final int buildNumber) {
+        for (final Kind kind : Kind.values()) {
+            results.invalidate(new BuildKey(kind, optionalFolderPath, jobName, buildNumber));
+        }
+    }
+
+    /**
+     * Drop every result cached in memory.
+     */
+    public void invalidateAll() {
+        results.invalidateAll();
+    }
+
+    /**
+     * The counters of this cache.
+     *
+     * @return a snapshot of the counters.
+     */
+    public CompletedBuildCacheStats stats() {
+        return CompletedBuildCacheStats.create(hits.sum(), storeHits.sum(), misses.sum(), bypassed.sum(), evictions.sum(),
+                results.size(), weightBytes.get());
+    }
+
+    private Object lookup(final BuildKey key) {
+        final Object cached = results.getIfPresent(key);
+        if (cached != null) {
+            hits.increment();
+        }
+        return cached;
+    }
+
+    // the result of a running build, or null if there was none
+    private <T> T bypass(@Nullable final T result) {
+        if (result != null) {
+            bypassed.increment();
+        }
+        return result;
+    }
+
+    private <T> T remember(final BuildKey key, final T result) {
+        final String json = result instanceof JsonObject ? result.toString() : GSON.toJson(result);
+        final BuildKey weighed = key.weigh(json.length());
+        weightBytes.addAndGet(weighed.weight);
+        results.put(weighed, result);
+        return result;
+    }
+
+    // whether the build is known to have finished, asking Jenkins if nothing of it is cached
+    private boolean finished(final String optionalFolderPath, final String jobName, final int buildNumber) {
+        if (results.getIfPresent(new BuildKey(Kind.BUILD_INFO, optionalFolderPath, jobName, buildNumber)) != null
+                || results.getIfPresent(new BuildKey(Kind.WORKFLOW, optionalFolderPath, jobName, buildNumber)) != null) {
+            return true;
+        }
+        if (store != null && store.contains(optionalFolderPath, jobName, buildNumber)) {
+            return true;
+        }
+        final BuildInfo building = jobsApi.buildInfo(optionalFolderPath, jobName, buildNumber, "building");
+        return building != null && !building.building();
+    }
+
+    static boolean finished(final Workflow workflow) {
+        return workflow.status() != null && !RUNNING_STATUSES.contains(workflow.status());
+    }
+
+    private static final class BuildKey {
+
+        final Kind kind;
+        final String folderPath;
+        final String jobName;
+        final int buildNumber;
+        // not part of equality, set once the result is known
+        final int weight;
+
+        BuildKey(final Kind kind, @Nullable final String folderPath, final String jobName, final int buildNumber) {
+            this(kind, folderPath, jobName, buildNumber, 0);
+        }
+
+        private BuildKey(final Kind kind, @Nullable final String folderPath, final String jobName, final int buildNumber, final int weight) {
+            this.kind = kind;
+            // null and empty both mean the root folder
+            this.folderPath = folderPath != null ? folderPath : "";
+            this.jobName = Objects.requireNonNull(jobName, "jobName cannot be null");
+            this.buildNumber = buildNumber;
+            this.weight = weight;
+        }
+
+        BuildKey weigh(final int resultLength) {
+            return new BuildKey(kind, folderPath, jobName, buildNumber, folderPath.length() + jobName.length() + resultLength);
+        }
+
+        @Override
+        public boolean equals(final Object other) {
+            if (!(other instanceof BuildKey)) {
+                return false;
+            }
+            final BuildKey that = (BuildKey) other;
+            return kind == that.kind && buildNumber == that.buildNumber
+                    && folderPath.equals(that.folderPath) && jobName.equals(that.jobName);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(kind, folderPath, jobName, buildNumber);
+        }
+    }
+
+    public static Builder builder(final JobsApi jobsApi) {
+        return new Builder(jobsApi);
+    }
+
+    public static class Builder {
+
+        private final JobsApi jobsApi;
+        private BuildStore store;
+        private long maxBytes = 64L * 1024 * 1024;
+
+        Builder(final JobsApi jobsApi) {
+            this.jobsApi = Objects.requireNonNull(jobsApi, "jobsApi cannot be null");
+        }
+
+        /**
+         * Approximate total size of the cached results, measured by the
+         * length of their JSON form. Defaults to 64MB.
+         *
+         * @param maxBytes maximum size of the cache.
+         * @return this Builder.
+         */
+        public Builder maxBytes(final long maxBytes) {
+            checkArgument(maxBytes > 0, "maxBytes must be > 0");
+            this.maxBytes = maxBytes;
+            return this;
+        }
+
+        /**
+         * Optional BuildStore to persist the BuildInfo and Workflow of
+         * finished builds to, and to read them from before going to
+         * Jenkins. The store is not closed by the cache.
+         *
+         * @param store the BuildStore to use.
+         * @return this Builder.
+         */
+        public Builder store(final BuildStore store) {
+            this.store = store;
+            return this;
+        }
+
+        /**
+         * Build an instance of CompletedBuildCache.
+         *
+         * @return CompletedBuildCache
+         */
+        public CompletedBuildCache build() {
+            return new CompletedBuildCache(this);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.jenkins.rest.cache;
+
+import com.google.auto.value.AutoValue;
+
+/**
+ * Snapshot of the counters of a CompletedBuildCache, as returned by
+ * `CompletedBuildCache.stats`.
+ */
+@AutoValue
+public abstract class CompletedBuildCacheStats {
+
+    // lookups answered from memory
+    public abstract long hits();
+
+    // lookups answered from the BuildStore, if any
+    public abstract long storeHits();
+
+    // lookups which went to Jenkins, whether their result was then cached or not
+    public abstract long misses();
+
+    // results not cached because their build was still running
+    public abstract long bypassed();
+
+    public abstract long evictions();
+
+    public abstract long entries();
+
+    // approximate size of the cached results
+    public abstract long weightBytes();
+
+    /**
+     * The fraction of lookups answered without going to Jenkins, from
+     * memory or from the BuildStore.
+     *
+     * @return the hit ratio, between 0 and 1, or 0 if nothing was looked up.
+     */
+    public double hitRatio() {
+        final long lookups = hits() + storeHits() + misses();
+        return lookups == 0 ? 0 : (double) (hits() + storeHits()) / lookups;
+    }
+
+    public static CompletedBuildCacheStats create(final long hits, final long storeHits, final long misses, final long bypassed,
+            final long evictions, final long entries, final long weightBytes) {
+        return new AutoValue_CompletedBuildCacheStats(hits, storeHits, misses, bypassed, evictions, entries, weightBytes);
+    }
+}
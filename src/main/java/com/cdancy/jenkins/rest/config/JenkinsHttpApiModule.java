@@ -18,18 +18,33 @@
 package com.cdancy.jenkins.rest.config;
 
 import org.jclouds.http.HttpErrorHandler;
+import org.jclouds.http.HttpRetryHandler;
 import org.jclouds.http.annotation.ClientError;
 import org.jclouds.http.annotation.Redirection;
 import org.jclouds.http.annotation.ServerError;
 import org.jclouds.rest.ConfiguresHttpApi;
+import org.jclouds.rest.config.InvocationConfig;
 import org.jclouds.rest.config.HttpApiModule;
 
 import com.cdancy.jenkins.rest.JenkinsApi;
+import com.cdancy.jenkins.rest.handlers.InvalidCrumbRetryHandler;
 import com.cdancy.jenkins.rest.handlers.JenkinsErrorHandler;
+import com.cdancy.jenkins.rest.metrics.MeteredInvocationConfig;
 
 @ConfiguresHttpApi
 public class JenkinsHttpApiModule extends HttpApiModule<JenkinsApi> {
 
+    @Override
+    protected void configure() {
+        super.configure();
+        bind(InvocationConfig.class).to(MeteredInvocationConfig.class);
+    }
+
+    @Override
+    protected void bindRetryHandlers() {
+        bind(HttpRetryHandler.class).annotatedWith(ClientError.class).to(InvalidCrumbRetryHandler.class);
+    }
+
     @Override
     protected void bindErrorHandlers() {
         bind(HttpErrorHandler.class).annotatedWith(Redirection.class).to(JenkinsErrorHandler.class);
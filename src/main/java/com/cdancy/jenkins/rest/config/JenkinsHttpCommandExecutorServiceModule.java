@@ -0,0 +1,62 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.jenkins.rest.config;
+
+import javax.inject.Named;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import org.jclouds.http.HttpCommandExecutorService;
+import org.jclouds.http.config.ConfiguresHttpCommandExecutorService;
+import org.jclouds.http.config.SSLModule;
+
+import com.cdancy.jenkins.rest.JenkinsConstants;
+import com.cdancy.jenkins.rest.http.HttpClientCommandExecutorService;
+import com.cdancy.jenkins.rest.http.MeteredJavaUrlHttpCommandExecutorService;
+import com.cdancy.jenkins.rest.http.Transport;
+import com.google.inject.AbstractModule;
+import com.google.inject.Provides;
+
+/**
+ * Configure the transport used by JenkinsClient, as selected by the
+ * `jenkins.rest.transport` property, reporting each call to the
+ * JenkinsMetrics. It is not installed when another module configuring a
+ * transport is passed in.
+ */
+@ConfiguresHttpCommandExecutorService
+public class JenkinsHttpCommandExecutorServiceModule extends AbstractModule {
+
+    @Override
+    protected void configure() {
+        install(new SSLModule());
+    }
+
+    // the transports are not singletons themselves, as Guice would then create all of them up front
+    @Provides
+    @Singleton
+    HttpCommandExecutorService executor(@Named(JenkinsConstants.TRANSPORT_PROPERTY) final String transport,
+            final Provider<MeteredJavaUrlHttpCommandExecutorService> urlConnection,
+            final Provider<HttpClientCommandExecutorService> httpClient) {
+        switch (Transport.valueOf(transport.trim().toUpperCase())) {
+            case HTTP_CLIENT:
+                return httpClient.get();
+            default:
+                return urlConnection.get();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.jenkins.rest.config;
+
+import java.util.Objects;
+
+import com.cdancy.jenkins.rest.metrics.JenkinsMetrics;
+import com.google.inject.AbstractModule;
+
+/**
+ * Configure the JenkinsMetrics receiving the measurements of every call.
+ */
+public class JenkinsMetricsModule extends AbstractModule {
+
+    private final JenkinsMetrics metrics;
+
+    public JenkinsMetricsModule(final JenkinsMetrics metrics) {
+        this.metrics = Objects.requireNonNull(metrics);
+    }
+
+    @Override
+    protected void configure() {
+        bind(JenkinsMetrics.class).toInstance(metrics);
+    }
+}
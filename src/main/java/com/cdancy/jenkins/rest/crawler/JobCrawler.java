@@ -0,0 +1,299 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.jenkins.rest.crawler;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.io.Closeable;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+import com.cdancy.jenkins.rest.JenkinsApi;
+import com.cdancy.jenkins.rest.domain.common.Tree;
+import com.cdancy.jenkins.rest.domain.job.Job;
+import com.cdancy.jenkins.rest.domain.job.JobList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Walk a tree of folders, fetching the jobs of up to `parallelism` folders
+ * at a time, and pass every job found to a consumer as soon as its folder
+ * has been fetched.
+ *
+ * <p>Folders are recognized by their `_class`. With `levels` greater than 1
+ * each request selects the jobs of nested folders as well, through a tree
+ * expression, so that only folders deeper than that need a request of
+ * their own.
+ */
+public final class JobCrawler implements Closeable {
+
+    /**
+     * The `_class` of the folder types shipped with the common folder and
+     * branch plugins.
+     */
+    public static final Set<String> DEFAULT_FOLDER_CLASSES = ImmutableSet.of(
+            "com.cloudbees.hudson.plugins.folder.Folder",
+            "jenkins.branch.OrganizationFolder",
+            "org.jenkinsci.plugins.workflow.multibranch.WorkflowMultiBranchProject");
+
+    private final JenkinsApi jenkinsApi;
+    private final Executor executor;
+    private final ExecutorService ownedExecutor;
+    private final int parallelism;
+    private final Set<String> folderClasses;
+    private final String tree;
+
+    private JobCrawler(final Builder builder) {
+        this.jenkinsApi = builder.jenkinsApi;
+        this.ownedExecutor = builder.executor == null
+                ? Executors.newFixedThreadPool(builder.parallelism, new ThreadFactoryBuilder()
+                        .setNameFormat("jenkins-job-crawler-%d").setDaemon(true).build())
+                : null;
+        this.executor = builder.executor != null ? builder.executor : ownedExecutor;
+        this.parallelism = builder.parallelism;
+        this.folderClasses = builder.folderClasses;
+        this.tree = jobsTree(builder.levels, builder.lastBuild).toString();
+    }
+
+    /**
+     * Crawl the given folder, and every folder below it, passing each job to
+     * the consumer along with the path of the folder it lives in. Folders are
+     * passed to the consumer as well. The consumer may be called from
+     * several threads at once.
+     *
+     * @param folderPath path of the folder to start from, empty for the root folder.
+     * @param consumer receives the folder path and each Job found.
+     * @return future completed with the number of jobs found once the whole
+     *     tree has been walked, or exceptionally on the first failed request.
+     */
+    public CompletableFuture<Long> crawl(final String folderPath, final BiConsumer<String, Job> consumer) {
+        Objects.requireNonNull(folderPath, "folderPath cannot be null");
+        Objects.requireNonNull(consumer, "consumer cannot be null");
+        return new Crawl(consumer).start(folderPath);
+    }
+
+    /**
+     * Shut down the executor if it was created by this crawler.
+     */
+    @Override
+    public void close() {
+        if (ownedExecutor != null) {
+            ownedExecutor.shutdownNow();
+        }
+    }
+
+    boolean isFolder(final Job job) {
+        return job.clazz() != null && folderClasses.contains(job.clazz());
+    }
+
+    // jobs[_class,name,url,color,jobs[...]] nested `levels` deep
+    static Tree jobsTree(final int levels, final boolean lastBuild) {
+        Tree jobs = null;
+        for (int level = 0; level < levels; level++) {
+            final Tree.Builder fields = Tree.builder().field("_class").field("name").field("url").field("color");
+            if (lastBuild) {
+                fields.field("lastBuild", Tree.of("number", "result"));
+            }
+            if (jobs != null) {
+                fields.field("jobs", jobs);
+            }
+            jobs = fields.build();
+        }
+        return Tree.builder().field("jobs", jobs).build();
+    }
+
+    private final class Crawl {
+
+        private final BiConsumer<String, Job> consumer;
+        private final CompletableFuture<Long> result = new CompletableFuture<>();
+        private final AtomicLong count = new AtomicLong();
+        private final Deque<String> pending = new ArrayDeque<>();
+        private String root;
+        private int inFlight;
+
+        Crawl(final BiConsumer<String, Job> consumer) {
+            this.consumer = consumer;
+        }
+
+        CompletableFuture<Long> start(final String folderPath) {
+            root = folderPath;
+            synchronized (this) {
+                pending.add(folderPath);
+                pump();
+            }
+            return result;
+        }
+
+        // start as many pending folders as parallelism allows, completing the crawl once nothing is left
+        private void pump() {
+            while (!result.isDone() && inFlight < parallelism && !pending.isEmpty()) {
+                final String folderPath = pending.poll();
+                inFlight++;
+                try {
+                    executor.execute(() -> visit(folderPath));
+                } catch (final RuntimeException e) {
+                    inFlight--;
+                    result.completeExceptionally(e);
+                }
+            }
+            if (inFlight == 0 && pending.isEmpty()) {
+                result.complete(count.get());
+            }
+        }
+
+        private void visit(final String folderPath) {
+            try {
+                final JobList jobList = jenkinsApi.jobsApi().jobList(folderPath, tree);
+                if (jobList == null) {
+                    if (folderPath.equals(root)) {
+                        throw new NoSuchElementException("Folder '" + folderPath + "' not found");
+                    }
+                    // removed since its parent was listed
+                } else {
+                    emit(folderPath, jobList.jobs());
+                }
+            } catch (final RuntimeException e) {
+                result.completeExceptionally(e);
+            } finally {
+                synchronized (this) {
+                    inFlight--;
+                    pump();
+                }
+            }
+        }
+
+        private void emit(final String folderPath, final Iterable<Job> jobs) {
+            for (final Job job : jobs) {
+                if (result.isDone()) {
+                    return;
+                }
+                consumer.accept(folderPath, job);
+                count.incrementAndGet();
+                if (isFolder(job)) {
+                    final String childPath = folderPath.isEmpty() ? job.name() : folderPath + "/" + job.name();
+                    if (job.jobs() != null) {
+                        emit(childPath, job.jobs());
+                    } else {
+                        synchronized (this) {
+                            pending.add(childPath);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    public static Builder builder(final JenkinsApi jenkinsApi) {
+        return new Builder(jenkinsApi);
+    }
+
+    public static class Builder {
+
+        private final JenkinsApi jenkinsApi;
+        private Executor executor;
+        private int parallelism = 4;
+        private int levels = 1;
+        private boolean lastBuild;
+        private Set<String> folderClasses = DEFAULT_FOLDER_CLASSES;
+
+        Builder(final JenkinsApi jenkinsApi) {
+            this.jenkinsApi = Objects.requireNonNull(jenkinsApi, "jenkinsApi cannot be null");
+        }
+
+        /**
+         * Optional Executor to fetch folders on. When not set a fixed pool of
+         * `parallelism` daemon threads is created and shut down when the
+         * crawler is closed.
+         *
+         * @param executor the Executor to fetch folders on.
+         * @return this Builder.
+         */
+        public Builder executor(final Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        /**
+         * Maximum number of folders fetched at the same time. Defaults to 4.
+         *
+         * @param parallelism maximum number of concurrent requests.
+         * @return this Builder.
+         */
+        public Builder parallelism(final int parallelism) {
+            checkArgument(parallelism > 0, "parallelism must be > 0");
+            this.parallelism = parallelism;
+            return this;
+        }
+
+        /**
+         * Number of folder levels fetched with each request. Defaults to 1,
+         * i.e. one request per folder. Deeper trees mean fewer, but larger,
+         * responses.
+         *
+         * @param levels number of levels per request.
+         * @return this Builder.
+         */
+        public Builder levels(final int levels) {
+            checkArgument(levels > 0, "levels must be > 0");
+            this.levels = levels;
+            return this;
+        }
+
+        /**
+         * Whether to also select the number and result of the last build of
+         * every job, available through `Job.lastBuild()`. Defaults to false.
+         *
+         * @param lastBuild true to select the last build of every job.
+         * @return this Builder.
+         */
+        public Builder lastBuild(final boolean lastBuild) {
+            this.lastBuild = lastBuild;
+            return this;
+        }
+
+        /**
+         * The `_class` values which identify folders. Defaults to
+         * {@link #DEFAULT_FOLDER_CLASSES}.
+         *
+         * @param folderClasses classes of jobs to descend into.
+         * @return this Builder.
+         */
+        public Builder folderClasses(final Set<String> folderClasses) {
+            this.folderClasses = ImmutableSet.copyOf(folderClasses);
+            return this;
+        }
+
+        /**
+         * Build an instance of JobCrawler.
+         *
+         * @return JobCrawler
+         */
+        public JobCrawler build() {
+            return new JobCrawler(this);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.jenkins.rest.crawler;
+
+import org.jclouds.javax.annotation.Nullable;
+
+import com.google.auto.value.AutoValue;
+
+/**
+ * A difference between two snapshots taken by a {@link JobInventory}.
+ */
+@AutoValue
+public abstract class JobEvent {
+
+    public enum Type {
+        ADDED,
+        REMOVED,
+        CHANGED
+    }
+
+    public abstract Type type();
+
+    public abstract String path();
+
+    // null for ADDED events
+    @Nullable
+    public abstract JobSnapshot previous();
+
+    // null for REMOVED events
+    @Nullable
+    public abstract JobSnapshot current();
+
+    JobEvent() {
+    }
+
+    public static JobEvent create(final Type type, final String path, final JobSnapshot previous, final JobSnapshot current) {
+        return new AutoValue_JobEvent(type, path, previous, current);
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.jenkins.rest.crawler;
+
+import java.io.Closeable;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+import com.cdancy.jenkins.rest.JenkinsApi;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Keep a snapshot of every job below a folder, recording its url, color and
+ * last build number, and report what changed on each refresh.
+ *
+ * <p>A refresh walks the folder with a {@link JobCrawler} selecting only
+ * those fields, several folder levels per request, and diffs the result
+ * against the previous snapshot. Jenkins offers no per-folder change marker
+ * so every folder is listed on each refresh, but with the compact projection
+ * that takes a handful of small requests rather than one full request per
+ * job. Listeners can then fetch details of the jobs which changed.
+ */
+public final class JobInventory implements Closeable {
+
+    private final JobCrawler crawler;
+    private final String folderPath;
+    private final List<Consumer<JobEvent>> listeners = new CopyOnWriteArrayList<>();
+
+    private volatile Map<String, JobSnapshot> snapshot = ImmutableMap.of();
+    private CompletableFuture<List<JobEvent>> refreshing;
+
+    private JobInventory(final Builder builder) {
+        this.crawler = builder.crawler.lastBuild(true).build();
+        this.folderPath = builder.folderPath;
+    }
+
+    /**
+     * Register a listener to receive the events of every refresh. Listeners
+     * are called on the thread completing the refresh.
+     *
+     * @param listener consumer of JobEvents.
+     */
+    public void addListener(final Consumer<JobEvent> listener) {
+        listeners.add(Objects.requireNonNull(listener, "listener cannot be null"));
+    }
+
+    /**
+     * Remove a previously registered listener.
+     *
+     * @param listener consumer of JobEvents.
+     */
+    public void removeListener(final Consumer<JobEvent> listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * The jobs found by the last successful refresh, keyed by path.
+     *
+     * @return immutable map of path to JobSnapshot.
+     */
+    public Map<String, JobSnapshot> snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Walk the folder again and diff the result against the current
+     * snapshot. The first refresh reports every job as ADDED. Calling refresh
+     * while one is already running returns the running refresh.
+     *
+     * @return future completed with the events of this refresh, or
+     *     exceptionally if the folder could not be walked in which case the
+     *     snapshot is left unchanged.
+     */
+    public synchronized CompletableFuture<List<JobEvent>> refresh() {
+        if (refreshing != null) {
+            return refreshing;
+        }
+        final Map<String, JobSnapshot> current = new ConcurrentHashMap<>();
+        final CompletableFuture<List<JobEvent>> refresh = crawler
+                .crawl(folderPath, (path, job) -> {
+                    final JobSnapshot found = JobSnapshot.of(path, job);
+                    current.put(found.path(), found);
+                })
+                .thenApply(count -> apply(current));
+        refreshing = refresh;
+        refresh.whenComplete((events, error) -> {
+            synchronized (this) {
+                refreshing = null;
+            }
+        });
+        return refresh;
+    }
+
+    @Override
+    public void close() {
+        crawler.close();
+    }
+
+    private List<JobEvent> apply(final Map<String, JobSnapshot> current) {
+        final Map<String, JobSnapshot> previous = snapshot;
+        final ImmutableList.Builder<JobEvent> events = ImmutableList.builder();
+        for (final JobSnapshot job : current.values()) {
+            final JobSnapshot before = previous.get(job.path());
+            if (before == null) {
+                events.add(JobEvent.create(JobEvent.Type.ADDED, job.path(), null, job));
+            } else if (!before.equals(job)) {
+                events.add(JobEvent.create(JobEvent.Type.CHANGED, job.path(), before, job));
+            }
+        }
+        for (final JobSnapshot before : previous.values()) {
+            if (!current.containsKey(before.path())) {
+                events.add(JobEvent.create(JobEvent.Type.REMOVED, before.path(), before, null));
+            }
+        }
+        snapshot = ImmutableMap.copyOf(current);
+
+        final List<JobEvent> result = events.build();
+        for (final JobEvent event : result) {
+            for (final Consumer<JobEvent> listener : listeners) {
+                listener.accept(event);
+            }
+        }
+        return result;
+    }
+
+    public static Builder builder(final JenkinsApi jenkinsApi) {
+        return new Builder(jenkinsApi);
+    }
+
+    public static class Builder {
+
+        private final JobCrawler.Builder crawler;
+        private String folderPath = "";
+
+        Builder(final JenkinsApi jenkinsApi) {
+            this.crawler = JobCrawler.builder(jenkinsApi).levels(4);
+        }
+
+        /**
+         * The folder to keep an inventory of. Defaults to the root folder.
+         *
+         * @param folderPath path of the folder, empty for the root folder.
+         * @return this Builder.
+         */
+        public Builder folderPath(final String folderPath) {
+            this.folderPath = Objects.requireNonNull(folderPath, "folderPath cannot be null");
+            return this;
+        }
+
+        /**
+         * Optional Executor to fetch folders on. See `JobCrawler.Builder.executor`.
+         *
+         * @param executor the Executor to fetch folders on.
+         * @return this Builder.
+         */
+        public Builder executor(final Executor executor) {
+            crawler.executor(executor);
+            return this;
+        }
+
+        /**
+         * Maximum number of folders fetched at the same time. Defaults to 4.
+         *
+         * @param parallelism maximum number of concurrent requests.
+         * @return this Builder.
+         */
+        public Builder parallelism(final int parallelism) {
+            crawler.parallelism(parallelism);
+            return this;
+        }
+
+        /**
+         * Number of folder levels fetched with each request. Defaults to 4.
+         *
+         * @param levels number of levels per request.
+         * @return this Builder.
+         */
+        public Builder levels(final int levels) {
+            crawler.levels(levels);
+            return this;
+        }
+
+        /**
+         * Build an instance of JobInventory. No request is made until the
+         * first refresh.
+         *
+         * @return JobInventory
+         */
+        public JobInventory build() {
+            return new JobInventory(this);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.jenkins.rest.crawler;
+
+import org.jclouds.javax.annotation.Nullable;
+
+import com.cdancy.jenkins.rest.domain.job.Job;
+import com.google.auto.value.AutoValue;
+
+/**
+ * The state of a single job as recorded by a {@link JobInventory}.
+ */
+@AutoValue
+public abstract class JobSnapshot {
+
+    // full path of the job, e.g. "folder/sub-folder/job"
+    public abstract String path();
+
+    @Nullable
+    public abstract String clazz();
+
+    public abstract String url();
+
+    @Nullable
+    public abstract String color();
+
+    @Nullable
+    public abstract Integer lastBuildNumber();
+
+    JobSnapshot() {
+    }
+
+    public static JobSnapshot create(final String path, final String clazz, final String url, final String color, final Integer lastBuildNumber) {
+        return new AutoValue_JobSnapshot(path, clazz, url, color, lastBuildNumber);
+    }
+
+    static JobSnapshot of(final String folderPath, final Job job) {
+        return create(folderPath.isEmpty() ? job.name() : folderPath + "/" + job.name(),
+                job.clazz(), job.url(), job.color(), job.lastBuild() != null ? job.lastBuild().number() : null);
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.jenkins.rest.domain.common;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.List;
+import java.util.Objects;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Typed form of the `tree` query parameter understood by the Jenkins remote
+ * access API, e.g. `name,lastBuild[number,result],builds[number]{0,10}`.
+ * Use `toString()` to get the expression to pass to the `tree` overloads.
+ */
+public final class Tree {
+
+    private final List<String> fields;
+
+    private Tree(final List<String> fields) {
+        this.fields = fields;
+    }
+
+    /**
+     * Create a Tree selecting only the given top level fields.
+     *
+     * @param fields names of the fields to select.
+     * @return Tree
+     */
+    public static Tree of(final String... fields) {
+        final Builder builder = builder();
+        for (final String field : fields) {
+            builder.field(field);
+        }
+        return builder.build();
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        return other instanceof Tree && fields.equals(((Tree) other).fields);
+    }
+
+    @Override
+    public int hashCode() {
+        return fields.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return String.join(",", fields);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+
+        private final ImmutableList.Builder<String> fields = ImmutableList.builder();
+        private boolean empty = true;
+
+        Builder() {
+        }
+
+        /**
+         * Select a field.
+         *
+         * @param name name of the field.
+         * @return this Builder.
+         */
+        public Builder field(final String name) {
+            checkName(name);
+            fields.add(name);
+            empty = false;
+            return this;
+        }
+
+        /**
+         * Select a field and, within it, only the fields of the nested Tree.
+         *
+         * @param name name of the field.
+         * @param nested the fields to select within it.
+         * @return this Builder.
+         */
+        public Builder field(final String name, final Tree nested) {
+            checkName(name);
+            fields.add(name + "[" + Objects.requireNonNull(nested, "nested cannot be null") + "]");
+            empty = false;
+            return this;
+        }
+
+        /**
+         * Select a list field, limited to the elements from index `from`
+         * (inclusive) to `to` (exclusive), and within each element only the
+         * fields of the nested Tree.
+         *
+         * @param name name of the list field.
+         * @param nested the fields to select within each element.
+         * @param from index of the first element to return.
+         * @param to index after the last element to return.
+         * @return this Builder.
+         */
+        public Builder field(final String name, final Tree nested, final int from, final int to) {
+            checkArgument(from >= 0 && from <= to, "invalid range {%s,%s}", from, to);
+            checkName(name);
+            fields.add(name + "[" + Objects.requireNonNull(nested, "nested cannot be null") + "]{" + from + "," + to + "}");
+            empty = false;
+            return this;
+        }
+
+        /**
+         * Build an instance of Tree.
+         *
+         * @return Tree
+         */
+        public Tree build() {
+            checkArgument(!empty, "at least one field must be selected");
+            return new Tree(fields.build());
+        }
+
+        private static void checkName(final String name) {
+            checkArgument(name != null && !name.isEmpty() && name.matches("[A-Za-z0-9_$]+"), "invalid field name: %s", name);
+        }
+    }
+}
@@ -1,9 +1,12 @@
 package com.cdancy.jenkins.rest.domain.job;
 
 import com.google.auto.value.AutoValue;
+import com.google.common.collect.ImmutableList;
 import org.jclouds.javax.annotation.Nullable;
 import org.jclouds.json.SerializedNames;
 
+import java.util.List;
+
 @AutoValue
 public abstract class Job {
 
@@ -17,11 +20,28 @@ public abstract class Job {
     @Nullable
     public abstract String color();
 
+    // only present for folders fetched with a tree expression selecting their jobs
+    @Nullable
+    public abstract List<Job> jobs();
+
+    // only present when selected through a tree expression
+    @Nullable
+    public abstract BuildInfo lastBuild();
+
     Job() {
     }
 
-    @SerializedNames({"_class", "name", "url", "color"})
     public static Job create(final String clazz, final String name, final String url, final String color) {
-        return new AutoValue_Job(clazz, name, url, color);
+        return create(clazz, name, url, color, null, null);
+    }
+
+    public static Job create(final String clazz, final String name, final String url, final String color, final List<Job> jobs) {
+        return create(clazz, name, url, color, jobs, null);
+    }
+
+    @SerializedNames({"_class", "name", "url", "color", "jobs", "lastBuild"})
+    public static Job create(final String clazz, final String name, final String url, final String color, final List<Job> jobs,
+                             final BuildInfo lastBuild) {
+        return new AutoValue_Job(clazz, name, url, color, jobs != null ? ImmutableList.copyOf(jobs) : null, lastBuild);
     }
 }
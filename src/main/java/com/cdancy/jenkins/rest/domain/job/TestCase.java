@@ -0,0 +1,75 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.jenkins.rest.domain.job;
+
+import org.jclouds.javax.annotation.Nullable;
+import org.jclouds.json.SerializedNames;
+
+import com.google.auto.value.AutoValue;
+
+@AutoValue
+public abstract class TestCase {
+
+    public static final String PASSED = "PASSED";
+    public static final String FIXED = "FIXED";
+    public static final String SKIPPED = "SKIPPED";
+    public static final String FAILED = "FAILED";
+    public static final String REGRESSION = "REGRESSION";
+
+    public abstract String className();
+
+    public abstract String name();
+
+    // one of PASSED, FIXED, SKIPPED, FAILED or REGRESSION
+    public abstract String status();
+
+    // in seconds
+    public abstract double duration();
+
+    public abstract boolean skipped();
+
+    // number of builds the test has been failing for, 0 if it passed
+    public abstract int age();
+
+    public abstract int failedSince();
+
+    @Nullable
+    public abstract String errorDetails();
+
+    @Nullable
+    public abstract String errorStackTrace();
+
+    @Nullable
+    public abstract String skippedMessage();
+
+    TestCase() {
+    }
+
+    public boolean failed() {
+        return FAILED.equals(status()) || REGRESSION.equals(status());
+    }
+
+    @SerializedNames({ "className", "name", "status", "duration", "skipped", "age", "failedSince",
+            "errorDetails", "errorStackTrace", "skippedMessage" })
+    public static TestCase create(final String className, final String name, final String status, final double duration,
+            final boolean skipped, final int age, final int failedSince, final String errorDetails,
+            final String errorStackTrace, final String skippedMessage) {
+        return new AutoValue_TestCase(className, name, status, duration, skipped, age, failedSince,
+                errorDetails, errorStackTrace, skippedMessage);
+    }
+}
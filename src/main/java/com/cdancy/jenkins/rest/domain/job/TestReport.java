@@ -0,0 +1,58 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.jenkins.rest.domain.job;
+
+import java.util.List;
+
+import org.jclouds.json.SerializedNames;
+
+import com.google.auto.value.AutoValue;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * The test results of a build, as returned by `testReport`. Reports read
+ * through `com.cdancy.jenkins.rest.streaming.TestReports` with a filter only
+ * hold the suites and cases which passed it, while the counts are those of
+ * the whole report.
+ */
+@AutoValue
+public abstract class TestReport {
+
+    public abstract int failCount();
+
+    public abstract int passCount();
+
+    public abstract int skipCount();
+
+    // in seconds
+    public abstract double duration();
+
+    public abstract boolean empty();
+
+    public abstract List<TestSuite> suites();
+
+    TestReport() {
+    }
+
+    @SerializedNames({ "failCount", "passCount", "skipCount", "duration", "empty", "suites" })
+    public static TestReport create(final int failCount, final int passCount, final int skipCount, final double duration,
+            final boolean empty, final List<TestSuite> suites) {
+        return new AutoValue_TestReport(failCount, passCount, skipCount, duration, empty,
+                suites != null ? ImmutableList.copyOf(suites) : ImmutableList.of());
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.jenkins.rest.domain.job;
+
+import java.util.List;
+
+import org.jclouds.javax.annotation.Nullable;
+import org.jclouds.json.SerializedNames;
+
+import com.google.auto.value.AutoValue;
+import com.google.common.collect.ImmutableList;
+
+@AutoValue
+public abstract class TestSuite {
+
+    public abstract String name();
+
+    @Nullable
+    public abstract String id();
+
+    // in seconds
+    public abstract double duration();
+
+    @Nullable
+    public abstract String timestamp();
+
+    public abstract List<TestCase> cases();
+
+    TestSuite() {
+    }
+
+    @SerializedNames({ "name", "id", "duration", "timestamp", "cases" })
+    public static TestSuite create(final String name, final String id, final double duration, final String timestamp,
+            final List<TestCase> cases) {
+        return new AutoValue_TestSuite(name, id, duration, timestamp,
+                cases != null ? ImmutableList.copyOf(cases) : ImmutableList.of());
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.jenkins.rest.features;
+
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.jclouds.javax.annotation.Nullable;
+
+import com.cdancy.jenkins.rest.domain.common.LongResponse;
+import com.cdancy.jenkins.rest.domain.common.RequestStatus;
+import com.cdancy.jenkins.rest.domain.job.BuildInfo;
+import com.cdancy.jenkins.rest.domain.job.JobInfo;
+import com.cdancy.jenkins.rest.domain.job.JobList;
+import com.cdancy.jenkins.rest.domain.job.PipelineNode;
+import com.cdancy.jenkins.rest.domain.job.PipelineNodeLog;
+import com.cdancy.jenkins.rest.domain.job.ProgressiveText;
+import com.cdancy.jenkins.rest.domain.job.Workflow;
+import com.google.gson.JsonObject;
+
+/**
+ * Asynchronous mirror of {@link JobsApi}. Every method delegates to the
+ * {@link JobsApi} method of the same name and signature.
+ */
+public interface AsyncJobsApi {
+
+    CompletableFuture<JobList> jobList(String folderPath);
+
+    CompletableFuture<JobList> jobList(String folderPath, @Nullable String tree);
+
+    CompletableFuture<InputStream> jobListStream(String folderPath, @Nullable String tree);
+
+    CompletableFuture<JobInfo> jobInfo(@Nullable String optionalFolderPath, String jobName);
+
+    CompletableFuture<JobInfo> jobInfo(@Nullable String optionalFolderPath, String jobName, @Nullable String tree);
+
+    CompletableFuture<BuildInfo> buildInfo(@Nullable String optionalFolderPath, String jobName, int buildNumber);
+
+    CompletableFuture<BuildInfo> buildInfo(@Nullable String optionalFolderPath, String jobName, int buildNumber, @Nullable String tree);
+
+    CompletableFuture<InputStream> artifact(@Nullable String optionalFolderPath, String jobName, int buildNumber, String relativeArtifactPath);
+
+    CompletableFuture<InputStream> artifactsArchive(@Nullable String optionalFolderPath, String jobName, int buildNumber);
+
+    CompletableFuture<RequestStatus> create(@Nullable String optionalFolderPath, String jobName, String configXML);
+
+    CompletableFuture<String> config(@Nullable String optionalFolderPath, String jobName);
+
+    CompletableFuture<Boolean> config(@Nullable String optionalFolderPath, String jobName, String configXML);
+
+    CompletableFuture<String> description(@Nullable String optionalFolderPath, String jobName);
+
+    CompletableFuture<Boolean> description(@Nullable String optionalFolderPath, String jobName, String description);
+
+    CompletableFuture<RequestStatus> delete(@Nullable String optionalFolderPath, String jobName);
+
+    CompletableFuture<Boolean> enable(@Nullable String optionalFolderPath, String jobName);
+
+    CompletableFuture<Boolean> disable(@Nullable String optionalFolderPath, String jobName);
+
+    CompletableFuture<LongResponse> build(@Nullable String optionalFolderPath, String jobName);
+
+    CompletableFuture<RequestStatus> stop(@Nullable String optionalFolderPath, String jobName, int buildNumber);
+
+    CompletableFuture<RequestStatus> term(@Nullable String optionalFolderPath, String jobName, int buildNumber);
+
+    CompletableFuture<RequestStatus> kill(@Nullable String optionalFolderPath, String jobName, int buildNumber);
+
+    CompletableFuture<LongResponse> buildWithParameters(@Nullable String optionalFolderPath, String jobName,
+                                                        @Nullable Map<String, List<String>> properties);
+
+    CompletableFuture<Integer> lastBuildNumber(@Nullable String optionalFolderPath, String jobName);
+
+    CompletableFuture<String> lastBuildTimestamp(@Nullable String optionalFolderPath, String jobName);
+
+    CompletableFuture<ProgressiveText> progressiveText(@Nullable String optionalFolderPath, String jobName, int start);
+
+    CompletableFuture<ProgressiveText> progressiveText(@Nullable String optionalFolderPath, String jobName, int buildNumber, int start);
+
+    CompletableFuture<Boolean> rename(@Nullable String optionalFolderPath, String jobName, String newName);
+
+    CompletableFuture<List<Workflow>> runHistory(@Nullable String optionalFolderPath, String jobName);
+
+    CompletableFuture<InputStream> runHistoryStream(@Nullable String optionalFolderPath, String jobName);
+
+    CompletableFuture<Workflow> workflow(@Nullable String optionalFolderPath, String jobName, int buildNumber);
+
+    CompletableFuture<PipelineNode> pipelineNode(@Nullable String optionalFolderPath, String jobName, int buildNumber, int nodeId);
+
+    CompletableFuture<PipelineNodeLog> pipelineNodeLog(@Nullable String optionalFolderPath, String jobName, int buildNumber, int nodeId);
+
+    CompletableFuture<JsonObject> testReport(@Nullable String optionalFolderPath, String jobName, int buildNumber);
+
+    CompletableFuture<InputStream> testReportStream(@Nullable String optionalFolderPath, String jobName, int buildNumber);
+}
@@ -26,6 +26,7 @@ import javax.inject.Named;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.FormParam;
 import javax.ws.rs.GET;
+import javax.ws.rs.HeaderParam;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
@@ -36,6 +37,7 @@ import javax.ws.rs.core.MediaType;
 import com.cdancy.jenkins.rest.domain.job.*;
 import com.cdancy.jenkins.rest.parsers.*;
 import org.jclouds.Fallbacks;
+import org.jclouds.http.HttpResponse;
 import org.jclouds.javax.annotation.Nullable;
 import org.jclouds.rest.annotations.BinderParam;
 import org.jclouds.rest.annotations.Fallback;
@@ -62,6 +64,40 @@ public interface JobsApi {
     @GET
     JobList jobList(@PathParam("folderPath") @ParamParser(FolderPathParser.class) String folderPath);
 
+    /**
+     * Get the jobs of a folder, limited to the fields selected by the passed
+     * `tree` expression (e.g. `jobs[lastBuild[number,result]]`). The `name`
+     * and `url` of every job, which every Job has, are always selected.
+     *
+     * @param folderPath path of the folder, empty for the root folder.
+     * @param tree optional tree expression, null for the full document.
+     * @return the JobList with only the selected fields populated.
+     * @see com.cdancy.jenkins.rest.domain.common.Tree
+     */
+    @Named("jobs:get-jobs")
+    @Path("{folderPath}api/json")
+    @Fallback(Fallbacks.NullOnNotFoundOr404.class)
+    @Consumes(MediaType.APPLICATION_JSON)
+    @GET
+    JobList jobList(@PathParam("folderPath") @ParamParser(FolderPathParser.class) String folderPath,
+                    @Nullable @QueryParam("tree") @ParamParser(JobListTreeParser.class) String tree);
+
+    /**
+     * Get the jobs of a folder as the raw JSON document, to be decoded as it
+     * is read, see `com.cdancy.jenkins.rest.streaming.JsonStreams.jobs`.
+     *
+     * @param folderPath path of the folder, empty for the root folder.
+     * @param tree optional tree expression, null for the full document, completed as for `jobList`.
+     * @return the JSON document or null if the folder does not exist.
+     */
+    @Named("jobs:get-jobs-stream")
+    @Path("{folderPath}api/json")
+    @Fallback(Fallbacks.NullOnNotFoundOr404.class)
+    @Consumes(MediaType.APPLICATION_JSON)
+    @GET
+    InputStream jobListStream(@PathParam("folderPath") @ParamParser(FolderPathParser.class) String folderPath,
+                              @Nullable @QueryParam("tree") @ParamParser(JobListTreeParser.class) String tree);
+
     @Named("jobs:job-info")
     @Path("{optionalFolderPath}job/{name}/api/json")
     @Fallback(Fallbacks.NullOnNotFoundOr404.class)
@@ -70,6 +106,26 @@ public interface JobsApi {
     JobInfo jobInfo(@Nullable @PathParam("optionalFolderPath") @ParamParser(OptionalFolderPathParser.class) String optionalFolderPath,
                     @PathParam("name") String jobName);
 
+    /**
+     * Get the information of a job, limited to the fields selected by the
+     * passed `tree` expression (e.g. `lastBuild[number,result]`). The `name`
+     * and `url` fields, which every JobInfo has, are always selected.
+     *
+     * @param optionalFolderPath optional folder path the job lives in.
+     * @param jobName name of the job.
+     * @param tree optional tree expression, null for the full document.
+     * @return the JobInfo with only the selected fields populated.
+     * @see com.cdancy.jenkins.rest.domain.common.Tree
+     */
+    @Named("jobs:job-info")
+    @Path("{optionalFolderPath}job/{name}/api/json")
+    @Fallback(Fallbacks.NullOnNotFoundOr404.class)
+    @Consumes(MediaType.APPLICATION_JSON)
+    @GET
+    JobInfo jobInfo(@Nullable @PathParam("optionalFolderPath") @ParamParser(OptionalFolderPathParser.class) String optionalFolderPath,
+                    @PathParam("name") String jobName,
+                    @Nullable @QueryParam("tree") @ParamParser(JobInfoTreeParser.class) String tree);
+
     @Named("jobs:artifact")
     @Path("{optionalFolderPath}job/{name}/{number}/api/json")
     @Fallback(Fallbacks.NullOnNotFoundOr404.class)
@@ -79,6 +135,27 @@ public interface JobsApi {
                         @PathParam("name") String jobName,
                         @PathParam("number") int buildNumber);
 
+    /**
+     * Get the information of a build, limited to the fields selected by the
+     * passed `tree` expression (e.g. `number,result,building`).
+     *
+     * @param optionalFolderPath optional folder path the job lives in.
+     * @param jobName name of the job.
+     * @param buildNumber number of the build.
+     * @param tree optional tree expression, null for the full document.
+     * @return the BuildInfo with only the selected fields populated.
+     * @see com.cdancy.jenkins.rest.domain.common.Tree
+     */
+    @Named("jobs:build-info-tree")
+    @Path("{optionalFolderPath}job/{name}/{number}/api/json")
+    @Fallback(Fallbacks.NullOnNotFoundOr404.class)
+    @Consumes(MediaType.APPLICATION_JSON)
+    @GET
+    BuildInfo buildInfo(@Nullable @PathParam("optionalFolderPath") @ParamParser(OptionalFolderPathParser.class) String optionalFolderPath,
+                        @PathParam("name") String jobName,
+                        @PathParam("number") int buildNumber,
+                        @Nullable @QueryParam("tree") String tree);
+
     @Named("jobs:artifact")
     @Path("{optionalFolderPath}job/{name}/{number}/artifact/{relativeArtifactPath}")
     @Fallback(Fallbacks.NullOnNotFoundOr404.class)
@@ -89,6 +166,48 @@ public interface JobsApi {
                          @PathParam("number") int buildNumber,
                          @PathParam("relativeArtifactPath") String relativeArtifactPath);
 
+    /**
+     * Stream all the artifacts of a build as a single zip archive. Entries are
+     * named `archive/` followed by the relative path of each artifact.
+     *
+     * @param optionalFolderPath optional folder path the job lives in.
+     * @param jobName name of the job.
+     * @param buildNumber number of the build.
+     * @return the zip archive or null if the build does not exist.
+     */
+    @Named("jobs:artifacts-archive")
+    @Path("{optionalFolderPath}job/{name}/{number}/artifact/*zip*/archive.zip")
+    @Fallback(Fallbacks.NullOnNotFoundOr404.class)
+    @Consumes(MediaType.WILDCARD)
+    @GET
+    InputStream artifactsArchive(@Nullable @PathParam("optionalFolderPath") @ParamParser(OptionalFolderPathParser.class) String optionalFolderPath,
+                                 @PathParam("name") String jobName,
+                                 @PathParam("number") int buildNumber);
+
+    /**
+     * Request part of an artifact through an HTTP Range header. Jenkins answers
+     * with `206 Partial Content` and a `Content-Range` header or, if it does not
+     * honour the range, with `200 OK` and the whole artifact. The caller is
+     * responsible for closing the payload of the returned response.
+     *
+     * @param optionalFolderPath optional folder path the job lives in.
+     * @param jobName name of the job.
+     * @param buildNumber number of the build.
+     * @param relativeArtifactPath path of the artifact relative to the build.
+     * @param range value of the Range header, e.g. `bytes=0-1023` or `bytes=1024-`.
+     * @return the open HttpResponse or null if the artifact does not exist.
+     */
+    @Named("jobs:artifact")
+    @Path("{optionalFolderPath}job/{name}/{number}/artifact/{relativeArtifactPath}")
+    @Fallback(Fallbacks.NullOnNotFoundOr404.class)
+    @Consumes(MediaType.WILDCARD)
+    @GET
+    HttpResponse artifactRange(@Nullable @PathParam("optionalFolderPath") @ParamParser(OptionalFolderPathParser.class) String optionalFolderPath,
+                               @PathParam("name") String jobName,
+                               @PathParam("number") int buildNumber,
+                               @PathParam("relativeArtifactPath") String relativeArtifactPath,
+                               @HeaderParam("Range") String range);
+
     @Named("jobs:create")
     @Path("{optionalFolderPath}createItem")
     @Fallback(JenkinsFallbacks.RequestStatusOnError.class)
@@ -249,6 +368,31 @@ public interface JobsApi {
                                     @PathParam("number") int buildNumber,
                                     @QueryParam("start") int start);
 
+    /**
+     * Get the raw progressiveText response of a build starting at the given offset.
+     *
+     * <p>The payload is left open and must be closed by the caller. The
+     * `X-Text-Size` and `X-More-Data` headers give the offset of the next chunk
+     * and whether the log is still being written. See
+     * {@link com.cdancy.jenkins.rest.logs.BuildLogStream} for a stream that
+     * follows them automatically.
+     *
+     * @param optionalFolderPath optional folder path.
+     * @param jobName name of the job.
+     * @param buildNumber number of the build.
+     * @param start offset, in bytes, to start reading from.
+     * @return the raw HttpResponse or null if the build does not exist.
+     */
+    @Named("jobs:progressive-text")
+    @Path("{optionalFolderPath}job/{name}/{number}/logText/progressiveText")
+    @Fallback(Fallbacks.NullOnNotFoundOr404.class)
+    @Consumes(MediaType.TEXT_PLAIN)
+    @GET
+    HttpResponse progressiveTextResponse(@Nullable @PathParam("optionalFolderPath") @ParamParser(OptionalFolderPathParser.class) String optionalFolderPath,
+                                         @PathParam("name") String jobName,
+                                         @PathParam("number") int buildNumber,
+                                         @QueryParam("start") long start);
+
     @Named("jobs:rename")
     @Path("{optionalFolderPath}job/{name}/doRename")
     @Fallback(Fallbacks.FalseOnNotFoundOr404.class)
@@ -268,6 +412,22 @@ public interface JobsApi {
     List<Workflow> runHistory(@Nullable @PathParam("optionalFolderPath") @ParamParser(OptionalFolderPathParser.class) String optionalFolderPath,
                               @PathParam("name") String jobName);
 
+    /**
+     * Get the run history of a pipeline as the raw JSON array, to be decoded
+     * as it is read, see `com.cdancy.jenkins.rest.streaming.JsonStreams.runs`.
+     *
+     * @param optionalFolderPath optional folder path the job lives in.
+     * @param jobName name of the job.
+     * @return the JSON array or null if the job does not exist.
+     */
+    @Named("jobs:run-history-stream")
+    @Path("{optionalFolderPath}job/{name}/wfapi/runs")
+    @Fallback(Fallbacks.NullOnNotFoundOr404.class)
+    @Consumes(MediaType.APPLICATION_JSON)
+    @GET
+    InputStream runHistoryStream(@Nullable @PathParam("optionalFolderPath") @ParamParser(OptionalFolderPathParser.class) String optionalFolderPath,
+                                 @PathParam("name") String jobName);
+
     @Named("jobs:workflow")
     @Path("{optionalFolderPath}job/{name}/{number}/wfapi/describe")
     @Fallback(Fallbacks.NullOnNotFoundOr404.class)
@@ -304,4 +464,22 @@ public interface JobsApi {
         @PathParam("name") String jobName,
         @PathParam("number") int buildNumber);
 
+    /**
+     * Get the test report of a build as the raw JSON document, to be decoded
+     * as it is read, see `com.cdancy.jenkins.rest.streaming.TestReports`.
+     *
+     * @param optionalFolderPath optional folder path the job lives in.
+     * @param jobName name of the job.
+     * @param buildNumber number of the build.
+     * @return the JSON document or null if the build or its report does not exist.
+     */
+    @Named("jobs:test-report-stream")
+    @Path("{optionalFolderPath}job/{name}/{number}/testReport/api/json")
+    @Fallback(Fallbacks.NullOnNotFoundOr404.class)
+    @Consumes(MediaType.APPLICATION_JSON)
+    @GET
+    InputStream testReportStream(@Nullable @PathParam("optionalFolderPath") @ParamParser(OptionalFolderPathParser.class) String optionalFolderPath,
+        @PathParam("name") String jobName,
+        @PathParam("number") int buildNumber);
+
 }
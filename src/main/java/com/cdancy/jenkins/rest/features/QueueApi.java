@@ -18,6 +18,7 @@
 package com.cdancy.jenkins.rest.features;
 
 import com.cdancy.jenkins.rest.domain.common.RequestStatus;
+import java.io.InputStream;
 import java.util.List;
 
 import javax.inject.Named;
@@ -50,6 +51,17 @@ public interface QueueApi {
     @GET
     List<QueueItem> queue();
 
+    /**
+     * Get the queue as the raw JSON document, to be decoded as it is read,
+     * see `com.cdancy.jenkins.rest.streaming.JsonStreams.queueItems`.
+     *
+     * @return the JSON document holding the queue items under `items`.
+     */
+    @Named("queue:queue-stream")
+    @Path("/api/json")
+    @GET
+    InputStream queueStream();
+
     /**
      * Get a specific queue item.
      *
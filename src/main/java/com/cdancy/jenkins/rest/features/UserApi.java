@@ -35,7 +35,6 @@ import com.cdancy.jenkins.rest.domain.user.ApiToken;
 import com.cdancy.jenkins.rest.domain.user.User;
 import com.cdancy.jenkins.rest.domain.common.RequestStatus;
 import com.cdancy.jenkins.rest.fallbacks.JenkinsFallbacks;
-import com.cdancy.jenkins.rest.filters.JenkinsAuthenticationFilter;
 import com.cdancy.jenkins.rest.filters.JenkinsUserInjectionFilter;
 import com.cdancy.jenkins.rest.parsers.RequestStatusParser;
 import org.jclouds.rest.annotations.ResponseParser;
@@ -47,7 +46,7 @@ import org.jclouds.rest.annotations.ResponseParser;
  * For the User Api, see <a href="https://github.com/jenkinsci/jenkins/blob/master/core/src/main/java/hudson/model/User.java">User.java</a>
  * For the Api Token, see <a href="https://github.com/jenkinsci/jenkins/blob/master/core/src/main/java/jenkins/security/ApiTokenProperty.java">ApiTokenProperty.java</a>.
  */
-@RequestFilters({JenkinsAuthenticationFilter.class, JenkinsUserInjectionFilter.class})
+@RequestFilters(JenkinsUserInjectionFilter.class)
 @Path("/user")
 public interface UserApi {
 
@@ -0,0 +1,184 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.jenkins.rest.filters;
+
+import static org.jclouds.Constants.PROPERTY_USER_THREADS;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.javax.annotation.Nullable;
+import org.jclouds.rest.ResourceNotFoundException;
+
+import com.cdancy.jenkins.rest.JenkinsApi;
+import com.cdancy.jenkins.rest.JenkinsConstants;
+import com.cdancy.jenkins.rest.domain.crumb.Crumb;
+
+/**
+ * Hand out the crumb, and the session cookie it was issued with, to attach
+ * to POST requests.
+ *
+ * <p>A crumb is re-used until it is older than the configured TTL, a new one
+ * being fetched in the background once three quarters of the TTL have
+ * passed. When Jenkins rejects a crumb, e.g. because its session expired or
+ * the controller restarted, it is invalidated and the next caller fetches a
+ * new one. Fetches are serialized so that any number of threads needing a
+ * crumb at the same time cause a single request to the crumb issuer.
+ */
+@Singleton
+public class CrumbManager {
+
+    private static final String RNFSimpleName = ResourceNotFoundException.class.getSimpleName();
+
+    private final JenkinsApi jenkinsApi;
+    private final long ttlNanos;
+    private final Executor refreshExecutor;
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+
+    // the entry last handed out on each thread, so a rejected crumb can be traced back to it
+    private final ThreadLocal<Entry> sent = new ThreadLocal<>();
+    private volatile Entry entry;
+
+    @Inject
+    CrumbManager(final JenkinsApi jenkinsApi,
+            @Named(JenkinsConstants.CRUMB_TTL_PROPERTY) final long ttlSeconds,
+            @Named(PROPERTY_USER_THREADS) final ExecutorService userExecutor) {
+        this(jenkinsApi, ttlSeconds, TimeUnit.SECONDS, userExecutor);
+    }
+
+    /**
+     * Create a CrumbManager.
+     *
+     * @param jenkinsApi the JenkinsApi to fetch crumbs with.
+     * @param ttl how long a crumb is used for, 0 to use it until it is rejected.
+     * @param unit unit of the ttl.
+     * @param refreshExecutor optional Executor to refresh crumbs ahead of time on.
+     */
+    CrumbManager(final JenkinsApi jenkinsApi, final long ttl, final TimeUnit unit, @Nullable final Executor refreshExecutor) {
+        this.jenkinsApi = jenkinsApi;
+        this.ttlNanos = unit.toNanos(ttl);
+        this.refreshExecutor = refreshExecutor;
+    }
+
+    /**
+     * Get the crumb to attach to the request about to be sent on this thread.
+     *
+     * @return the current Crumb, whose value is null if the crumb issuer
+     *     could not be reached or is disabled.
+     */
+    public Crumb crumb() {
+        Entry current = entry;
+        final long now = System.nanoTime();
+        if (current == null || current.expired(now)) {
+            current = fetch(current);
+        } else if (current.refreshDue(now)) {
+            refreshInBackground(current);
+        }
+        sent.set(current);
+        return current.crumb;
+    }
+
+    /**
+     * Invalidate the crumb last handed out on this thread, after Jenkins
+     * rejected it. If another thread already replaced that crumb this is a
+     * no-op, so that a burst of rejections causes a single fetch.
+     *
+     * @return true if a crumb was handed out on this thread, and so a retry
+     *     will be sent with a different one.
+     */
+    public boolean invalidate() {
+        final Entry stale = sent.get();
+        sent.remove();
+        if (stale == null || stale.crumb.value() == null) {
+            return false;
+        }
+        synchronized (this) {
+            if (entry == stale) {
+                entry = null;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Whether the crumb came back empty because the crumb issuer is not
+     * enabled, in which case requests are sent without one.
+     *
+     * @param crumb the Crumb to check.
+     * @return true if requests need no crumb.
+     */
+    static boolean issuerDisabled(final Crumb crumb) {
+        return crumb.errors().isEmpty() || crumb.errors().get(0).exceptionName().endsWith(RNFSimpleName);
+    }
+
+    private synchronized Entry fetch(@Nullable final Entry stale) {
+        final Entry current = entry;
+        if (current != null && current != stale && !current.expired(System.nanoTime())) {
+            // fetched by another thread while we waited
+            return current;
+        }
+        final Crumb crumb = jenkinsApi.crumbIssuerApi().crumb();
+        final Entry fetched = new Entry(crumb, System.nanoTime());
+        // failures other than a disabled issuer are not kept so the next request tries again
+        entry = crumb.value() != null || issuerDisabled(crumb) ? fetched : null;
+        return fetched;
+    }
+
+    private void refreshInBackground(final Entry current) {
+        if (refreshExecutor == null || !refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    fetch(current);
+                } finally {
+                    refreshing.set(false);
+                }
+            });
+        } catch (final RejectedExecutionException e) {
+            refreshing.set(false);
+        }
+    }
+
+    private final class Entry {
+
+        private final Crumb crumb;
+        private final long fetchedAt;
+
+        Entry(final Crumb crumb, final long fetchedAt) {
+            this.crumb = crumb;
+            this.fetchedAt = fetchedAt;
+        }
+
+        boolean expired(final long now) {
+            return ttlNanos > 0 && now - fetchedAt >= ttlNanos;
+        }
+
+        boolean refreshDue(final long now) {
+            return ttlNanos > 0 && now - fetchedAt >= ttlNanos - ttlNanos / 4;
+        }
+    }
+}
@@ -17,7 +17,10 @@
 
 package com.cdancy.jenkins.rest.filters;
 
+import java.net.URI;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
@@ -29,84 +32,72 @@ import com.cdancy.jenkins.rest.domain.crumb.Crumb;
 import org.jclouds.http.HttpException;
 import org.jclouds.http.HttpRequest;
 import org.jclouds.http.HttpRequestFilter;
+import org.jclouds.javax.annotation.Nullable;
 
 import com.google.common.net.HttpHeaders;
 
-import org.jclouds.rest.ResourceNotFoundException;
-
 @Singleton
 public class JenkinsAuthenticationFilter implements HttpRequestFilter {
     private final JenkinsAuthentication creds;
-    private final JenkinsApi jenkinsApi;
+    private final CrumbManager crumbManager;
 
-    // key = Crumb, value = true if exception is ResourceNotFoundException false otherwise
-    private volatile Pair<Crumb, Boolean> crumbPair = null;
     private static final String CRUMB_HEADER = "Jenkins-Crumb";
 
-    private static final String RNFSimpleName = ResourceNotFoundException.class.getSimpleName();
+    JenkinsAuthenticationFilter(final JenkinsAuthentication creds, final JenkinsApi jenkinsApi) {
+        this(creds, new CrumbManager(jenkinsApi, 0, TimeUnit.SECONDS, null));
+    }
 
     @Inject
-    JenkinsAuthenticationFilter(final JenkinsAuthentication creds, final JenkinsApi jenkinsApi) {
+    JenkinsAuthenticationFilter(final JenkinsAuthentication creds, final CrumbManager crumbManager) {
         this.creds = creds;
-        this.jenkinsApi = jenkinsApi;
+        this.crumbManager = crumbManager;
     }
 
     @Override
     public HttpRequest filter(final HttpRequest request) throws HttpException {
-        final HttpRequest.Builder<? extends HttpRequest.Builder<?>> builder = request.toBuilder();
+        return filter(request, null);
+    }
 
+    /**
+     * Add the authentication headers and, if given, replace the endpoint of
+     * the request, rebuilding it at most once.
+     *
+     * @param request the request to filter.
+     * @param endpoint optional endpoint to send the request to instead.
+     * @return the filtered request, which is the given one if nothing had to change.
+     */
+    HttpRequest filter(final HttpRequest request, @Nullable final URI endpoint) throws HttpException {
         // Password and API Token are both Basic authentication (there is no Bearer authentication in Jenkins)
-        if (creds.authType() == AuthenticationType.UsernameApiToken || creds.authType() == AuthenticationType.UsernamePassword) {
-            final String authHeader = creds.authType().getAuthScheme() + " " + creds.authValue();
-            builder.addHeader(HttpHeaders.AUTHORIZATION, authHeader);
-        }
+        final String authHeader = creds.authHeader();
 
         // Anon and Password need the crumb and the cookie when POSTing
-        if (request.getMethod().equals("POST") &&
-            (creds.authType() == AuthenticationType.UsernamePassword || creds.authType() == AuthenticationType.Anonymous)
-        ) {
-            final Pair<Crumb, Boolean> localCrumb = getCrumb();
-            if (localCrumb.getKey().value() != null) {
-                builder.addHeader(CRUMB_HEADER, localCrumb.getKey().value());
-                Optional.ofNullable(localCrumb.getKey().sessionIdCookie())
-                        .ifPresent(sessionId -> builder.addHeader(HttpHeaders.COOKIE, sessionId));
-            } else {
-                if (!localCrumb.getValue()) {
-                    throw new RuntimeException("Unexpected exception being thrown: error=" + localCrumb.getKey().errors().get(0));
-                }
-            }
-        }
-        return builder.build();
-    }
+        final boolean needsCrumb = request.getMethod().equals("POST") &&
+            (creds.authType() == AuthenticationType.UsernamePassword || creds.authType() == AuthenticationType.Anonymous);
 
-    private Pair<Crumb, Boolean> getCrumb() {
-        Pair<Crumb, Boolean> crumbValueInit = this.crumbPair;
-        if (crumbValueInit == null) {
-            synchronized(this) {
-                crumbValueInit = this.crumbPair;
-                if (crumbValueInit == null) {
-                    final Crumb crumb = jenkinsApi.crumbIssuerApi().crumb();
-                    final Boolean isRNFE = crumb.errors().isEmpty() || crumb.errors().get(0).exceptionName().endsWith(RNFSimpleName);
-                    this.crumbPair = crumbValueInit = new Pair<>(crumb, isRNFE);
-                }
-            }
+        if (authHeader == null && !needsCrumb && endpoint == null) {
+            return request;
         }
-        return crumbValueInit;
-    }
 
-    // simple impl/copy of javafx.util.Pair
-    private static class Pair<A, B> {
-        private final A a;
-        private final B b;
-        public Pair(final A a, final B b) {
-            this.a = a;
-            this.b = b;
+        final HttpRequest.Builder<? extends HttpRequest.Builder<?>> builder = request.toBuilder();
+        if (endpoint != null) {
+            builder.endpoint(endpoint);
         }
-        public A getKey() {
-            return a;
+        if (authHeader != null) {
+            builder.addHeader(HttpHeaders.AUTHORIZATION, authHeader);
         }
-        public B getValue() {
-            return b;
+        if (needsCrumb) {
+            // the crumb is only valid along with the session cookie it was issued with
+            final Crumb crumb = crumbManager.crumb();
+            if (crumb.value() != null) {
+                builder.addHeader(CRUMB_HEADER, crumb.value());
+                Optional.ofNullable(crumb.sessionIdCookie())
+                        .ifPresent(sessionId -> builder.addHeader(HttpHeaders.COOKIE, sessionId));
+            } else {
+                if (!CrumbManager.issuerDisabled(crumb)) {
+                    throw new RuntimeException("Unexpected exception being thrown: error=" + crumb.errors().get(0));
+                }
+            }
         }
+        return builder.build();
     }
 }
@@ -21,7 +21,6 @@ import javax.inject.Inject;
 import javax.inject.Singleton;
 
 import com.cdancy.jenkins.rest.JenkinsAuthentication;
-import com.cdancy.jenkins.rest.auth.AuthenticationType;
 
 import org.jclouds.http.HttpException;
 import org.jclouds.http.HttpRequest;
@@ -39,10 +38,10 @@ public class JenkinsNoCrumbAuthenticationFilter implements HttpRequestFilter {
 
     @Override
     public HttpRequest filter(final HttpRequest request) throws HttpException {
-        if (creds.authType() == AuthenticationType.Anonymous) {
+        final String authHeader = creds.authHeader();
+        if (authHeader == null) {
             return request;
         } else {
-            final String authHeader = creds.authType().getAuthScheme() + " " + creds.authValue();
             return request.toBuilder().addHeader(HttpHeaders.AUTHORIZATION, authHeader).build();
         }
     }
@@ -17,6 +17,8 @@
 
 package com.cdancy.jenkins.rest.filters;
 
+import java.net.URI;
+
 import org.jclouds.http.HttpException;
 import org.jclouds.http.HttpRequest;
 import org.jclouds.http.HttpRequestFilter;
@@ -27,20 +29,29 @@ import static com.cdancy.jenkins.rest.JenkinsConstants.USER_IN_USER_API;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
+/**
+ * Replace the user placeholder in the path with the identity of the
+ * credentials, and authenticate the request, in a single rebuild of it.
+ */
 @Singleton
 public class JenkinsUserInjectionFilter implements HttpRequestFilter {
 
     private static final String USER_PLACE_HOLDER = "%7B" + USER_IN_USER_API + "%7D";
     private final JenkinsAuthentication creds;
+    private final JenkinsAuthenticationFilter authenticationFilter;
 
     @Inject
-    public JenkinsUserInjectionFilter(final JenkinsAuthentication creds) {
+    public JenkinsUserInjectionFilter(final JenkinsAuthentication creds, final JenkinsAuthenticationFilter authenticationFilter) {
         this.creds = creds;
+        this.authenticationFilter = authenticationFilter;
     }
 
     @Override
     public HttpRequest filter(final HttpRequest request) throws HttpException {
-        final String requestPath = request.getEndpoint().getRawPath().replaceAll(USER_PLACE_HOLDER, creds.identity);
-        return request.toBuilder().fromHttpRequest(request).replacePath(requestPath).build();
+        final String endpoint = request.getEndpoint().toString();
+        final URI injected = endpoint.contains(USER_PLACE_HOLDER)
+                ? URI.create(endpoint.replace(USER_PLACE_HOLDER, creds.identity))
+                : null;
+        return authenticationFilter.filter(request, injected);
     }
 }
@@ -0,0 +1,75 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.jenkins.rest.handlers;
+
+import static org.jclouds.http.HttpUtils.closeClientButKeepContentStream;
+
+import java.nio.charset.StandardCharsets;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.jclouds.http.HttpCommand;
+import org.jclouds.http.HttpRequest;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.http.HttpRetryHandler;
+
+import com.cdancy.jenkins.rest.filters.CrumbManager;
+
+/**
+ * Retry, once, a POST which Jenkins rejected for carrying an expired or
+ * unknown crumb. The crumb is invalidated first so that the retry, which
+ * goes through the request filters again, is sent with a new one.
+ *
+ * <p>The response body is buffered so that, when the request is not retried,
+ * JenkinsErrorHandler can still report it.
+ */
+@Singleton
+public class InvalidCrumbRetryHandler implements HttpRetryHandler {
+
+    static final String INVALID_CRUMB_MESSAGE = "No valid crumb";
+
+    private final CrumbManager crumbManager;
+
+    @Inject
+    InvalidCrumbRetryHandler(final CrumbManager crumbManager) {
+        this.crumbManager = crumbManager;
+    }
+
+    @Override
+    public boolean shouldRetryRequest(final HttpCommand command, final HttpResponse response) {
+        final HttpRequest request = command.getCurrentRequest();
+        if (response.getStatusCode() != 403
+                || !request.getMethod().equals("POST")
+                || command.getFailureCount() > 0
+                || (request.getPayload() != null && !request.getPayload().isRepeatable())
+                || response.getPayload() == null) {
+            return false;
+        }
+
+        final byte[] content = closeClientButKeepContentStream(response);
+        if (content == null || !new String(content, StandardCharsets.UTF_8).contains(INVALID_CRUMB_MESSAGE)) {
+            return false;
+        }
+        if (!crumbManager.invalidate()) {
+            return false;
+        }
+        command.incrementFailureCount();
+        return true;
+    }
+}
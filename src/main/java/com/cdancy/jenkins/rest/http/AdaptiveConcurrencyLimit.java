@@ -0,0 +1,163 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.jenkins.rest.http;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import com.cdancy.jenkins.rest.JenkinsConstants;
+import com.cdancy.jenkins.rest.metrics.JenkinsMetrics;
+
+/**
+ * Limit the requests in flight to a controller with an AIMD algorithm, the
+ * way TCP shares a link between connections.
+ *
+ * <p>Every response received quickly adds 1/limit to the limit, i.e. the
+ * limit grows by one each time a full window of requests goes through, as
+ * long as the limit is actually used. A 429, 503 or 504, or a response
+ * slower than the latency threshold, halves it, once per window: responses
+ * to requests sent before the last decrease do not decrease it again. The
+ * limit stays between 1 and the configured maximum and each change is
+ * reported to the JenkinsMetrics. Requests beyond the limit wait for room
+ * for up to their connect timeout, then fail.
+ *
+ * <p>Disabled unless `jenkins.rest.adaptive.max-limit` is set.
+ */
+@Singleton
+public class AdaptiveConcurrencyLimit {
+
+    private static final double BACKOFF_RATIO = 0.5;
+
+    private final JenkinsMetrics metrics;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private final ThreadLocal<Long> sentAt = new ThreadLocal<>();
+
+    private double limit;
+    private int inFlight;
+    private long lastDecrease = System.nanoTime();
+
+    @Inject
+    AdaptiveConcurrencyLimit(final JenkinsMetrics metrics,
+            @Named(JenkinsConstants.ADAPTIVE_INITIAL_LIMIT_PROPERTY) final int initialLimit,
+            @Named(JenkinsConstants.ADAPTIVE_MAX_LIMIT_PROPERTY) final int maxLimit,
+            @Named(JenkinsConstants.ADAPTIVE_LATENCY_THRESHOLD_PROPERTY) final long latencyThresholdMillis) {
+        this.metrics = metrics;
+        this.maxLimit = maxLimit;
+        this.latencyThresholdNanos = TimeUnit.MILLISECONDS.toNanos(latencyThresholdMillis);
+        this.limit = Math.max(1, Math.min(initialLimit, maxLimit));
+    }
+
+    public boolean enabled() {
+        return maxLimit > 0;
+    }
+
+    /**
+     * The number of requests currently allowed in flight.
+     *
+     * @return the limit, 0 when disabled.
+     */
+    public synchronized int limit() {
+        return enabled() ? (int) limit : 0;
+    }
+
+    /**
+     * Wait for room under the limit, then count the request in flight.
+     *
+     * @param timeoutMillis how long to wait for room, 0 to wait as long as needed.
+     * @return to run once the response has been read.
+     * @throws IOException if no room was made in time.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public Runnable acquire(final int timeoutMillis) throws IOException, InterruptedException {
+        synchronized (this) {
+            final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+            while (inFlight >= (int) limit) {
+                if (timeoutMillis <= 0) {
+                    wait();
+                    continue;
+                }
+                final long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    throw new IOException("Timed out after " + timeoutMillis + "ms waiting for one of the "
+                            + (int) limit + " requests in flight allowed by the adaptive concurrency limit");
+                }
+                TimeUnit.NANOSECONDS.timedWait(this, remaining);
+            }
+            inFlight++;
+        }
+        final AtomicBoolean released = new AtomicBoolean();
+        return () -> {
+            if (released.compareAndSet(false, true)) {
+                synchronized (this) {
+                    inFlight--;
+                    notifyAll();
+                }
+            }
+        };
+    }
+
+    /**
+     * Note that the request this thread acquired room for is being sent now,
+     * once it is no longer queued on the client side, so that its latency
+     * only covers the time spent by the controller.
+     */
+    public void markSent() {
+        sentAt.set(System.nanoTime());
+    }
+
+    /**
+     * Adjust the limit on receiving the response to the request this thread
+     * last marked as sent.
+     *
+     * @param statusCode status code of the response.
+     */
+    public void onResponse(final int statusCode) {
+        final Long sent = sentAt.get();
+        if (sent == null) {
+            return;
+        }
+        sentAt.remove();
+        final long latency = System.nanoTime() - sent;
+        final boolean overloaded = statusCode == 429 || statusCode == 503 || statusCode == 504
+                || (latencyThresholdNanos > 0 && latency > latencyThresholdNanos);
+        final int changed;
+        synchronized (this) {
+            final int before = (int) limit;
+            if (overloaded) {
+                if (sent - lastDecrease < 0) {
+                    return;
+                }
+                limit = Math.max(1, limit * BACKOFF_RATIO);
+                lastDecrease = System.nanoTime();
+            } else if (inFlight * 2 >= before) {
+                limit = Math.min(maxLimit, limit + 1 / limit);
+                notifyAll();
+            }
+            changed = (int) limit != before ? (int) limit : -1;
+        }
+        if (changed != -1) {
+            metrics.recordConcurrencyLimit(changed);
+        }
+    }
+}
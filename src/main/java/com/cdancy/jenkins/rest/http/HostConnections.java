@@ -0,0 +1,247 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.jenkins.rest.http;
+
+import static org.jclouds.Constants.PROPERTY_MAX_CONNECTIONS_PER_HOST;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.io.ByteStreams;
+
+/**
+ * Track, and optionally bound, the connections in use to each host.
+ *
+ * <p>Neither of the JDK clients can bound the connections it opens, so the
+ * transports take a lease before sending each attempt and hand it over to
+ * the response body, which returns it once read to the end or closed. With
+ * `jclouds.max-connections-per-host` set, requests beyond that many wait for
+ * a lease for up to the connect timeout.
+ *
+ * <p>Responses with no body to speak of, answers to a HEAD, a 201, 204 or
+ * 304, or one with a Content-Length of 0, are read straight away and their
+ * lease released, since header-only parsers never open the body.
+ */
+@Singleton
+public class HostConnections {
+
+    private final int maxPerHost;
+    private final ConcurrentMap<String, Host> hosts = new ConcurrentHashMap<>();
+    private final AtomicInteger inUse = new AtomicInteger();
+    private volatile long lastActivity = System.nanoTime();
+
+    @Inject
+    HostConnections(@Named(PROPERTY_MAX_CONNECTIONS_PER_HOST) final int maxPerHost) {
+        this.maxPerHost = maxPerHost;
+    }
+
+    /**
+     * Take a connection to the host of the endpoint.
+     *
+     * @param endpoint the endpoint about to be requested.
+     * @param timeoutMillis how long to wait for a connection when all are in use, 0 to wait as long as needed.
+     * @param onRelease run along with the release of the Lease, or straight away if no connection could be taken.
+     * @return the Lease to release once the response has been read.
+     * @throws IOException if no connection was released in time.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public Lease acquire(final URI endpoint, final int timeoutMillis, final Runnable onRelease) throws IOException, InterruptedException {
+        final String key = endpoint.getScheme() + "://" + endpoint.getHost() + ":" + port(endpoint);
+        final Host host = hosts.computeIfAbsent(key, name -> new Host(maxPerHost));
+        if (host.permits != null) {
+            boolean acquired = false;
+            host.waiting.incrementAndGet();
+            try {
+                if (timeoutMillis > 0) {
+                    if (!host.permits.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                        throw new IOException("Timed out after " + timeoutMillis + "ms waiting for one of the "
+                                + maxPerHost + " connections to " + key);
+                    }
+                } else {
+                    host.permits.acquire();
+                }
+                acquired = true;
+            } finally {
+                host.waiting.decrementAndGet();
+                if (!acquired) {
+                    onRelease.run();
+                }
+            }
+        }
+        host.leases.incrementAndGet();
+        host.peakInUse.accumulateAndGet(host.inUse.incrementAndGet(), Math::max);
+        inUse.incrementAndGet();
+        lastActivity = System.nanoTime();
+        return new Lease(host, onRelease);
+    }
+
+    /**
+     * Nanoseconds since the last connection was taken or released, 0 while
+     * any is in use.
+     *
+     * @return idle time in nanoseconds.
+     */
+    public long idleNanos() {
+        return inUse.get() > 0 ? 0 : System.nanoTime() - lastActivity;
+    }
+
+    /**
+     * Snapshot the usage of every host requested so far.
+     *
+     * @param transport name of the transport, reported as is.
+     * @return TransportStats
+     */
+    public TransportStats stats(final String transport) {
+        final ImmutableMap.Builder<String, TransportStats.HostStats> stats = ImmutableMap.builder();
+        for (final Map.Entry<String, Host> entry : hosts.entrySet()) {
+            final Host host = entry.getValue();
+            stats.put(entry.getKey(), TransportStats.HostStats.create(host.inUse.get(), host.peakInUse.get(),
+                    host.waiting.get(), host.leases.get()));
+        }
+        return TransportStats.create(transport, maxPerHost, stats.build());
+    }
+
+    /**
+     * Whether the response to a request has no body the caller would read,
+     * so that the transport should read it and release the lease itself.
+     *
+     * @param method method of the request.
+     * @param statusCode status code of the response.
+     * @param contentLength Content-Length of the response, null if not known.
+     * @return true to release the lease before returning the response.
+     */
+    static boolean readAhead(final String method, final int statusCode, final Long contentLength) {
+        return "HEAD".equals(method) || statusCode == 201 || statusCode == 204 || statusCode == 304
+                || (contentLength != null && contentLength == 0);
+    }
+
+    private static int port(final URI endpoint) {
+        if (endpoint.getPort() != -1) {
+            return endpoint.getPort();
+        }
+        return "https".equalsIgnoreCase(endpoint.getScheme()) ? 443 : 80;
+    }
+
+    private static final class Host {
+
+        private final Semaphore permits;
+        private final AtomicInteger inUse = new AtomicInteger();
+        private final AtomicInteger peakInUse = new AtomicInteger();
+        private final AtomicInteger waiting = new AtomicInteger();
+        private final AtomicLong leases = new AtomicLong();
+
+        Host(final int maxPerHost) {
+            this.permits = maxPerHost > 0 ? new Semaphore(maxPerHost, true) : null;
+        }
+    }
+
+    /**
+     * A connection in use, released at most once.
+     */
+    public final class Lease {
+
+        private final Host host;
+        private final Runnable onRelease;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        Lease(final Host host, final Runnable onRelease) {
+            this.host = host;
+            this.onRelease = onRelease;
+        }
+
+        public void release() {
+            if (released.compareAndSet(false, true)) {
+                host.inUse.decrementAndGet();
+                inUse.decrementAndGet();
+                lastActivity = System.nanoTime();
+                if (host.permits != null) {
+                    host.permits.release();
+                }
+                onRelease.run();
+            }
+        }
+
+        /**
+         * Read a response body the caller has no use for streaming, then
+         * release the lease.
+         *
+         * @param body the response body, empty or short.
+         * @return the bytes read.
+         * @throws IOException if the body could not be read.
+         */
+        public byte[] releaseAfterReading(final InputStream body) throws IOException {
+            try (InputStream in = body) {
+                return ByteStreams.toByteArray(in);
+            } finally {
+                release();
+            }
+        }
+
+        /**
+         * Hand the lease over to a response body.
+         *
+         * @param body the response body.
+         * @return the body, releasing this lease once read to the end or closed.
+         */
+        public InputStream releaseOnClose(final InputStream body) {
+            return new FilterInputStream(body) {
+                @Override
+                public int read() throws IOException {
+                    final int read = super.read();
+                    if (read == -1) {
+                        release();
+                    }
+                    return read;
+                }
+
+                @Override
+                public int read(final byte[] b, final int off, final int len) throws IOException {
+                    final int read = super.read(b, off, len);
+                    if (read == -1) {
+                        release();
+                    }
+                    return read;
+                }
+
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        release();
+                    }
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,401 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.jenkins.rest.http;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.net.HttpHeaders.USER_AGENT;
+import static org.jclouds.Constants.PROPERTY_IDEMPOTENT_METHODS;
+import static org.jclouds.Constants.PROPERTY_USER_AGENT;
+import static org.jclouds.http.HttpUtils.filterOutContentHeaders;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.Proxy;
+import java.net.ProxySelector;
+import java.net.SocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest.BodyPublisher;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.net.ssl.SSLContext;
+
+import org.jclouds.http.HttpCommand;
+import org.jclouds.http.HttpRequest;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.http.HttpUtils;
+import org.jclouds.http.IOExceptionRetryHandler;
+import org.jclouds.http.handlers.DelegatingErrorHandler;
+import org.jclouds.http.handlers.DelegatingRetryHandler;
+import org.jclouds.http.internal.BaseHttpCommandExecutorService;
+import org.jclouds.http.internal.HttpWire;
+import org.jclouds.io.ContentMetadataCodec;
+import org.jclouds.io.Payload;
+import org.jclouds.io.Payloads;
+
+import com.cdancy.jenkins.rest.JenkinsConstants;
+import com.google.common.base.Function;
+import com.google.common.base.Supplier;
+import com.google.common.collect.ImmutableMultimap;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Transport based on java.net.http.HttpClient, reporting each call to the
+ * JenkinsMetrics and applying the TransportOptions, the RequestThrottle and
+ * the ResponseCache.
+ *
+ * <p>A single HttpClient is shared by every call. It negotiates HTTP/2,
+ * through ALPN over TLS or an upgrade over plain HTTP, unless
+ * `jenkins.rest.http.version` is set to `HTTP_1_1`. Over HTTP/2 concurrent
+ * calls to a controller share one connection, otherwise the client keeps a
+ * pool of HTTP/1.1 connections per host. Sockets are driven by the client's
+ * selector thread while the calling thread waits for the response headers,
+ * the response body then being read as it is consumed.
+ *
+ * <p>HttpClient keeps idle connections for 20 minutes, or the value of the
+ * `jdk.httpclient.keepalive.timeout` system property. With an idle timeout
+ * set in the TransportOptions, the client is replaced once no request has
+ * been in flight for that long. From Java 21 on the replaced client is shut
+ * down, closing its connections, as soon as the requests sent on it are
+ * complete. Java 11 to 20 offer no way to close a client: its connections
+ * are only dropped once it has been garbage collected, or once they reach
+ * the JDK's own keep-alive timeout. HttpClient cannot be asked to close
+ * connections after each request, so keep-alive cannot be turned off.
+ *
+ * <p>HttpClient only exposes a global switch for hostname verification, so
+ * `jclouds.relax-hostname` is not honoured. `jclouds.trust-all-certs` is.
+ * The connect timeout is that of the client, per-operation read timeouts
+ * bound the time until the response headers are received.
+ */
+public class HttpClientCommandExecutorService extends BaseHttpCommandExecutorService<java.net.http.HttpRequest> {
+
+    // headers HttpClient manages itself and refuses to be given
+    private static final Set<String> RESTRICTED_HEADERS = ImmutableSet.of(
+            "connection", "content-length", "date", "expect", "from", "host", "upgrade", "via", "warning");
+
+    // HttpClient.shutdown(), only there from Java 21 on
+    private static final Method SHUTDOWN = shutdownMethod();
+
+    private final HttpClient.Builder clientBuilder;
+    private final String userAgent;
+    private final RequestMetering metering;
+    private final HostConnections connections;
+    private final TransportOptions options;
+    private final RequestThrottle throttle;
+    private final ResponseCache cache;
+    private final long idleTimeoutNanos;
+    private final ThreadLocal<HostConnections.Lease> pending = new ThreadLocal<>();
+    private final ThreadLocal<Client> sending = new ThreadLocal<>();
+    private volatile Client client;
+    private long clientCreated;
+
+    @Inject
+    HttpClientCommandExecutorService(final HttpUtils utils, final ContentMetadataCodec contentMetadataCodec,
+            final DelegatingRetryHandler retryHandler, final IOExceptionRetryHandler ioRetryHandler,
+            final DelegatingErrorHandler errorHandler, final HttpWire wire,
+            @Named("untrusted") final Supplier<SSLContext> untrustedSSLContextProvider,
+            final Function<URI, Proxy> proxyForURI,
+            @Named(PROPERTY_IDEMPOTENT_METHODS) final String idempotentMethods,
+            @Named(PROPERTY_USER_AGENT) final String userAgent,
+            @Named(JenkinsConstants.HTTP_VERSION_PROPERTY) final String httpVersion,
+            final RequestMetering metering,
+            final HostConnections connections,
+            final TransportOptions options,
+            final RequestThrottle throttle,
+            final ResponseCache cache) {
+        super(utils, contentMetadataCodec, retryHandler, ioRetryHandler, errorHandler, wire, idempotentMethods);
+        checkArgument(options.keepAlive(), "keep-alive cannot be turned off with the HTTP_CLIENT transport");
+        final HttpClient.Builder builder = HttpClient.newBuilder()
+                .version(HttpClient.Version.valueOf(httpVersion))
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .proxy(new JcloudsProxySelector(proxyForURI));
+        if (utils.getConnectionTimeout() > 0) {
+            builder.connectTimeout(Duration.ofMillis(utils.getConnectionTimeout()));
+        }
+        if (utils.trustAllCerts()) {
+            builder.sslContext(untrustedSSLContextProvider.get());
+        }
+        this.clientBuilder = builder;
+        this.client = new Client(builder.build());
+        this.clientCreated = System.nanoTime();
+        this.userAgent = userAgent;
+        this.metering = metering;
+        this.connections = connections;
+        this.options = options;
+        this.throttle = throttle;
+        this.cache = cache;
+        this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(options.idleTimeoutMillis());
+    }
+
+    @Override
+    public HttpResponse invoke(final HttpCommand command) {
+        final RequestMetering.Exchange exchange = metering.begin();
+        try {
+            return super.invoke(command);
+        } finally {
+            metering.end(exchange, command);
+        }
+    }
+
+    @Override
+    protected java.net.http.HttpRequest convert(final HttpRequest originalRequest) throws IOException, InterruptedException {
+        final HttpRequest request = cache.prepare(originalRequest);
+        final java.net.http.HttpRequest.Builder builder = java.net.http.HttpRequest.newBuilder(request.getEndpoint());
+        final int readTimeout = options.readTimeout(request);
+        if (readTimeout > 0) {
+            builder.timeout(Duration.ofMillis(readTimeout));
+        }
+        for (final Map.Entry<String, String> header : request.getHeaders().entries()) {
+            addHeader(builder, header.getKey(), header.getValue());
+        }
+        if (request.getFirstHeaderOrNull(USER_AGENT) == null) {
+            builder.setHeader(USER_AGENT, userAgent);
+        }
+
+        final Payload payload = request.getPayload();
+        BodyPublisher body = BodyPublishers.noBody();
+        if (payload != null) {
+            for (final Map.Entry<String, String> header : contentMetadataCodec.toHeaders(payload.getContentMetadata()).entries()) {
+                addHeader(builder, header.getKey(), header.getValue());
+            }
+            final Long length = payload.getContentMetadata().getContentLength();
+            if (length == null) {
+                body = BodyPublishers.ofInputStream(() -> open(payload));
+            } else if (length > 0) {
+                body = BodyPublishers.fromPublisher(BodyPublishers.ofInputStream(() -> open(payload)), length);
+            }
+        }
+        final java.net.http.HttpRequest nativeRequest = builder.method(request.getMethod(), body).build();
+        refreshIdleClient();
+        final int connectTimeout = options.connectTimeout(request);
+        pending.set(connections.acquire(request.getEndpoint(), connectTimeout, throttle.acquire(request, connectTimeout)));
+        throttle.markSent();
+        Client current = client;
+        while (!current.use()) {
+            current = client;
+        }
+        sending.set(current);
+        return nativeRequest;
+    }
+
+    @Override
+    protected HttpResponse invoke(final java.net.http.HttpRequest nativeRequest) throws IOException, InterruptedException {
+        final Client current = sending.get();
+        sending.remove();
+        final java.net.http.HttpResponse<InputStream> response;
+        try {
+            response = current.httpClient.send(nativeRequest, BodyHandlers.ofInputStream());
+        } finally {
+            current.done();
+        }
+        // from here on the connection is held by the response body
+        final HostConnections.Lease lease = pending.get();
+        pending.remove();
+
+        final ImmutableMultimap.Builder<String, String> headerBuilder = ImmutableMultimap.builder();
+        for (final Map.Entry<String, List<String>> header : response.headers().map().entrySet()) {
+            // skip the HTTP/2 pseudo-headers
+            if (!header.getKey().startsWith(":")) {
+                headerBuilder.putAll(header.getKey(), header.getValue());
+            }
+        }
+        final ImmutableMultimap<String, String> headers = headerBuilder.build();
+
+        final HttpResponse.Builder<?> builder = HttpResponse.builder()
+                .statusCode(response.statusCode())
+                .message(reasonPhrase(response.statusCode()));
+        if (HostConnections.readAhead(nativeRequest.method(), response.statusCode(),
+                response.headers().firstValueAsLong("Content-Length").isPresent()
+                        ? response.headers().firstValueAsLong("Content-Length").getAsLong() : null)) {
+            final byte[] body = lease.releaseAfterReading(response.body());
+            // as with HttpURLConnection, a 204 carries no payload
+            if (response.statusCode() != 204) {
+                final Payload payload = Payloads.newByteArrayPayload(body);
+                contentMetadataCodec.fromHeaders(payload.getContentMetadata(), headers);
+                builder.payload(payload);
+            }
+        } else {
+            final Payload payload = Payloads.newInputStreamPayload(lease.releaseOnClose(response.body()));
+            contentMetadataCodec.fromHeaders(payload.getContentMetadata(), headers);
+            builder.payload(payload);
+        }
+        builder.headers(filterOutContentHeaders(headers));
+
+        final HttpResponse converted = builder.build();
+        metering.attempt(converted);
+        throttle.onResponse(converted.getStatusCode());
+        return cache.complete(converted);
+    }
+
+    @Override
+    protected void cleanup(final java.net.http.HttpRequest nativeRequest) {
+        // the attempt failed before its response was handed over
+        final HostConnections.Lease lease = pending.get();
+        if (lease != null) {
+            pending.remove();
+            lease.release();
+        }
+        final Client current = sending.get();
+        if (current != null) {
+            sending.remove();
+            current.done();
+        }
+        cache.cleanup();
+    }
+
+    // replace the client, dropping its pooled connections, once they have been idle for longer than the idle timeout
+    private void refreshIdleClient() {
+        if (idleTimeoutNanos > 0 && connections.idleNanos() > idleTimeoutNanos) {
+            synchronized (this) {
+                if (System.nanoTime() - clientCreated > idleTimeoutNanos) {
+                    final Client replaced = client;
+                    client = new Client(clientBuilder.build());
+                    clientCreated = System.nanoTime();
+                    replaced.replace();
+                }
+            }
+        }
+    }
+
+    private static Method shutdownMethod() {
+        try {
+            return HttpClient.class.getMethod("shutdown");
+        } catch (final NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    private static void addHeader(final java.net.http.HttpRequest.Builder builder, final String name, final String value) {
+        if (!RESTRICTED_HEADERS.contains(name.toLowerCase())) {
+            builder.header(name, value);
+        }
+    }
+
+    private static InputStream open(final Payload payload) {
+        try {
+            return payload.openStream();
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // HTTP/2 has no reason phrase, give the usual one so that status lines read the same on every transport
+    static String reasonPhrase(final int statusCode) {
+        switch (statusCode) {
+            case 200: return "OK";
+            case 201: return "Created";
+            case 204: return "No Content";
+            case 301: return "Moved Permanently";
+            case 302: return "Found";
+            case 303: return "See Other";
+            case 304: return "Not Modified";
+            case 400: return "Bad Request";
+            case 401: return "Unauthorized";
+            case 403: return "Forbidden";
+            case 404: return "Not Found";
+            case 405: return "Method Not Allowed";
+            case 409: return "Conflict";
+            case 415: return "Unsupported Media Type";
+            case 429: return "Too Many Requests";
+            case 500: return "Internal Server Error";
+            case 502: return "Bad Gateway";
+            case 503: return "Service Unavailable";
+            case 504: return "Gateway Timeout";
+            default: return "";
+        }
+    }
+
+    // an HttpClient and the number of requests about to be sent on it, shut down once replaced and no longer used
+    private static final class Client {
+
+        private final HttpClient httpClient;
+        private final AtomicInteger users = new AtomicInteger();
+        private volatile boolean replaced;
+
+        Client(final HttpClient httpClient) {
+            this.httpClient = httpClient;
+        }
+
+        // false if the client has been replaced, in which case the new one must be used
+        boolean use() {
+            users.incrementAndGet();
+            if (replaced) {
+                done();
+                return false;
+            }
+            return true;
+        }
+
+        void done() {
+            if (users.decrementAndGet() == 0 && replaced) {
+                shutdown();
+            }
+        }
+
+        void replace() {
+            replaced = true;
+            if (users.get() == 0) {
+                shutdown();
+            }
+        }
+
+        // requests already sent, including the reading of their responses, run to completion
+        private void shutdown() {
+            if (SHUTDOWN != null) {
+                try {
+                    SHUTDOWN.invoke(httpClient);
+                } catch (final IllegalAccessException | InvocationTargetException e) {
+                    // left to be closed once garbage collected, as before Java 21
+                }
+            }
+        }
+    }
+
+    // route every request through the proxy jclouds would use for it
+    private static final class JcloudsProxySelector extends ProxySelector {
+
+        private final Function<URI, Proxy> proxyForURI;
+
+        JcloudsProxySelector(final Function<URI, Proxy> proxyForURI) {
+            this.proxyForURI = proxyForURI;
+        }
+
+        @Override
+        public List<Proxy> select(final URI uri) {
+            return Collections.singletonList(proxyForURI.apply(uri));
+        }
+
+        @Override
+        public void connectFailed(final URI uri, final SocketAddress sa, final IOException ioe) {
+            // nothing to fall back to
+        }
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.jenkins.rest.http;
+
+import static org.jclouds.Constants.PROPERTY_IDEMPOTENT_METHODS;
+import static org.jclouds.Constants.PROPERTY_OUTPUT_SOCKET_BUFFER_SIZE;
+import static org.jclouds.Constants.PROPERTY_USER_AGENT;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.Proxy;
+import java.net.URI;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.net.ssl.HostnameVerifier;
+import javax.net.ssl.SSLContext;
+
+import org.jclouds.http.HttpCommand;
+import org.jclouds.http.HttpRequest;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.http.HttpUtils;
+import org.jclouds.http.IOExceptionRetryHandler;
+import org.jclouds.http.handlers.DelegatingErrorHandler;
+import org.jclouds.http.handlers.DelegatingRetryHandler;
+import org.jclouds.http.internal.HttpWire;
+import org.jclouds.http.internal.JavaUrlHttpCommandExecutorService;
+import org.jclouds.io.ContentMetadataCodec;
+import org.jclouds.io.Payload;
+import org.jclouds.io.Payloads;
+
+import com.google.common.base.Function;
+import com.google.common.base.Supplier;
+
+/**
+ * The default jclouds transport, based on HttpURLConnection, reporting each
+ * call to the JenkinsMetrics and applying the TransportOptions, the
+ * RequestThrottle and the ResponseCache.
+ *
+ * <p>Idle connections are kept by the JDK's global keep-alive cache, sized
+ * with the `http.maxConnections` system property, and cannot be given an
+ * idle timeout of their own.
+ */
+public class MeteredJavaUrlHttpCommandExecutorService extends JavaUrlHttpCommandExecutorService {
+
+    private final RequestMetering metering;
+    private final HostConnections connections;
+    private final TransportOptions options;
+    private final RequestThrottle throttle;
+    private final ResponseCache cache;
+    private final ThreadLocal<HostConnections.Lease> pending = new ThreadLocal<>();
+
+    @Inject
+    MeteredJavaUrlHttpCommandExecutorService(final HttpUtils utils, final ContentMetadataCodec contentMetadataCodec,
+            final DelegatingRetryHandler retryHandler, final IOExceptionRetryHandler ioRetryHandler,
+            final DelegatingErrorHandler errorHandler, final HttpWire wire,
+            @Named("untrusted") final HostnameVerifier verifier,
+            @Named("untrusted") final Supplier<SSLContext> untrustedSSLContextProvider,
+            final Function<URI, Proxy> proxyForURI,
+            @Named(PROPERTY_IDEMPOTENT_METHODS) final String idempotentMethods,
+            @Named(PROPERTY_OUTPUT_SOCKET_BUFFER_SIZE) final int outputSocketBufferSize,
+            @Named(PROPERTY_USER_AGENT) final String userAgent,
+            final RequestMetering metering,
+            final HostConnections connections,
+            final TransportOptions options,
+            final RequestThrottle throttle,
+            final ResponseCache cache) {
+        super(utils, contentMetadataCodec, retryHandler, ioRetryHandler, errorHandler, wire, verifier,
+                untrustedSSLContextProvider, proxyForURI, idempotentMethods, outputSocketBufferSize, userAgent);
+        this.metering = metering;
+        this.connections = connections;
+        this.options = options;
+        this.throttle = throttle;
+        this.cache = cache;
+    }
+
+    @Override
+    public HttpResponse invoke(final HttpCommand command) {
+        final RequestMetering.Exchange exchange = metering.begin();
+        try {
+            return super.invoke(command);
+        } finally {
+            metering.end(exchange, command);
+        }
+    }
+
+    @Override
+    protected HttpURLConnection convert(final HttpRequest request) throws IOException, InterruptedException {
+        final int connectTimeout = options.connectTimeout(request);
+        pending.set(connections.acquire(request.getEndpoint(), connectTimeout, throttle.acquire(request, connectTimeout)));
+        throttle.markSent();
+        return super.convert(cache.prepare(request));
+    }
+
+    @Override
+    protected void configureRequestHeaders(final HttpURLConnection connection, final HttpRequest request) {
+        super.configureRequestHeaders(connection, request);
+        connection.setConnectTimeout(options.connectTimeout(request));
+        connection.setReadTimeout(options.readTimeout(request));
+        if (!options.keepAlive()) {
+            connection.setRequestProperty("Connection", "close");
+        }
+    }
+
+    @Override
+    protected HttpResponse invoke(final HttpURLConnection connection) throws IOException, InterruptedException {
+        final HttpResponse response = super.invoke(connection);
+        metering.attempt(response);
+        throttle.onResponse(response.getStatusCode());
+
+        // from here on the connection is held by the response body
+        final HostConnections.Lease lease = pending.get();
+        pending.remove();
+        final Payload payload = response.getPayload();
+        if (payload == null) {
+            lease.release();
+            return cache.complete(response);
+        }
+        if (HostConnections.readAhead(connection.getRequestMethod(), response.getStatusCode(),
+                payload.getContentMetadata().getContentLength())) {
+            final Payload read = Payloads.newByteArrayPayload(lease.releaseAfterReading(payload.openStream()));
+            read.setContentMetadata(payload.getContentMetadata());
+            return cache.complete(response.toBuilder().payload(read).build());
+        }
+        final Payload leased = Payloads.newInputStreamPayload(lease.releaseOnClose(payload.openStream()));
+        leased.setContentMetadata(payload.getContentMetadata());
+        return cache.complete(response.toBuilder().payload(leased).build());
+    }
+
+    @Override
+    protected void cleanup(final HttpURLConnection connection) {
+        // the attempt failed before its response was handed over
+        final HostConnections.Lease lease = pending.get();
+        if (lease != null) {
+            pending.remove();
+            lease.release();
+        }
+        cache.cleanup();
+        super.cleanup(connection);
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.jenkins.rest.http;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.jclouds.http.HttpCommand;
+import org.jclouds.http.HttpRequest;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.io.PayloadEnclosing;
+import org.jclouds.rest.config.InvocationConfig;
+import org.jclouds.rest.internal.GeneratedHttpRequest;
+
+import com.cdancy.jenkins.rest.metrics.JenkinsMetrics;
+
+/**
+ * Collect the measurements of one call, across its attempts, for the
+ * HttpCommandExecutorService implementations and report them to the
+ * JenkinsMetrics.
+ *
+ * <p>jclouds sends every attempt of a command on the thread which invoked
+ * it, so the call in progress is tracked per thread. Calls made while
+ * filtering a request, e.g. to fetch a crumb, are nested within it.
+ */
+@Singleton
+public class RequestMetering {
+
+    private final JenkinsMetrics metrics;
+    private final InvocationConfig config;
+    private final ThreadLocal<Exchange> current = new ThreadLocal<>();
+
+    @Inject
+    RequestMetering(final JenkinsMetrics metrics, final InvocationConfig config) {
+        this.metrics = metrics;
+        this.config = config;
+    }
+
+    /**
+     * Start measuring a call on this thread.
+     *
+     * @return the call, to pass to {@link #end}.
+     */
+    public Exchange begin() {
+        final Exchange exchange = new Exchange(current.get());
+        current.set(exchange);
+        return exchange;
+    }
+
+    /**
+     * Record a response received for the call in progress on this thread.
+     *
+     * @param response the response of one attempt.
+     */
+    public void attempt(final HttpResponse response) {
+        final Exchange exchange = current.get();
+        if (exchange != null) {
+            exchange.attempts++;
+            exchange.statusCode = response.getStatusCode();
+            exchange.bytesReceived = contentLength(response);
+        }
+    }
+
+    /**
+     * Stop measuring a call and report it.
+     *
+     * @param exchange the call returned by {@link #begin}.
+     * @param command the command which was invoked.
+     */
+    public void end(final Exchange exchange, final HttpCommand command) {
+        final long durationNanos = System.nanoTime() - exchange.start;
+        if (exchange.outer != null) {
+            current.set(exchange.outer);
+        } else {
+            current.remove();
+        }
+        final HttpRequest request = command.getCurrentRequest();
+        final int sent = Math.max(exchange.attempts, 1);
+        final long bytesSent = contentLength(request) > 0 ? contentLength(request) * sent : 0;
+        final int retries = Math.max(exchange.attempts - 1, command.getFailureCount());
+        metrics.recordRequest(operation(config, request), exchange.statusCode, durationNanos, bytesSent, exchange.bytesReceived, retries);
+    }
+
+    // the `@Named` value of the api method, e.g. `jobs:job-info`, or the request line for other requests
+    static String operation(final InvocationConfig config, final HttpRequest request) {
+        if (request instanceof GeneratedHttpRequest) {
+            return config.getCommandName(((GeneratedHttpRequest) request).getInvocation());
+        }
+        return request.getMethod() + " " + request.getEndpoint().getPath();
+    }
+
+    private static long contentLength(final PayloadEnclosing message) {
+        if (message.getPayload() == null) {
+            return 0;
+        }
+        final Long length = message.getPayload().getContentMetadata().getContentLength();
+        return length != null ? length : -1;
+    }
+
+    /**
+     * A call in progress.
+     */
+    public static final class Exchange {
+
+        private final Exchange outer;
+        private final long start = System.nanoTime();
+        private int attempts;
+        private int statusCode;
+        private long bytesReceived = -1;
+
+        Exchange(final Exchange outer) {
+            this.outer = outer;
+        }
+    }
+}
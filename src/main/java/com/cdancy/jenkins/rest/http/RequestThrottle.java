@@ -0,0 +1,209 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.jenkins.rest.http;
+
+import static org.jclouds.util.Predicates2.startsWith;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.jclouds.http.HttpRequest;
+import org.jclouds.rest.config.InvocationConfig;
+
+import com.cdancy.jenkins.rest.JenkinsConstants;
+import com.cdancy.jenkins.rest.metrics.JenkinsMetrics;
+import com.google.common.base.Function;
+import com.google.common.base.Predicate;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.RateLimiter;
+
+/**
+ * Client-side throttle holding requests back, before they are sent, so that
+ * a client does not flood the controller.
+ *
+ * <p>Limits are set per operation, e.g. `jobs:build`, or per kind of
+ * operation: {@link #READS} for GET and HEAD requests and {@link #WRITES} for
+ * the others, an operation's own limit taking precedence over that of its
+ * kind. Each limit combines a token bucket, allowing up to a second worth of
+ * requests in a burst, with a cap on the requests in flight. A request is in
+ * flight until its response body has been read or closed, so streams
+ * returned by the api must be closed to let further requests through. A
+ * request waits for room in flight for up to its connect timeout, then
+ * fails.
+ *
+ * <p>The time each request waited is reported to the JenkinsMetrics.
+ * Requests then wait for room under the AdaptiveConcurrencyLimit, when
+ * enabled, which is not counted as queueing.
+ */
+@Singleton
+public class RequestThrottle {
+
+    public static final String READS = "read";
+    public static final String WRITES = "write";
+
+    private static final String RATE_SUFFIX = ".rate";
+    private static final String MAX_IN_FLIGHT_SUFFIX = ".max-in-flight";
+
+    private static final Runnable NOTHING_TO_RELEASE = () -> { };
+
+    private final InvocationConfig config;
+    private final JenkinsMetrics metrics;
+    private final AdaptiveConcurrencyLimit adaptiveLimit;
+    private final Map<String, Limit> limits;
+
+    @Inject
+    RequestThrottle(final InvocationConfig config, final JenkinsMetrics metrics, final AdaptiveConcurrencyLimit adaptiveLimit,
+            final Function<Predicate<String>, Map<String, String>> filterStringsBoundByName) {
+        this.config = config;
+        this.metrics = metrics;
+        this.adaptiveLimit = adaptiveLimit;
+        this.limits = limits(filterStringsBoundByName.apply(startsWith(JenkinsConstants.THROTTLE_PROPERTY_PREFIX)));
+    }
+
+    /**
+     * Wait until the request may be sent.
+     *
+     * @param request the request about to be sent.
+     * @param timeoutMillis how long to wait for room in flight, 0 to wait as long as needed.
+     * @return to run once the response has been read, releasing the request's place in flight.
+     * @throws IOException if no room was made in time.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public Runnable acquire(final HttpRequest request, final int timeoutMillis) throws IOException, InterruptedException {
+        final Runnable release = acquireLimit(request, timeoutMillis);
+        if (!adaptiveLimit.enabled()) {
+            return release;
+        }
+        try {
+            final Runnable releaseAdaptive = adaptiveLimit.acquire(timeoutMillis);
+            return () -> {
+                releaseAdaptive.run();
+                release.run();
+            };
+        } catch (final IOException | InterruptedException | RuntimeException e) {
+            release.run();
+            throw e;
+        }
+    }
+
+    /**
+     * Note that the request this thread acquired room for is being sent,
+     * after any wait for a connection, starting the measure of its latency.
+     */
+    public void markSent() {
+        if (adaptiveLimit.enabled()) {
+            adaptiveLimit.markSent();
+        }
+    }
+
+    /**
+     * Report the response to the request this thread last marked as sent,
+     * adjusting the adaptive limit.
+     *
+     * @param statusCode status code of the response.
+     */
+    public void onResponse(final int statusCode) {
+        if (adaptiveLimit.enabled()) {
+            adaptiveLimit.onResponse(statusCode);
+        }
+    }
+
+    private Runnable acquireLimit(final HttpRequest request, final int timeoutMillis) throws IOException, InterruptedException {
+        if (limits.isEmpty()) {
+            return NOTHING_TO_RELEASE;
+        }
+        final String operation = RequestMetering.operation(config, request);
+        Limit limit = limits.get(operation);
+        if (limit == null) {
+            limit = limits.get("GET".equals(request.getMethod()) || "HEAD".equals(request.getMethod()) ? READS : WRITES);
+        }
+        if (limit == null) {
+            return NOTHING_TO_RELEASE;
+        }
+
+        final long start = System.nanoTime();
+        if (limit.rate != null) {
+            limit.rate.acquire();
+        }
+        if (limit.inFlight != null) {
+            if (timeoutMillis > 0) {
+                if (!limit.inFlight.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                    throw new IOException("Timed out after " + timeoutMillis + "ms waiting for one of the "
+                            + limit.maxInFlight + " requests in flight allowed for " + operation);
+                }
+            } else {
+                limit.inFlight.acquire();
+            }
+        }
+        metrics.recordQueueing(operation, System.nanoTime() - start);
+        return limit.inFlight != null ? releaseOnce(limit.inFlight) : NOTHING_TO_RELEASE;
+    }
+
+    private static Runnable releaseOnce(final Semaphore inFlight) {
+        final AtomicBoolean released = new AtomicBoolean();
+        return () -> {
+            if (released.compareAndSet(false, true)) {
+                inFlight.release();
+            }
+        };
+    }
+
+    // jenkins.rest.throttle.<operation or kind>.rate and .max-in-flight
+    private static Map<String, Limit> limits(final Map<String, String> properties) {
+        final Map<String, Double> rates = Maps.newHashMap();
+        final Map<String, Integer> maxInFlight = Maps.newHashMap();
+        for (final Map.Entry<String, String> entry : properties.entrySet()) {
+            final String key = entry.getKey().substring(JenkinsConstants.THROTTLE_PROPERTY_PREFIX.length());
+            if (key.endsWith(RATE_SUFFIX)) {
+                rates.put(key.substring(0, key.length() - RATE_SUFFIX.length()), Double.valueOf(entry.getValue().trim()));
+            } else if (key.endsWith(MAX_IN_FLIGHT_SUFFIX)) {
+                maxInFlight.put(key.substring(0, key.length() - MAX_IN_FLIGHT_SUFFIX.length()), Integer.valueOf(entry.getValue().trim()));
+            }
+        }
+        final ImmutableMap.Builder<String, Limit> limits = ImmutableMap.builder();
+        for (final String name : Sets.union(rates.keySet(), maxInFlight.keySet())) {
+            final double rate = rates.getOrDefault(name, 0D);
+            final int max = maxInFlight.getOrDefault(name, 0);
+            if (rate > 0 || max > 0) {
+                limits.put(name, new Limit(rate, max));
+            }
+        }
+        return limits.build();
+    }
+
+    private static final class Limit {
+
+        private final RateLimiter rate;
+        private final Semaphore inFlight;
+        private final int maxInFlight;
+
+        Limit(final double requestsPerSecond, final int maxInFlight) {
+            this.maxInFlight = maxInFlight;
+            this.rate = requestsPerSecond > 0 ? RateLimiter.create(requestsPerSecond) : null;
+            this.inFlight = maxInFlight > 0 ? new Semaphore(maxInFlight, true) : null;
+        }
+    }
+}
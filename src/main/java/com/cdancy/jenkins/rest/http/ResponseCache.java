@@ -0,0 +1,233 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.jenkins.rest.http;
+
+import static com.google.common.net.HttpHeaders.ACCEPT;
+import static com.google.common.net.HttpHeaders.ETAG;
+import static com.google.common.net.HttpHeaders.IF_MODIFIED_SINCE;
+import static com.google.common.net.HttpHeaders.IF_NONE_MATCH;
+import static com.google.common.net.HttpHeaders.LAST_MODIFIED;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Set;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.http.HttpRequest;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.io.ContentMetadata;
+import org.jclouds.io.Payload;
+import org.jclouds.io.Payloads;
+import org.jclouds.io.payloads.BaseMutableContentMetadata;
+import org.jclouds.rest.config.InvocationConfig;
+
+import com.cdancy.jenkins.rest.JenkinsConstants;
+import com.cdancy.jenkins.rest.metrics.JenkinsMetrics;
+import com.google.common.base.Splitter;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableMultimap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Multimap;
+import com.google.common.io.ByteStreams;
+
+/**
+ * Cache of the responses to GET requests of selected operations, e.g.
+ * `jobs:job-info`, revalidated with the controller on every call.
+ *
+ * <p>A 200 response carrying an `ETag` or `Last-Modified` header is buffered
+ * and stored, keyed by url and `Accept` header. The next request for the same
+ * url is sent with `If-None-Match` and `If-Modified-Since`, and a 304 from
+ * the controller is answered with the stored response, so only unchanged
+ * documents are served from the cache and nothing is transferred for them.
+ * Responses without validators are never stored.
+ *
+ * <p>Entries are weighed by the size of their body and the least recently
+ * used ones evicted once the total goes above the maximum. Each lookup is
+ * reported to the JenkinsMetrics as a hit or a miss. The cache is disabled
+ * while its maximum size is 0.
+ */
+@Singleton
+public class ResponseCache {
+
+    private final InvocationConfig config;
+    private final JenkinsMetrics metrics;
+    private final long maxBytes;
+    private final Set<String> operations;
+    private final Cache<String, Entry> entries;
+    private final ThreadLocal<Lookup> pending = new ThreadLocal<>();
+
+    @Inject
+    ResponseCache(final InvocationConfig config, final JenkinsMetrics metrics,
+            @Named(JenkinsConstants.CACHE_MAX_BYTES_PROPERTY) final long maxBytes,
+            @Named(JenkinsConstants.CACHE_OPERATIONS_PROPERTY) final String operations) {
+        this.config = config;
+        this.metrics = metrics;
+        this.maxBytes = maxBytes;
+        this.operations = ImmutableSet.copyOf(Splitter.on(',').trimResults().omitEmptyStrings().split(operations));
+        this.entries = CacheBuilder.newBuilder()
+                .maximumWeight(Math.max(maxBytes, 0))
+                .weigher((String key, Entry entry) -> key.length() + entry.body.length)
+                .build();
+    }
+
+    public boolean enabled() {
+        return maxBytes > 0;
+    }
+
+    /**
+     * Add the validators of the stored response, if any, to a request about
+     * to be sent.
+     *
+     * @param request the request about to be sent.
+     * @return the request to send, conditional if a response was stored for it.
+     */
+    public HttpRequest prepare(final HttpRequest request) {
+        pending.remove();
+        if (!enabled() || !"GET".equals(request.getMethod())) {
+            return request;
+        }
+        final String operation = RequestMetering.operation(config, request);
+        if (!operations.contains(operation)) {
+            return request;
+        }
+        final String key = request.getEndpoint() + " " + request.getFirstHeaderOrNull(ACCEPT);
+        final Entry entry = entries.getIfPresent(key);
+        pending.set(new Lookup(operation, key, entry));
+        if (entry == null) {
+            return request;
+        }
+        final HttpRequest.Builder<?> conditional = request.toBuilder();
+        if (entry.etag != null && request.getFirstHeaderOrNull(IF_NONE_MATCH) == null) {
+            conditional.addHeader(IF_NONE_MATCH, entry.etag);
+        }
+        if (entry.lastModified != null && request.getFirstHeaderOrNull(IF_MODIFIED_SINCE) == null) {
+            conditional.addHeader(IF_MODIFIED_SINCE, entry.lastModified);
+        }
+        return conditional.build();
+    }
+
+    /**
+     * Handle the response to the request this thread last prepared,
+     * answering a 304 with the stored response and storing a 200 carrying
+     * validators.
+     *
+     * @param response the response received.
+     * @return the response to hand over.
+     * @throws IOException if the body of a response to store could not be read.
+     */
+    public HttpResponse complete(final HttpResponse response) throws IOException {
+        final Lookup lookup = pending.get();
+        if (lookup == null) {
+            return response;
+        }
+        pending.remove();
+
+        final Payload payload = response.getPayload();
+        if (response.getStatusCode() == 304 && lookup.entry != null) {
+            if (payload != null) {
+                // drain rather than close so that the connection is kept
+                try (InputStream body = payload.openStream()) {
+                    body.transferTo(OutputStream.nullOutputStream());
+                }
+            }
+            metrics.recordCacheLookup(lookup.operation, true);
+            return lookup.entry.toResponse();
+        }
+        metrics.recordCacheLookup(lookup.operation, false);
+
+        final String etag = response.getFirstHeaderOrNull(ETAG);
+        final String lastModified = response.getFirstHeaderOrNull(LAST_MODIFIED);
+        final Long length = payload != null ? payload.getContentMetadata().getContentLength() : null;
+        if (response.getStatusCode() != 200 || payload == null || (etag == null && lastModified == null)
+                || (length != null && length > maxBytes)) {
+            entries.invalidate(lookup.key);
+            return response;
+        }
+        final byte[] body;
+        try (InputStream in = payload.openStream()) {
+            body = ByteStreams.toByteArray(in);
+        }
+        final Entry entry = new Entry(response.getMessage(), response.getHeaders(), payload.getContentMetadata(), body, etag, lastModified);
+        entries.put(lookup.key, entry);
+        return entry.toResponse();
+    }
+
+    /**
+     * Forget the request this thread last prepared, once its attempt failed.
+     */
+    public void cleanup() {
+        pending.remove();
+    }
+
+    /**
+     * Drop every stored response.
+     */
+    public void clear() {
+        entries.invalidateAll();
+    }
+
+    // the cacheable request in flight on this thread
+    private static final class Lookup {
+
+        final String operation;
+        final String key;
+        final Entry entry;
+
+        Lookup(final String operation, final String key, final Entry entry) {
+            this.operation = operation;
+            this.key = key;
+            this.entry = entry;
+        }
+    }
+
+    private static final class Entry {
+
+        final String message;
+        final Multimap<String, String> headers;
+        final ContentMetadata contentMetadata;
+        final byte[] body;
+        final String etag;
+        final String lastModified;
+
+        Entry(final String message, final Multimap<String, String> headers, final ContentMetadata contentMetadata,
+                final byte[] body, final String etag, final String lastModified) {
+            this.message = message;
+            this.headers = ImmutableMultimap.copyOf(headers);
+            this.contentMetadata = BaseMutableContentMetadata.fromContentMetadata(contentMetadata);
+            this.body = body;
+            this.etag = etag;
+            this.lastModified = lastModified;
+        }
+
+        HttpResponse toResponse() {
+            final Payload payload = Payloads.newByteArrayPayload(body);
+            payload.setContentMetadata(BaseMutableContentMetadata.fromContentMetadata(contentMetadata));
+            return HttpResponse.builder()
+                    .statusCode(200)
+                    .message(message)
+                    .headers(headers)
+                    .payload(payload)
+                    .build();
+        }
+    }
+}
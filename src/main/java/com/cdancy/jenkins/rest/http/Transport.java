@@ -0,0 +1,40 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.jenkins.rest.http;
+
+/**
+ * The HTTP clients JenkinsClient can send its requests through, selected
+ * with `JenkinsClient.Builder.transport` or the `jenkins.rest.transport`
+ * property.
+ */
+public enum Transport {
+
+    /**
+     * The jclouds default, HttpURLConnection. HTTP/1.1 only, with connections
+     * kept alive and pooled by the JDK's global keep-alive cache.
+     */
+    URL_CONNECTION,
+
+    /**
+     * java.net.http.HttpClient. Negotiates HTTP/2 when the controller, or the
+     * proxy in front of it, supports it so that concurrent calls are
+     * multiplexed over a single connection, and falls back to a pool of
+     * HTTP/1.1 connections otherwise.
+     */
+    HTTP_CLIENT
+}
@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.jenkins.rest.http;
+
+import static org.jclouds.util.Predicates2.startsWith;
+
+import java.util.Map;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.http.HttpRequest;
+import org.jclouds.http.HttpUtils;
+import org.jclouds.rest.config.InvocationConfig;
+
+import com.cdancy.jenkins.rest.JenkinsConstants;
+import com.google.common.base.Function;
+import com.google.common.base.Predicate;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+
+/**
+ * The connection settings shared by the transports: keep-alive, idle
+ * timeout and the connect and read timeouts of each operation.
+ *
+ * <p>Operations are named after the `@Named` value of the api method, e.g.
+ * `jobs:artifact`, and fall back to `jclouds.connection-timeout` and
+ * `jclouds.so-timeout` when no timeout of their own is set.
+ */
+@Singleton
+public class TransportOptions {
+
+    private static final String CONNECT_SUFFIX = ".connect";
+    private static final String READ_SUFFIX = ".read";
+
+    private final HttpUtils utils;
+    private final InvocationConfig config;
+    private final boolean keepAlive;
+    private final long idleTimeoutMillis;
+    private final Map<String, Integer> connectTimeouts;
+    private final Map<String, Integer> readTimeouts;
+
+    @Inject
+    TransportOptions(final HttpUtils utils, final InvocationConfig config,
+            final Function<Predicate<String>, Map<String, String>> filterStringsBoundByName,
+            @Named(JenkinsConstants.KEEP_ALIVE_PROPERTY) final boolean keepAlive,
+            @Named(JenkinsConstants.IDLE_TIMEOUT_PROPERTY) final long idleTimeoutMillis) {
+        this.utils = utils;
+        this.config = config;
+        this.keepAlive = keepAlive;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        final Map<String, String> timeouts = filterStringsBoundByName.apply(startsWith(JenkinsConstants.TIMEOUTS_PROPERTY_PREFIX));
+        this.connectTimeouts = timeouts(timeouts, CONNECT_SUFFIX);
+        this.readTimeouts = timeouts(timeouts, READ_SUFFIX);
+    }
+
+    public boolean keepAlive() {
+        return keepAlive;
+    }
+
+    public long idleTimeoutMillis() {
+        return idleTimeoutMillis;
+    }
+
+    /**
+     * The connect timeout of the operation a request was generated for.
+     *
+     * @param request the request about to be sent.
+     * @return timeout in milliseconds, 0 for none.
+     */
+    public int connectTimeout(final HttpRequest request) {
+        return timeout(connectTimeouts, request, utils.getConnectionTimeout());
+    }
+
+    /**
+     * The read timeout of the operation a request was generated for.
+     *
+     * @param request the request about to be sent.
+     * @return timeout in milliseconds, 0 for none.
+     */
+    public int readTimeout(final HttpRequest request) {
+        return timeout(readTimeouts, request, utils.getSocketOpenTimeout());
+    }
+
+    private int timeout(final Map<String, Integer> timeouts, final HttpRequest request, final int defaultTimeout) {
+        if (timeouts.isEmpty()) {
+            return defaultTimeout;
+        }
+        final Integer timeout = timeouts.get(RequestMetering.operation(config, request));
+        return timeout != null ? timeout : defaultTimeout;
+    }
+
+    // jenkins.rest.timeouts.<operation><suffix> -> operation
+    private static Map<String, Integer> timeouts(final Map<String, String> properties, final String suffix) {
+        final Map<String, Integer> timeouts = Maps.newHashMap();
+        for (final Map.Entry<String, String> entry : properties.entrySet()) {
+            if (entry.getKey().endsWith(suffix)) {
+                final String operation = entry.getKey().substring(JenkinsConstants.TIMEOUTS_PROPERTY_PREFIX.length(),
+                        entry.getKey().length() - suffix.length());
+                timeouts.put(operation, Integer.valueOf(entry.getValue().trim()));
+            }
+        }
+        return ImmutableMap.copyOf(timeouts);
+    }
+}
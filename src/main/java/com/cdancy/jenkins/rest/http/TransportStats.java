@@ -0,0 +1,66 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.jenkins.rest.http;
+
+import java.util.Map;
+
+import com.google.auto.value.AutoValue;
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Snapshot of the connections JenkinsClient holds to each host, as returned
+ * by `JenkinsClient.transportStats`.
+ *
+ * <p>A connection is in use from the moment a request is sent until its
+ * response body has been read or closed. Over HTTP/2 requests share a
+ * connection so the counts are of concurrent requests.
+ */
+@AutoValue
+public abstract class TransportStats {
+
+    /**
+     * Usage of the connections to one host.
+     */
+    @AutoValue
+    public abstract static class HostStats {
+
+        public abstract int inUse();
+
+        public abstract int peakInUse();
+
+        public abstract int waiting();
+
+        public abstract long leases();
+
+        public static HostStats create(final int inUse, final int peakInUse, final int waiting, final long leases) {
+            return new AutoValue_TransportStats_HostStats(inUse, peakInUse, waiting, leases);
+        }
+    }
+
+    public abstract String transport();
+
+    // 0 when unbounded
+    public abstract int maxConnectionsPerHost();
+
+    // keyed by scheme://host:port
+    public abstract Map<String, HostStats> hosts();
+
+    public static TransportStats create(final String transport, final int maxConnectionsPerHost, final Map<String, HostStats> hosts) {
+        return new AutoValue_TransportStats(transport, maxConnectionsPerHost, ImmutableMap.copyOf(hosts));
+    }
+}
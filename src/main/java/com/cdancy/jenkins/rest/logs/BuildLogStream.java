@@ -0,0 +1,306 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.jenkins.rest.logs;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.io.BufferedReader;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.jclouds.http.HttpResponse;
+import org.jclouds.javax.annotation.Nullable;
+import org.jclouds.util.Closeables2;
+
+import com.cdancy.jenkins.rest.features.JobsApi;
+
+/**
+ * InputStream over the console log of a build which follows the
+ * `X-Text-Size` and `X-More-Data` headers of the progressiveText endpoint.
+ *
+ * <p>Bytes are read straight from the open HTTP response, chunk after chunk,
+ * so memory use stays constant no matter how large the log is. While the build
+ * is still running, and `follow` is enabled, reaching the end of the currently
+ * available text will poll for more every `pollInterval` until Jenkins reports
+ * there is no more data. Jenkins reporting more data without the offset to
+ * ask for it from, in `X-Text-Size`, fails the read rather than polling the
+ * same offset forever.
+ */
+public final class BuildLogStream extends InputStream {
+
+    public static final String TEXT_SIZE_HEADER = "X-Text-Size";
+    public static final String MORE_DATA_HEADER = "X-More-Data";
+
+    private static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    private final JobsApi jobsApi;
+    private final String optionalFolderPath;
+    private final String jobName;
+    private final int buildNumber;
+    private final boolean follow;
+    private final long pollIntervalMillis;
+
+    private long offset;
+    private long nextOffset;
+    private boolean moreData = true;
+    private boolean idle;
+    private boolean closed;
+    private InputStream current;
+
+    private BuildLogStream(final Builder builder) {
+        this.jobsApi = builder.jobsApi;
+        this.optionalFolderPath = builder.optionalFolderPath;
+        this.jobName = builder.jobName;
+        this.buildNumber = builder.buildNumber;
+        this.follow = builder.follow;
+        this.pollIntervalMillis = builder.pollIntervalMillis;
+        this.offset = builder.start;
+        this.nextOffset = builder.start;
+    }
+
+    /**
+     * The offset, in bytes, of the next byte to be read from the log.
+     *
+     * @return the current offset.
+     */
+    public long offset() {
+        return offset;
+    }
+
+    @Override
+    public int read() throws IOException {
+        while (nextChunk()) {
+            final int value = current.read();
+            if (value != -1) {
+                offset++;
+                return value;
+            }
+            closeCurrent();
+        }
+        return -1;
+    }
+
+    @Override
+    public int read(final byte[] buffer, final int off, final int len) throws IOException {
+        Objects.checkFromIndexSize(off, len, buffer.length);
+        if (len == 0) {
+            return 0;
+        }
+        while (nextChunk()) {
+            final int read = current.read(buffer, off, len);
+            if (read != -1) {
+                offset += read;
+                return read;
+            }
+            closeCurrent();
+        }
+        return -1;
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        closeCurrent();
+    }
+
+    /**
+     * Wrap this stream in a UTF-8 Reader.
+     *
+     * @return Reader over the console log.
+     */
+    public Reader reader() {
+        return new InputStreamReader(this, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Pass each line of the console log to the given consumer and close this
+     * stream once the end of the log has been reached.
+     *
+     * @param lineConsumer consumer to receive each line, without line terminator.
+     * @throws IOException if the log could not be read.
+     */
+    public void forEachLine(final Consumer<String> lineConsumer) throws IOException {
+        try (BufferedReader lines = new BufferedReader(reader(), DEFAULT_BUFFER_SIZE)) {
+            String line;
+            while ((line = lines.readLine()) != null) {
+                lineConsumer.accept(line);
+            }
+        }
+    }
+
+    // make sure `current` points at an open chunk, returning false once the whole log has been read
+    private boolean nextChunk() throws IOException {
+        while (current == null) {
+            if (closed || !moreData) {
+                return false;
+            }
+            if (idle && pollIntervalMillis > 0) {
+                // the last chunk was empty so give the build some time before asking again
+                try {
+                    TimeUnit.MILLISECONDS.sleep(pollIntervalMillis);
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while waiting for more console output");
+                }
+            }
+
+            final HttpResponse response = jobsApi.progressiveTextResponse(optionalFolderPath, jobName, buildNumber, offset);
+            if (response == null) {
+                throw new FileNotFoundException("No console log found for " + jobName + " #" + buildNumber);
+            }
+
+            final String textSize = response.getFirstHeaderOrNull(TEXT_SIZE_HEADER);
+            moreData = follow && Boolean.parseBoolean(response.getFirstHeaderOrNull(MORE_DATA_HEADER));
+            if (textSize == null && moreData) {
+                Closeables2.closeQuietly(response.getPayload());
+                moreData = false;
+                throw new IOException("No " + TEXT_SIZE_HEADER + " header in the console log of " + jobName + " #"
+                        + buildNumber + " at offset " + offset + " though more data was announced");
+            }
+            nextOffset = textSize != null ? Long.parseLong(textSize) : offset;
+            idle = nextOffset <= offset;
+            if (response.getPayload() != null) {
+                current = response.getPayload().openStream();
+            } else {
+                offset = Math.max(offset, nextOffset);
+            }
+        }
+        return true;
+    }
+
+    private void closeCurrent() throws IOException {
+        if (current != null) {
+            try {
+                current.close();
+            } finally {
+                current = null;
+                offset = Math.max(offset, nextOffset);
+            }
+        }
+    }
+
+    public static Builder builder(final JobsApi jobsApi) {
+        return new Builder(jobsApi);
+    }
+
+    public static class Builder {
+
+        private final JobsApi jobsApi;
+        private String optionalFolderPath;
+        private String jobName;
+        private int buildNumber;
+        private long start;
+        private boolean follow = true;
+        private long pollIntervalMillis = 1000;
+
+        Builder(final JobsApi jobsApi) {
+            this.jobsApi = Objects.requireNonNull(jobsApi, "jobsApi cannot be null");
+        }
+
+        /**
+         * Optional folder path the job lives in.
+         *
+         * @param optionalFolderPath folder path or null for the root folder.
+         * @return this Builder.
+         */
+        public Builder optionalFolderPath(@Nullable final String optionalFolderPath) {
+            this.optionalFolderPath = optionalFolderPath;
+            return this;
+        }
+
+        /**
+         * The job whose build log should be read.
+         *
+         * @param jobName name of the job.
+         * @return this Builder.
+         */
+        public Builder jobName(final String jobName) {
+            this.jobName = jobName;
+            return this;
+        }
+
+        /**
+         * The build whose log should be read.
+         *
+         * @param buildNumber number of the build.
+         * @return this Builder.
+         */
+        public Builder buildNumber(final int buildNumber) {
+            this.buildNumber = buildNumber;
+            return this;
+        }
+
+        /**
+         * Offset, in bytes, to start reading from. Defaults to 0.
+         *
+         * @param start offset to start reading from.
+         * @return this Builder.
+         */
+        public Builder start(final long start) {
+            checkArgument(start >= 0, "start must be >= 0");
+            this.start = start;
+            return this;
+        }
+
+        /**
+         * Whether to keep reading, until the build finishes, when Jenkins
+         * reports more data is coming. Defaults to true. When false only the
+         * text available at the time of each request is returned.
+         *
+         * @param follow true to tail the log of running builds.
+         * @return this Builder.
+         */
+        public Builder follow(final boolean follow) {
+            this.follow = follow;
+            return this;
+        }
+
+        /**
+         * How long to wait before asking for more text when a running build
+         * has produced no new output. Defaults to 1 second.
+         *
+         * @param pollInterval time to wait between polls.
+         * @param unit unit of pollInterval.
+         * @return this Builder.
+         */
+        public Builder pollInterval(final long pollInterval, final TimeUnit unit) {
+            checkArgument(pollInterval >= 0, "pollInterval must be >= 0");
+            this.pollIntervalMillis = unit.toMillis(pollInterval);
+            return this;
+        }
+
+        /**
+         * Build an instance of BuildLogStream. No request is made until the
+         * stream is first read.
+         *
+         * @return BuildLogStream
+         */
+        public BuildLogStream build() {
+            Objects.requireNonNull(jobName, "jobName cannot be null");
+            return new BuildLogStream(this);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.jenkins.rest.metrics;
+
+import com.google.inject.ImplementedBy;
+
+/**
+ * Receives measurements of the calls made through a JenkinsApi, keyed by
+ * operation: the `@Named` value of the api method, e.g. `jobs:build`.
+ *
+ * <p>Implementations are called on the thread making the call, so they must
+ * be thread safe and return quickly. They typically forward to the metrics
+ * library of the application. Nothing is recorded by default, see
+ * `JenkinsClient.Builder.metrics` to set one.
+ */
+@ImplementedBy(NoopJenkinsMetrics.class)
+public interface JenkinsMetrics {
+
+    /**
+     * Record a call which went to Jenkins, whether it succeeded or not.
+     *
+     * @param operation name of the operation.
+     * @param statusCode status code of the last response, or 0 if none was received.
+     * @param durationNanos time spent sending the request and receiving the response, across all attempts.
+     * @param bytesSent size of the request payloads sent, across all attempts.
+     * @param bytesReceived Content-Length of the last response, or -1 if unknown.
+     * @param retries number of attempts made after the first one.
+     */
+    void recordRequest(String operation, int statusCode, long durationNanos, long bytesSent, long bytesReceived, int retries);
+
+    /**
+     * Record that the fallback of an operation turned a failure into a
+     * value, e.g. null for a 404 or a RequestStatus holding the error.
+     *
+     * @param operation name of the operation.
+     * @param cause the failure the fallback handled.
+     */
+    void recordFallback(String operation, Throwable cause);
+
+    /**
+     * Record the time a call was held back by the client-side throttle
+     * before being sent. Only calls subject to a limit are recorded.
+     *
+     * @param operation name of the operation.
+     * @param waitNanos time spent waiting, 0 if the call went straight through.
+     */
+    default void recordQueueing(final String operation, final long waitNanos) {
+    }
+
+    /**
+     * Record a change of the adaptive limit of requests in flight, see
+     * `JenkinsClient.Builder.adaptiveConcurrency`.
+     *
+     * @param limit the number of requests now allowed in flight.
+     */
+    default void recordConcurrencyLimit(final int limit) {
+    }
+
+    /**
+     * Record a lookup of the response cache, see
+     * `JenkinsClient.Builder.responseCache`.
+     *
+     * @param operation name of the operation.
+     * @param hit true if the controller answered 304 and the stored response was used.
+     */
+    default void recordCacheLookup(final String operation, final boolean hit) {
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.jenkins.rest.metrics;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.jclouds.Fallback;
+import org.jclouds.http.HttpRequest;
+import org.jclouds.reflect.Invocation;
+import org.jclouds.rest.InvocationContext;
+import org.jclouds.rest.config.InvocationConfig;
+import org.jclouds.rest.config.ReadAnnotationsAndProperties;
+
+import com.google.common.base.Optional;
+
+/**
+ * Read the configuration of each invocation as jclouds does, wrapping its
+ * fallback so that the failures it handles are recorded.
+ */
+@Singleton
+public class MeteredInvocationConfig implements InvocationConfig {
+
+    private final InvocationConfig delegate;
+    private final JenkinsMetrics metrics;
+
+    @Inject
+    MeteredInvocationConfig(final ReadAnnotationsAndProperties delegate, final JenkinsMetrics metrics) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Optional<Long> getTimeoutNanos(final Invocation in) {
+        return delegate.getTimeoutNanos(in);
+    }
+
+    @Override
+    public String getCommandName(final Invocation invocation) {
+        return delegate.getCommandName(invocation);
+    }
+
+    @Override
+    public Fallback<?> getFallback(final Invocation invocation) {
+        if (metrics instanceof NoopJenkinsMetrics) {
+            return delegate.getFallback(invocation);
+        }
+        return new MeteredFallback(delegate.getCommandName(invocation), delegate.getFallback(invocation));
+    }
+
+    private final class MeteredFallback implements Fallback<Object>, InvocationContext<MeteredFallback> {
+
+        private final String operation;
+        private final Fallback<?> fallback;
+
+        MeteredFallback(final String operation, final Fallback<?> fallback) {
+            this.operation = operation;
+            this.fallback = fallback;
+        }
+
+        @Override
+        public Object createOrPropagate(final Throwable t) throws Exception {
+            // only reached when the fallback did not propagate the failure
+            final Object value = fallback.createOrPropagate(t);
+            metrics.recordFallback(operation, t);
+            return value;
+        }
+
+        @Override
+        public MeteredFallback setContext(final HttpRequest request) {
+            if (fallback instanceof InvocationContext) {
+                ((InvocationContext<?>) fallback).setContext(request);
+            }
+            return this;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.jenkins.rest.metrics;
+
+import javax.inject.Singleton;
+
+/**
+ * JenkinsMetrics which records nothing.
+ */
+@Singleton
+public final class NoopJenkinsMetrics implements JenkinsMetrics {
+
+    public static final NoopJenkinsMetrics INSTANCE = new NoopJenkinsMetrics();
+
+    @Override
+    public void recordRequest(final String operation, final int statusCode, final long durationNanos,
+            final long bytesSent, final long bytesReceived, final int retries) {
+        // nothing to do
+    }
+
+    @Override
+    public void recordFallback(final String operation, final Throwable cause) {
+        // nothing to do
+    }
+}
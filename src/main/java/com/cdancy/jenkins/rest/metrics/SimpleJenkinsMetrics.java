@@ -0,0 +1,229 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.jenkins.rest.metrics;
+
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * JenkinsMetrics keeping counters and a latency histogram per operation in
+ * memory, for applications without a metrics library or for tests.
+ *
+ * <p>Latencies are counted in fixed buckets, from 1ms to 60s, so percentiles
+ * are reported as the upper bound of the bucket they fall in.
+ */
+public final class SimpleJenkinsMetrics implements JenkinsMetrics {
+
+    // upper bounds, in milliseconds, of the latency buckets, the last bucket holding anything slower
+    private static final long[] BUCKETS = { 1, 2, 5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000, 30000, 60000 };
+
+    private final Map<String, Operation> operations = new ConcurrentHashMap<>();
+    private volatile int concurrencyLimit;
+
+    @Override
+    public void recordRequest(final String operation, final int statusCode, final long durationNanos,
+            final long bytesSent, final long bytesReceived, final int retries) {
+        operation(operation).record(statusCode, durationNanos, bytesSent, bytesReceived, retries);
+    }
+
+    @Override
+    public void recordFallback(final String operation, final Throwable cause) {
+        operation(operation).fallbacks.increment();
+    }
+
+    @Override
+    public void recordQueueing(final String operation, final long waitNanos) {
+        final Operation measured = operation(operation);
+        measured.throttled.increment();
+        measured.queuedNanos.add(waitNanos);
+    }
+
+    @Override
+    public void recordCacheLookup(final String operation, final boolean hit) {
+        final Operation measured = operation(operation);
+        (hit ? measured.cacheHits : measured.cacheMisses).increment();
+    }
+
+    @Override
+    public void recordConcurrencyLimit(final int limit) {
+        this.concurrencyLimit = limit;
+    }
+
+    /**
+     * The last adaptive limit of requests in flight reported.
+     *
+     * @return the limit, 0 if it never changed.
+     */
+    public int concurrencyLimit() {
+        return concurrencyLimit;
+    }
+
+    /**
+     * The measurements of every operation called so far.
+     *
+     * @return immutable map of operation name to its measurements.
+     */
+    public Map<String, Operation> operations() {
+        return ImmutableMap.copyOf(operations);
+    }
+
+    /**
+     * The measurements of one operation.
+     *
+     * @param operation name of the operation.
+     * @return the measurements of the operation, empty if it was never called.
+     */
+    public Operation operation(final String operation) {
+        return operations.computeIfAbsent(operation, name -> new Operation());
+    }
+
+    /**
+     * Counters and latency histogram of one operation.
+     */
+    public static final class Operation {
+
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAdder bytesSent = new LongAdder();
+        private final LongAdder bytesReceived = new LongAdder();
+        private final LongAdder retries = new LongAdder();
+        private final LongAdder fallbacks = new LongAdder();
+        private final LongAdder throttled = new LongAdder();
+        private final LongAdder queuedNanos = new LongAdder();
+        private final LongAdder cacheHits = new LongAdder();
+        private final LongAdder cacheMisses = new LongAdder();
+        private final Map<Integer, LongAdder> statusCodes = new ConcurrentHashMap<>();
+        private final AtomicLongArray histogram = new AtomicLongArray(BUCKETS.length + 1);
+
+        Operation() {
+        }
+
+        void record(final int statusCode, final long durationNanos, final long sent, final long received, final int retryCount) {
+            count.increment();
+            totalNanos.add(durationNanos);
+            if (sent > 0) {
+                bytesSent.add(sent);
+            }
+            if (received > 0) {
+                bytesReceived.add(received);
+            }
+            retries.add(retryCount);
+            statusCodes.computeIfAbsent(statusCode, code -> new LongAdder()).increment();
+            histogram.incrementAndGet(bucket(TimeUnit.NANOSECONDS.toMillis(durationNanos)));
+        }
+
+        private static int bucket(final long millis) {
+            for (int i = 0; i < BUCKETS.length; i++) {
+                if (millis < BUCKETS[i]) {
+                    return i;
+                }
+            }
+            return BUCKETS.length;
+        }
+
+        public long count() {
+            return count.sum();
+        }
+
+        public long totalNanos() {
+            return totalNanos.sum();
+        }
+
+        public long bytesSent() {
+            return bytesSent.sum();
+        }
+
+        public long bytesReceived() {
+            return bytesReceived.sum();
+        }
+
+        public long retries() {
+            return retries.sum();
+        }
+
+        public long fallbacks() {
+            return fallbacks.sum();
+        }
+
+        // calls subject to a limit of the client-side throttle
+        public long throttled() {
+            return throttled.sum();
+        }
+
+        // time the throttled calls spent waiting before being sent
+        public long queuedNanos() {
+            return queuedNanos.sum();
+        }
+
+        // calls answered from the response cache after a 304
+        public long cacheHits() {
+            return cacheHits.sum();
+        }
+
+        // cacheable calls whose response had to be transferred
+        public long cacheMisses() {
+            return cacheMisses.sum();
+        }
+
+        /**
+         * Number of calls per status code of their last response, 0 being
+         * calls which received no response.
+         *
+         * @return sorted map of status code to number of calls.
+         */
+        public SortedMap<Integer, Long> statusCodes() {
+            final SortedMap<Integer, Long> counts = new TreeMap<>();
+            statusCodes.forEach((code, adder) -> counts.put(code, adder.sum()));
+            return counts;
+        }
+
+        /**
+         * Latency below which the given fraction of calls completed.
+         *
+         * @param percentile fraction of calls, between 0 and 1, e.g. 0.99.
+         * @return upper bound, in milliseconds, of the bucket the percentile
+         *     falls in, Long.MAX_VALUE if slower than the last bucket, or 0
+         *     if the operation was never called.
+         */
+        public long percentileMillis(final double percentile) {
+            long total = 0;
+            for (int i = 0; i < histogram.length(); i++) {
+                total += histogram.get(i);
+            }
+            if (total == 0) {
+                return 0;
+            }
+            final long rank = (long) Math.ceil(total * percentile);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS.length; i++) {
+                seen += histogram.get(i);
+                if (seen >= rank) {
+                    return BUCKETS[i];
+                }
+            }
+            return Long.MAX_VALUE;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.jenkins.rest.parsers;
+
+import javax.inject.Singleton;
+
+import com.google.common.base.Function;
+
+/**
+ * Add the fields a JobInfo cannot be created without, `name` and `url`, to a
+ * `tree` expression which does not select them, so that e.g.
+ * `lastBuild[number,result]` is sent as `name,url,lastBuild[number,result]`.
+ */
+@Singleton
+public class JobInfoTreeParser implements Function<Object, String> {
+
+    @Override
+    public String apply(final Object tree) {
+        if (tree == null) {
+            return null;
+        }
+        final String expression = tree.toString().trim();
+        return expression.isEmpty() ? null : TreeExpressions.require(expression, "name", "url");
+    }
+}
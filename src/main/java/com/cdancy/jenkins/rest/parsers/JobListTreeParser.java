@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.jenkins.rest.parsers;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.inject.Singleton;
+
+import com.google.common.base.Function;
+
+/**
+ * Complete a `tree` expression for a JobList so that every Job it selects,
+ * those of nested folders included, has the `name` and `url` it cannot be
+ * created without: e.g. `jobs[lastBuild[number,result]]` is sent as
+ * `jobs[name,url,lastBuild[number,result]]`. An expression not selecting
+ * `jobs` at all gets `jobs[name,url]` added.
+ */
+@Singleton
+public class JobListTreeParser implements Function<Object, String> {
+
+    @Override
+    public String apply(final Object tree) {
+        if (tree == null) {
+            return null;
+        }
+        final String expression = tree.toString().trim();
+        if (expression.isEmpty()) {
+            return null;
+        }
+        final String withJobs = withRequiredJobFields(expression);
+        for (final String selection : TreeExpressions.selections(withJobs)) {
+            if ("jobs".equals(TreeExpressions.name(selection))) {
+                return withJobs;
+            }
+        }
+        return withJobs + ",jobs[name,url]";
+    }
+
+    // complete the nested expression of every `jobs` selection, recursively
+    private static String withRequiredJobFields(final String expression) {
+        final List<String> selections = new ArrayList<>();
+        for (final String selection : TreeExpressions.selections(expression)) {
+            final String nested = TreeExpressions.nested(selection);
+            if ("jobs".equals(TreeExpressions.name(selection)) && nested != null) {
+                selections.add(TreeExpressions.withNested(selection,
+                        TreeExpressions.require(withRequiredJobFields(nested), "name", "url")));
+            } else {
+                selections.add(selection);
+            }
+        }
+        return String.join(",", selections);
+    }
+}
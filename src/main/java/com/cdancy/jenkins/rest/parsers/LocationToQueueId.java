@@ -23,6 +23,7 @@ import java.util.regex.Pattern;
 import javax.inject.Singleton;
 
 import org.jclouds.http.HttpResponse;
+import org.jclouds.util.Closeables2;
 
 import com.google.common.base.Function;
 import com.google.common.collect.Lists;
@@ -42,6 +43,8 @@ public class LocationToQueueId implements Function<HttpResponse, LongResponse> {
        if (response == null) {
            throw new RuntimeException("Unexpected NULL HttpResponse object");
        }
+      // only the headers are read, close the body so that the connection is released
+      Closeables2.closeQuietly(response.getPayload());
 
       String url = response.getFirstHeaderOrNull("Location");
       if (url != null) {
@@ -21,6 +21,7 @@ import com.cdancy.jenkins.rest.domain.common.RequestStatus;
 import com.google.common.base.Function;
 import javax.inject.Singleton;
 import org.jclouds.http.HttpResponse;
+import org.jclouds.util.Closeables2;
 
 /**
  * Turn a valid response, but one that has no body, into a RequestStatus.
@@ -33,6 +34,8 @@ public class RequestStatusParser implements Function<HttpResponse, RequestStatus
         if (input == null) {
             throw new RuntimeException("Unexpected NULL HttpResponse object");
         }
+        // only the status is read, close the body so that the connection is released
+        Closeables2.closeQuietly(input.getPayload());
 
         final int statusCode = input.getStatusCode();
         if (statusCode >= 200 && statusCode < 400) {
@@ -20,6 +20,7 @@ package com.cdancy.jenkins.rest.parsers;
 import javax.inject.Singleton;
 
 import org.jclouds.http.HttpResponse;
+import org.jclouds.util.Closeables2;
 
 import com.cdancy.jenkins.rest.domain.system.SystemInfo;
 
@@ -36,6 +37,8 @@ public class SystemInfoFromJenkinsHeaders implements Function<HttpResponse, Syst
         if (response == null) {
             throw new RuntimeException("Unexpected NULL HttpResponse object");
         }
+        // only the headers are read, close the body so that the connection is released
+        Closeables2.closeQuietly(response.getPayload());
 
         final int statusCode = response.getStatusCode();
         if (statusCode >= 200 && statusCode < 400) {
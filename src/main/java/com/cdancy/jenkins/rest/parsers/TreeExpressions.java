@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.jenkins.rest.parsers;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read and complete the `tree` expressions of the Jenkins remote access API,
+ * e.g. `name,jobs[name,lastBuild[number]]{0,10}`.
+ */
+final class TreeExpressions {
+
+    /**
+     * Split an expression into its top level selections, e.g. `name` and
+     * `jobs[name]{0,10}`.
+     */
+    static List<String> selections(final String expression) {
+        final List<String> selections = new ArrayList<>();
+        int depth = 0;
+        int from = 0;
+        for (int i = 0; i < expression.length(); i++) {
+            final char c = expression.charAt(i);
+            if (c == '[' || c == '{') {
+                depth++;
+            } else if (c == ']' || c == '}') {
+                depth--;
+            } else if (c == ',' && depth == 0) {
+                add(selections, expression.substring(from, i));
+                from = i + 1;
+            }
+        }
+        add(selections, expression.substring(from));
+        return selections;
+    }
+
+    /**
+     * The name of the field a selection is for, e.g. `jobs` for `jobs[name]{0,10}`.
+     */
+    static String name(final String selection) {
+        final int end = nestedStart(selection);
+        return selection.substring(0, end != -1 ? end : selection.length()).trim();
+    }
+
+    /**
+     * The expression nested in a selection, e.g. `name` for `jobs[name]{0,10}`,
+     * null if none.
+     */
+    static String nested(final String selection) {
+        final int start = nestedStart(selection);
+        if (start == -1 || selection.charAt(start) != '[') {
+            return null;
+        }
+        return selection.substring(start + 1, nestedEnd(selection, start));
+    }
+
+    /**
+     * Replace the expression nested in a selection, keeping its range.
+     */
+    static String withNested(final String selection, final String nested) {
+        final int start = nestedStart(selection);
+        return name(selection) + "[" + nested + "]" + selection.substring(nestedEnd(selection, start) + 1);
+    }
+
+    /**
+     * Prepend the fields an expression does not already select at its top level.
+     */
+    static String require(final String expression, final String... fields) {
+        final List<String> selected = new ArrayList<>();
+        for (final String selection : selections(expression)) {
+            selected.add(name(selection));
+        }
+        final StringBuilder withRequired = new StringBuilder();
+        for (final String field : fields) {
+            if (!selected.contains(field)) {
+                withRequired.append(field).append(',');
+            }
+        }
+        return withRequired.append(expression).toString();
+    }
+
+    private static void add(final List<String> selections, final String selection) {
+        if (!selection.trim().isEmpty()) {
+            selections.add(selection.trim());
+        }
+    }
+
+    private static int nestedStart(final String selection) {
+        for (int i = 0; i < selection.length(); i++) {
+            if (selection.charAt(i) == '[' || selection.charAt(i) == '{') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // index of the bracket closing the one at `start`
+    private static int nestedEnd(final String selection, final int start) {
+        int depth = 0;
+        for (int i = start; i < selection.length(); i++) {
+            final char c = selection.charAt(i);
+            if (c == '[' || c == '{') {
+                depth++;
+            } else if ((c == ']' || c == '}') && --depth == 0) {
+                return i;
+            }
+        }
+        return selection.length() - 1;
+    }
+
+    private TreeExpressions() {
+        throw new UnsupportedOperationException("Purposefully not implemented");
+    }
+}
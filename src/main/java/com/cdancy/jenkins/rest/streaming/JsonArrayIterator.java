@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.jenkins.rest.streaming;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import org.jclouds.javax.annotation.Nullable;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+/**
+ * Iterator over the elements of a JSON array, decoding each element only
+ * when it is asked for so that just one element is held in memory at a
+ * time, whatever the size of the array.
+ *
+ * <p>The array is either the whole document or the value of a field of the
+ * top-level object, other fields being skipped without being decoded. The
+ * stream is closed once the last element has been read, or by
+ * {@link #close()} when giving up early. Instances are not thread safe.
+ */
+public final class JsonArrayIterator<T> implements Iterator<T>, Closeable {
+
+    private final JsonReader reader;
+    private final Gson gson;
+    private final Class<T> type;
+    private boolean done;
+
+    JsonArrayIterator(final InputStream json, @Nullable final String arrayField, final Class<T> type, final Gson gson) throws IOException {
+        this.reader = new JsonReader(new InputStreamReader(json, StandardCharsets.UTF_8));
+        this.gson = gson;
+        this.type = type;
+        try {
+            if (arrayField == null ? reader.peek() == JsonToken.BEGIN_ARRAY : seek(arrayField)) {
+                reader.beginArray();
+            } else {
+                close();
+            }
+        } catch (final IOException | RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    // move to the value of the field, returning false if it is missing or not an array
+    private boolean seek(final String arrayField) throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+            return false;
+        }
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if (reader.nextName().equals(arrayField) && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                return true;
+            }
+            reader.skipValue();
+        }
+        return false;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (done) {
+            return false;
+        }
+        try {
+            if (reader.hasNext()) {
+                return true;
+            }
+            reader.endArray();
+            close();
+            return false;
+        } catch (final IOException e) {
+            close();
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return gson.fromJson(reader, type);
+    }
+
+    @Override
+    public void close() {
+        if (!done) {
+            done = true;
+            try {
+                reader.close();
+            } catch (final IOException e) {
+                // nothing left to read from it
+            }
+        }
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.jenkins.rest.streaming;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.Consumer;
+
+import org.jclouds.javax.annotation.Nullable;
+import org.jclouds.json.config.GsonModule;
+
+import com.cdancy.jenkins.rest.domain.job.Job;
+import com.cdancy.jenkins.rest.domain.job.Workflow;
+import com.cdancy.jenkins.rest.domain.queue.QueueItem;
+import com.cdancy.jenkins.rest.features.JobsApi;
+import com.cdancy.jenkins.rest.features.QueueApi;
+import com.google.gson.Gson;
+import com.google.inject.Guice;
+
+/**
+ * Decode the large lists Jenkins returns, the jobs of a folder, the queue
+ * and the run history of a pipeline, one element at a time as the response
+ * is read rather than into a full object graph first, so that memory stays
+ * flat whatever the size of the response.
+ *
+ * <p>Elements are decoded with the same rules as the api, so that a Job,
+ * QueueItem or Workflow read here equals the one the api would return.
+ * Iterators must be read to the end or closed to release their connection.
+ */
+public final class JsonStreams {
+
+    // decodes with the jclouds naming rules the api uses
+    private static final class GsonHolder {
+        static final Gson GSON = Guice.createInjector(new GsonModule()).getInstance(Gson.class);
+    }
+
+    /**
+     * Iterate over the jobs of a folder, see `JobsApi.jobList`.
+     *
+     * @param jobsApi the JobsApi to fetch the jobs with.
+     * @param folderPath path of the folder, empty for the root folder.
+     * @param tree optional tree expression, which should select `jobs`, null for the full document.
+     * @return iterator over the jobs of the folder.
+     * @throws IOException if the folder does not exist or the response could not be read.
+     */
+    public static JsonArrayIterator<Job> jobs(final JobsApi jobsApi, final String folderPath, @Nullable final String tree) throws IOException {
+        return iterate(found(jobsApi.jobListStream(folderPath, tree), "Folder '" + folderPath + "'"), "jobs", Job.class);
+    }
+
+    /**
+     * Pass each job of a folder, one after the other, to the consumer.
+     *
+     * @param jobsApi the JobsApi to fetch the jobs with.
+     * @param folderPath path of the folder, empty for the root folder.
+     * @param tree optional tree expression, which should select `jobs`, null for the full document.
+     * @param consumer receives each Job.
+     * @return the number of jobs read.
+     * @throws IOException if the folder does not exist or the response could not be read.
+     */
+    public static long forEachJob(final JobsApi jobsApi, final String folderPath, @Nullable final String tree,
+            final Consumer<? super Job> consumer) throws IOException {
+        return forEach(jobs(jobsApi, folderPath, tree), consumer);
+    }
+
+    /**
+     * Iterate over the items of the queue, see `QueueApi.queue`.
+     *
+     * @param queueApi the QueueApi to fetch the queue with.
+     * @return iterator over the queue items.
+     * @throws IOException if the response could not be read.
+     */
+    public static JsonArrayIterator<QueueItem> queueItems(final QueueApi queueApi) throws IOException {
+        return iterate(found(queueApi.queueStream(), "Queue"), "items", QueueItem.class);
+    }
+
+    /**
+     * Pass each item of the queue, one after the other, to the consumer.
+     *
+     * @param queueApi the QueueApi to fetch the queue with.
+     * @param consumer receives each QueueItem.
+     * @return the number of queue items read.
+     * @throws IOException if the response could not be read.
+     */
+    public static long forEachQueueItem(final QueueApi queueApi, final Consumer<? super QueueItem> consumer) throws IOException {
+        return forEach(queueItems(queueApi), consumer);
+    }
+
+    /**
+     * Iterate over the run history of a pipeline, see `JobsApi.runHistory`.
+     *
+     * @param jobsApi the JobsApi to fetch the runs with.
+     * @param optionalFolderPath optional folder path the job lives in.
+     * @param jobName name of the job.
+     * @return iterator over the runs, most recent first.
+     * @throws IOException if the job does not exist or the response could not be read.
+     */
+    public static JsonArrayIterator<Workflow> runs(final JobsApi jobsApi, @Nullable final String optionalFolderPath,
+            final String jobName) throws IOException {
+        return iterate(found(jobsApi.runHistoryStream(optionalFolderPath, jobName), "Job '" + jobName + "'"), null, Workflow.class);
+    }
+
+    /**
+     * Pass each run of a pipeline, one after the other, to the consumer.
+     *
+     * @param jobsApi the JobsApi to fetch the runs with.
+     * @param optionalFolderPath optional folder path the job lives in.
+     * @param jobName name of the job.
+     * @param consumer receives each Workflow.
+     * @return the number of runs read.
+     * @throws IOException if the job does not exist or the response could not be read.
+     */
+    public static long forEachRun(final JobsApi jobsApi, @Nullable final String optionalFolderPath, final String jobName,
+            final Consumer<? super Workflow> consumer) throws IOException {
+        return forEach(runs(jobsApi, optionalFolderPath, jobName), consumer);
+    }
+
+    /**
+     * Iterate over the elements of a JSON array.
+     *
+     * @param json the JSON document, closed once the array has been read.
+     * @param arrayField field of the top-level object holding the array, or null if the document is the array.
+     * @param type type of the elements.
+     * @param <T> type of the elements.
+     * @return iterator over the elements, empty if there is no such array.
+     * @throws IOException if the document could not be read.
+     */
+    public static <T> JsonArrayIterator<T> iterate(final InputStream json, @Nullable final String arrayField,
+            final Class<T> type) throws IOException {
+        return new JsonArrayIterator<>(json, arrayField, type, GsonHolder.GSON);
+    }
+
+    private static <T> long forEach(final JsonArrayIterator<T> elements, final Consumer<? super T> consumer) {
+        long count = 0;
+        try (JsonArrayIterator<T> iterator = elements) {
+            while (iterator.hasNext()) {
+                consumer.accept(iterator.next());
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static InputStream found(@Nullable final InputStream json, final String what) throws FileNotFoundException {
+        if (json == null) {
+            throw new FileNotFoundException(what + " not found");
+        }
+        return json;
+    }
+
+    private JsonStreams() {
+        throw new UnsupportedOperationException("Purposefully not implemented");
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.jenkins.rest.streaming;
+
+import com.cdancy.jenkins.rest.domain.job.TestCase;
+import com.cdancy.jenkins.rest.domain.job.TestSuite;
+
+/**
+ * Receives the test cases of a report as they are read, see
+ * `TestReports.visit`.
+ */
+@FunctionalInterface
+public interface TestReportVisitor {
+
+    /**
+     * Handle one test case.
+     *
+     * @param testCase the test case just read.
+     */
+    void visitCase(TestCase testCase);
+
+    /**
+     * Called once a suite has been read, after all of its cases, Jenkins
+     * listing the cases of a suite before its name.
+     *
+     * @param suite the suite just read, without its cases.
+     */
+    default void visitSuite(final TestSuite suite) {
+    }
+}
@@ -0,0 +1,301 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.jenkins.rest.streaming;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Predicate;
+
+import org.jclouds.javax.annotation.Nullable;
+
+import com.cdancy.jenkins.rest.domain.job.TestCase;
+import com.cdancy.jenkins.rest.domain.job.TestReport;
+import com.cdancy.jenkins.rest.domain.job.TestSuite;
+import com.cdancy.jenkins.rest.features.JobsApi;
+import com.google.common.collect.ImmutableList;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+/**
+ * Read the test report of a build, as returned by `JobsApi.testReportStream`,
+ * into a {@link TestReport} or case by case into a {@link TestReportVisitor},
+ * without building a JSON tree of the whole report first.
+ *
+ * <p>Only the fields of the domain classes are decoded, the captured output
+ * of suites and cases being skipped. Class names, suite names and statuses
+ * repeat across a report and are shared, within a report, rather than held
+ * once per case. A filter, such as {@link #FAILED_OR_SKIPPED}, keeps only the
+ * cases worth holding on to.
+ */
+public final class TestReports {
+
+    /**
+     * Keeps the cases which failed, regressed or were skipped.
+     */
+    public static final Predicate<TestCase> FAILED_OR_SKIPPED = testCase -> testCase.failed() || testCase.skipped();
+
+    /**
+     * Read the test report of a build, keeping the cases which pass the
+     * filter and the suites holding at least one of them.
+     *
+     * @param jobsApi the JobsApi to fetch the report with.
+     * @param optionalFolderPath optional folder path the job lives in.
+     * @param jobName name of the job.
+     * @param buildNumber number of the build.
+     * @param filter the cases to keep.
+     * @return the TestReport, its counts covering every case.
+     * @throws IOException if the build has no report or it could not be read.
+     */
+    public static TestReport read(final JobsApi jobsApi, @Nullable final String optionalFolderPath, final String jobName,
+            final int buildNumber, final Predicate<? super TestCase> filter) throws IOException {
+        return read(open(jobsApi, optionalFolderPath, jobName, buildNumber), filter);
+    }
+
+    /**
+     * Read a test report, keeping the cases which pass the filter and the
+     * suites holding at least one of them.
+     *
+     * @param json the JSON document of the report, closed once read.
+     * @param filter the cases to keep.
+     * @return the TestReport, its counts covering every case.
+     * @throws IOException if the report could not be read.
+     */
+    public static TestReport read(final InputStream json, final Predicate<? super TestCase> filter) throws IOException {
+        Objects.requireNonNull(filter, "filter cannot be null");
+        final List<TestSuite> suites = new ArrayList<>();
+        final List<TestCase> cases = new ArrayList<>();
+        final TestReport summary = visit(json, new TestReportVisitor() {
+            private int read;
+
+            @Override
+            public void visitCase(final TestCase testCase) {
+                read++;
+                if (filter.test(testCase)) {
+                    cases.add(testCase);
+                }
+            }
+
+            @Override
+            public void visitSuite(final TestSuite suite) {
+                // suites which had no case to begin with are kept
+                if (!cases.isEmpty() || read == 0) {
+                    suites.add(TestSuite.create(suite.name(), suite.id(), suite.duration(), suite.timestamp(), cases));
+                }
+                cases.clear();
+                read = 0;
+            }
+        });
+        return TestReport.create(summary.failCount(), summary.passCount(), summary.skipCount(),
+                summary.duration(), summary.empty(), suites);
+    }
+
+    /**
+     * Pass each case of the test report of a build, one after the other, to
+     * the visitor.
+     *
+     * @param jobsApi the JobsApi to fetch the report with.
+     * @param optionalFolderPath optional folder path the job lives in.
+     * @param jobName name of the job.
+     * @param buildNumber number of the build.
+     * @param visitor receives each case and suite.
+     * @return the counts of the report, without its suites.
+     * @throws IOException if the build has no report or it could not be read.
+     */
+    public static TestReport visit(final JobsApi jobsApi, @Nullable final String optionalFolderPath, final String jobName,
+            final int buildNumber, final TestReportVisitor visitor) throws IOException {
+        return visit(open(jobsApi, optionalFolderPath, jobName, buildNumber), visitor);
+    }
+
+    /**
+     * Pass each case of a test report, one after the other, to the visitor.
+     *
+     * @param json the JSON document of the report, closed once read.
+     * @param visitor receives each case and suite.
+     * @return the counts of the report, without its suites.
+     * @throws IOException if the report could not be read.
+     */
+    public static TestReport visit(final InputStream json, final TestReportVisitor visitor) throws IOException {
+        Objects.requireNonNull(visitor, "visitor cannot be null");
+        try (JsonReader reader = new JsonReader(new InputStreamReader(json, StandardCharsets.UTF_8))) {
+            return new Parser(reader, visitor).report();
+        }
+    }
+
+    private static InputStream open(final JobsApi jobsApi, final String optionalFolderPath, final String jobName,
+            final int buildNumber) throws FileNotFoundException {
+        final InputStream json = jobsApi.testReportStream(optionalFolderPath, jobName, buildNumber);
+        if (json == null) {
+            throw new FileNotFoundException("No test report found for " + jobName + " #" + buildNumber);
+        }
+        return json;
+    }
+
+    private static final class Parser {
+
+        private final JsonReader reader;
+        private final TestReportVisitor visitor;
+        private final Map<String, String> shared = new HashMap<>();
+
+        Parser(final JsonReader reader, final TestReportVisitor visitor) {
+            this.reader = reader;
+            this.visitor = visitor;
+        }
+
+        TestReport report() throws IOException {
+            int failCount = 0;
+            int passCount = 0;
+            int skipCount = 0;
+            double duration = 0;
+            boolean empty = false;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "failCount": failCount = nextInt(); break;
+                    case "passCount": passCount = nextInt(); break;
+                    case "skipCount": skipCount = nextInt(); break;
+                    case "duration": duration = nextDouble(); break;
+                    case "empty": empty = nextBoolean(); break;
+                    case "suites": suites(); break;
+                    default: reader.skipValue();
+                }
+            }
+            reader.endObject();
+            return TestReport.create(failCount, passCount, skipCount, duration, empty, ImmutableList.of());
+        }
+
+        private void suites() throws IOException {
+            if (skipNull()) {
+                return;
+            }
+            reader.beginArray();
+            while (reader.hasNext()) {
+                suite();
+            }
+            reader.endArray();
+        }
+
+        private void suite() throws IOException {
+            String name = null;
+            String id = null;
+            double duration = 0;
+            String timestamp = null;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "cases": cases(); break;
+                    case "name": name = shared(nextString()); break;
+                    case "id": id = nextString(); break;
+                    case "duration": duration = nextDouble(); break;
+                    case "timestamp": timestamp = nextString(); break;
+                    default: reader.skipValue();
+                }
+            }
+            reader.endObject();
+            visitor.visitSuite(TestSuite.create(name != null ? name : "", id, duration, timestamp, ImmutableList.of()));
+        }
+
+        private void cases() throws IOException {
+            if (skipNull()) {
+                return;
+            }
+            reader.beginArray();
+            while (reader.hasNext()) {
+                visitor.visitCase(testCase());
+            }
+            reader.endArray();
+        }
+
+        private TestCase testCase() throws IOException {
+            String className = "";
+            String name = "";
+            String status = TestCase.PASSED;
+            double duration = 0;
+            boolean skipped = false;
+            int age = 0;
+            int failedSince = 0;
+            String errorDetails = null;
+            String errorStackTrace = null;
+            String skippedMessage = null;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "className": className = shared(nextString()); break;
+                    case "name": name = nextString(); break;
+                    case "status": status = shared(nextString()); break;
+                    case "duration": duration = nextDouble(); break;
+                    case "skipped": skipped = nextBoolean(); break;
+                    case "age": age = nextInt(); break;
+                    case "failedSince": failedSince = nextInt(); break;
+                    case "errorDetails": errorDetails = nextString(); break;
+                    case "errorStackTrace": errorStackTrace = nextString(); break;
+                    case "skippedMessage": skippedMessage = nextString(); break;
+                    default: reader.skipValue();
+                }
+            }
+            reader.endObject();
+            return TestCase.create(className != null ? className : "", name != null ? name : "",
+                    status != null ? status : TestCase.PASSED, duration, skipped, age, failedSince,
+                    errorDetails, errorStackTrace, skippedMessage);
+        }
+
+        // one instance of each repeated value per report
+        private String shared(final String value) {
+            if (value == null) {
+                return null;
+            }
+            final String existing = shared.putIfAbsent(value, value);
+            return existing != null ? existing : value;
+        }
+
+        private boolean skipNull() throws IOException {
+            if (reader.peek() == JsonToken.NULL) {
+                reader.nextNull();
+                return true;
+            }
+            return false;
+        }
+
+        private String nextString() throws IOException {
+            return skipNull() ? null : reader.nextString();
+        }
+
+        private int nextInt() throws IOException {
+            return skipNull() ? 0 : reader.nextInt();
+        }
+
+        private double nextDouble() throws IOException {
+            return skipNull() ? 0 : reader.nextDouble();
+        }
+
+        private boolean nextBoolean() throws IOException {
+            return !skipNull() && reader.nextBoolean();
+        }
+    }
+
+    private TestReports() {
+        throw new UnsupportedOperationException("Purposefully not implemented");
+    }
+}
@@ -0,0 +1,384 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.jenkins.rest.tracking;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.io.Closeable;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.jclouds.javax.annotation.Nullable;
+
+import com.cdancy.jenkins.rest.JenkinsApi;
+import com.cdancy.jenkins.rest.domain.job.BuildInfo;
+import com.cdancy.jenkins.rest.domain.job.JobInfo;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Track large numbers of running builds with one request per job, rather than
+ * one per build, on each tick.
+ *
+ * <p>Tracked builds are grouped by job and, every `pollInterval`, each job with
+ * at least one tracked build is fetched through `JobsApi.jobInfo` with the
+ * {@link #BUILDS_TREE} projection. Results are then fanned out to the futures
+ * of the builds of that job which are no longer building. Builds which have
+ * fallen out of the window Jenkins returns for `builds` are fetched on their
+ * own through `JobsApi.buildInfo`, selecting the same fields.
+ *
+ * <p>Every caller tracking the same build gets a future of its own:
+ * cancelling it leaves the others pending, and the build is no longer
+ * tracked once every caller has cancelled.
+ *
+ * <p>Note that the BuildInfo a future completes with only has the fields
+ * selected by {@link #BUILD_TREE} populated.
+ */
+public final class BuildPoller implements Closeable {
+
+    /**
+     * The tree expression used to fetch a build on its own, selecting the
+     * fields every BuildInfo a future completes with has populated.
+     */
+    public static final String BUILD_TREE = "number,url,building,result,duration,estimatedDuration,timestamp";
+
+    /**
+     * The tree expression used to fetch the builds of a job on each tick.
+     */
+    public static final String BUILDS_TREE = "name,url,builds[" + BUILD_TREE + "]";
+
+    private static final int MAX_CONSECUTIVE_FAILURES = 3;
+
+    private final JenkinsApi jenkinsApi;
+    private final ScheduledExecutorService scheduler;
+    private final boolean ownsScheduler;
+    private final Executor executor;
+    private final ConcurrentMap<JobKey, JobWatch> jobs = new ConcurrentHashMap<>();
+    private final ScheduledFuture<?> ticker;
+
+    private BuildPoller(final Builder builder) {
+        this.jenkinsApi = builder.jenkinsApi;
+        this.ownsScheduler = builder.scheduler == null;
+        this.scheduler = ownsScheduler
+                ? Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                        .setNameFormat("jenkins-build-poller-%d").setDaemon(true).build())
+                : builder.scheduler;
+        this.executor = builder.executor != null ? builder.executor : MoreExecutors.directExecutor();
+        this.ticker = scheduler.scheduleWithFixedDelay(this::tick, builder.pollIntervalMillis, builder.pollIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Track the given build until it is no longer building. Tracking the
+     * same build more than once returns a new future each time.
+     *
+     * @param optionalFolderPath optional folder path the job lives in.
+     * @param jobName name of the job.
+     * @param buildNumber number of the build.
+     * @return future completed with the final BuildInfo, or exceptionally if
+     *     the job or build could not be found or polled.
+     */
+    public CompletableFuture<BuildInfo> track(@Nullable final String optionalFolderPath,
+            final String jobName,
+            final int buildNumber) {
+        Objects.requireNonNull(jobName, "jobName cannot be null");
+        final JobKey key = new JobKey(optionalFolderPath, jobName);
+        final AtomicReference<Tracking> tracked = new AtomicReference<>();
+        jobs.compute(key, (k, watch) -> {
+            final JobWatch current = watch != null ? watch : new JobWatch(k);
+            final Tracking joined = current.builds.computeIfAbsent(buildNumber, number -> start(k, number));
+            joined.callers++;
+            tracked.set(joined);
+            return current;
+        });
+
+        final Tracking tracking = tracked.get();
+        final CompletableFuture<BuildInfo> future = new CompletableFuture<>();
+        tracking.settled.whenComplete((info, error) -> {
+            if (error != null) {
+                future.completeExceptionally(error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error);
+            } else {
+                future.complete(info);
+            }
+        });
+        future.whenComplete((info, error) -> {
+            if (future.isCancelled() && !tracking.shared.isDone()) {
+                leave(key, buildNumber, tracking);
+            }
+        });
+        return future;
+    }
+
+    private Tracking start(final JobKey key, final int buildNumber) {
+        final Tracking tracking = new Tracking();
+        tracking.settled = tracking.shared.whenComplete((info, error) -> untrack(key, buildNumber, tracking));
+        return tracking;
+    }
+
+    // stop tracking the build once the last caller has cancelled
+    private void leave(final JobKey key, final int buildNumber, final Tracking tracking) {
+        final AtomicBoolean last = new AtomicBoolean();
+        jobs.computeIfPresent(key, (k, watch) -> {
+            if (watch.builds.get(buildNumber) != tracking || --tracking.callers > 0) {
+                return watch;
+            }
+            watch.builds.remove(buildNumber, tracking);
+            last.set(true);
+            return watch.builds.isEmpty() ? null : watch;
+        });
+        if (last.get()) {
+            tracking.shared.cancel(false);
+        }
+    }
+
+    /**
+     * The number of builds currently being tracked.
+     *
+     * @return number of tracked builds.
+     */
+    public int size() {
+        int size = 0;
+        for (final JobWatch watch : jobs.values()) {
+            size += watch.builds.size();
+        }
+        return size;
+    }
+
+    /**
+     * Stop polling: every pending future is cancelled and, if the scheduler
+     * was created by this poller, it is shut down.
+     */
+    @Override
+    public void close() {
+        ticker.cancel(false);
+        for (final JobWatch watch : jobs.values()) {
+            for (final Tracking tracking : watch.builds.values()) {
+                tracking.shared.cancel(false);
+            }
+        }
+        if (ownsScheduler) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    private void untrack(final JobKey key, final int buildNumber, final Tracking tracking) {
+        jobs.computeIfPresent(key, (k, watch) -> {
+            watch.builds.remove(buildNumber, tracking);
+            return watch.builds.isEmpty() ? null : watch;
+        });
+    }
+
+    // runs on the scheduler, handing each job off to the executor unless its previous poll is still running
+    void tick() {
+        for (final JobWatch watch : jobs.values()) {
+            if (watch.polling.compareAndSet(false, true)) {
+                try {
+                    executor.execute(watch);
+                } catch (final RuntimeException e) {
+                    watch.polling.set(false);
+                }
+            }
+        }
+    }
+
+    private final class JobWatch implements Runnable {
+
+        private final JobKey key;
+        private final ConcurrentMap<Integer, Tracking> builds = new ConcurrentHashMap<>();
+        private final AtomicBoolean polling = new AtomicBoolean();
+        private int failures;
+
+        JobWatch(final JobKey key) {
+            this.key = key;
+        }
+
+        @Override
+        public void run() {
+            try {
+                poll();
+                failures = 0;
+            } catch (final Exception e) {
+                if (++failures >= MAX_CONSECUTIVE_FAILURES) {
+                    failAll(e);
+                }
+            } finally {
+                polling.set(false);
+            }
+        }
+
+        private void poll() {
+            if (builds.isEmpty()) {
+                return;
+            }
+
+            final JobInfo jobInfo = jenkinsApi.jobsApi().jobInfo(key.optionalFolderPath, key.jobName, BUILDS_TREE);
+            if (jobInfo == null) {
+                failAll(new NoSuchElementException("Job " + key + " not found"));
+                return;
+            }
+
+            int oldest = Integer.MAX_VALUE;
+            for (final BuildInfo build : jobInfo.builds()) {
+                oldest = Math.min(oldest, build.number());
+                complete(build);
+            }
+
+            // anything older than the window Jenkins returned has to be asked for on its own
+            for (final Map.Entry<Integer, Tracking> entry : builds.entrySet()) {
+                if (entry.getKey() < oldest) {
+                    final BuildInfo build = jenkinsApi.jobsApi().buildInfo(key.optionalFolderPath, key.jobName, entry.getKey(), BUILD_TREE);
+                    if (build == null) {
+                        entry.getValue().shared.completeExceptionally(new NoSuchElementException("Build " + key + " #" + entry.getKey() + " not found"));
+                    } else if (!build.building()) {
+                        entry.getValue().shared.complete(build);
+                    }
+                }
+            }
+        }
+
+        private void complete(final BuildInfo build) {
+            if (!build.building()) {
+                final Tracking tracking = builds.get(build.number());
+                if (tracking != null) {
+                    tracking.shared.complete(build);
+                }
+            }
+        }
+
+        private void failAll(final Exception cause) {
+            for (final Tracking tracking : builds.values()) {
+                tracking.shared.completeExceptionally(cause);
+            }
+        }
+    }
+
+    // the result of a build, shared by the callers tracking it
+    private static final class Tracking {
+
+        private final CompletableFuture<BuildInfo> shared = new CompletableFuture<>();
+        // completed like shared, once no longer tracked
+        private CompletableFuture<BuildInfo> settled;
+        // only read and written within compute calls of the jobs map
+        private int callers;
+    }
+
+    private static final class JobKey {
+
+        private final String optionalFolderPath;
+        private final String jobName;
+
+        JobKey(final String optionalFolderPath, final String jobName) {
+            this.optionalFolderPath = optionalFolderPath;
+            this.jobName = jobName;
+        }
+
+        @Override
+        public boolean equals(final Object other) {
+            if (!(other instanceof JobKey)) {
+                return false;
+            }
+            final JobKey that = (JobKey) other;
+            return Objects.equals(optionalFolderPath, that.optionalFolderPath) && jobName.equals(that.jobName);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(optionalFolderPath, jobName);
+        }
+
+        @Override
+        public String toString() {
+            return optionalFolderPath != null ? optionalFolderPath + "/" + jobName : jobName;
+        }
+    }
+
+    public static Builder builder(final JenkinsApi jenkinsApi) {
+        return new Builder(jenkinsApi);
+    }
+
+    public static class Builder {
+
+        private final JenkinsApi jenkinsApi;
+        private ScheduledExecutorService scheduler;
+        private Executor executor;
+        private long pollIntervalMillis = TimeUnit.SECONDS.toMillis(5);
+
+        Builder(final JenkinsApi jenkinsApi) {
+            this.jenkinsApi = Objects.requireNonNull(jenkinsApi, "jenkinsApi cannot be null");
+        }
+
+        /**
+         * Optional scheduler to tick on. When not set a single daemon thread
+         * is created and shut down when the poller is closed.
+         *
+         * @param scheduler the ScheduledExecutorService to tick on.
+         * @return this Builder.
+         */
+        public Builder scheduler(final ScheduledExecutorService scheduler) {
+            this.scheduler = scheduler;
+            return this;
+        }
+
+        /**
+         * Optional Executor to poll jobs on. When not set jobs are polled one
+         * after the other on the scheduler thread. A job is never polled
+         * again before its previous poll has finished.
+         *
+         * @param executor the Executor to poll jobs on.
+         * @return this Builder.
+         */
+        public Builder executor(final Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        /**
+         * Time between two ticks. Defaults to 5 seconds.
+         *
+         * @param interval poll interval.
+         * @param unit unit of interval.
+         * @return this Builder.
+         */
+        public Builder pollInterval(final long interval, final TimeUnit unit) {
+            checkArgument(interval > 0, "interval must be > 0");
+            this.pollIntervalMillis = unit.toMillis(interval);
+            return this;
+        }
+
+        /**
+         * Build an instance of BuildPoller and start ticking.
+         *
+         * @return BuildPoller
+         */
+        public BuildPoller build() {
+            return new BuildPoller(this);
+        }
+    }
+}
@@ -0,0 +1,372 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.jenkins.rest.tracking;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.io.Closeable;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.jclouds.javax.annotation.Nullable;
+import org.jclouds.rest.ResourceNotFoundException;
+
+import com.cdancy.jenkins.rest.JenkinsApi;
+import com.cdancy.jenkins.rest.domain.common.LongResponse;
+import com.cdancy.jenkins.rest.domain.common.Tree;
+import com.cdancy.jenkins.rest.domain.job.BuildInfo;
+import com.cdancy.jenkins.rest.domain.job.JobInfo;
+import com.cdancy.jenkins.rest.domain.queue.QueueItem;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Wait for builds, triggered through `JobsApi.build` or
+ * `JobsApi.buildWithParameters`, to complete.
+ *
+ * <p>The queue item is polled until it has left the queue and the resulting
+ * build is then polled until it is no longer building. Polling backs off
+ * exponentially while queued and, once running, is spaced according to the
+ * time left on the build's `estimatedDuration`. Every caller tracking the same
+ * queue id shares a single poll but gets a future of its own: cancelling it
+ * leaves the others pending, and the poll stops once every caller has
+ * cancelled.
+ *
+ * <p>Jenkins forgets a queue item a few minutes after it left the queue. A
+ * queue item no longer found is looked up among the job's last builds, by
+ * queue id, and the future fails if none of them was created from it.
+ */
+public final class BuildTracker implements Closeable {
+
+    private static final int MAX_CONSECUTIVE_FAILURES = 3;
+    private static final String RECENT_BUILDS_TREE = Tree.builder()
+            .field("builds", Tree.of("number", "queueId"), 0, 100).build().toString();
+
+    private final JenkinsApi jenkinsApi;
+    private final ScheduledExecutorService scheduler;
+    private final boolean ownsScheduler;
+    private final long minPollMillis;
+    private final long maxPollMillis;
+    private final ConcurrentMap<Long, Tracking> tracked = new ConcurrentHashMap<>();
+
+    private BuildTracker(final Builder builder) {
+        this.jenkinsApi = builder.jenkinsApi;
+        this.ownsScheduler = builder.scheduler == null;
+        this.scheduler = ownsScheduler
+                ? Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                        .setNameFormat("jenkins-build-tracker-%d").setDaemon(true).build())
+                : builder.scheduler;
+        this.minPollMillis = builder.minPollMillis;
+        this.maxPollMillis = builder.maxPollMillis;
+    }
+
+    /**
+     * Track the build created from the given queue id.
+     *
+     * @param optionalFolderPath optional folder path the job lives in.
+     * @param jobName name of the job.
+     * @param queueId the response of `JobsApi.build` or `JobsApi.buildWithParameters`.
+     * @return future completed with the final BuildInfo, or exceptionally if
+     *     the queue item was cancelled or could not be polled.
+     */
+    public CompletableFuture<BuildInfo> track(@Nullable final String optionalFolderPath,
+            final String jobName,
+            final LongResponse queueId) {
+        if (queueId.value() == null) {
+            final CompletableFuture<BuildInfo> failed = new CompletableFuture<>();
+            failed.completeExceptionally(new IllegalArgumentException("No queue id to track: errors=" + queueId.errors()));
+            return failed;
+        }
+        return track(optionalFolderPath, jobName, queueId.value());
+    }
+
+    /**
+     * Track the build created from the given queue id.
+     *
+     * @param optionalFolderPath optional folder path the job lives in.
+     * @param jobName name of the job.
+     * @param queueId id of the queue item.
+     * @return future completed with the final BuildInfo, or exceptionally if
+     *     the queue item was cancelled or could not be polled.
+     */
+    public CompletableFuture<BuildInfo> track(@Nullable final String optionalFolderPath,
+            final String jobName,
+            final long queueId) {
+        Objects.requireNonNull(jobName, "jobName cannot be null");
+        final Tracking tracking = tracked.compute(queueId, (id, current) -> {
+            final Tracking joined = current != null ? current : start(optionalFolderPath, jobName, id);
+            joined.callers++;
+            return joined;
+        });
+
+        final CompletableFuture<BuildInfo> future = new CompletableFuture<>();
+        tracking.settled.whenComplete((info, error) -> {
+            if (error != null) {
+                future.completeExceptionally(error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error);
+            } else {
+                future.complete(info);
+            }
+        });
+        future.whenComplete((info, error) -> {
+            if (future.isCancelled() && !tracking.shared.isDone()) {
+                leave(queueId, tracking);
+            }
+        });
+        return future;
+    }
+
+    private Tracking start(final String optionalFolderPath, final String jobName, final long queueId) {
+        final Tracking tracking = new Tracking();
+        tracking.settled = tracking.shared.whenComplete((info, error) -> tracked.remove(queueId, tracking));
+        new Poll(optionalFolderPath, jobName, queueId, tracking.shared).schedule(0);
+        return tracking;
+    }
+
+    // stop polling once the last caller has cancelled
+    private void leave(final long queueId, final Tracking tracking) {
+        final AtomicBoolean last = new AtomicBoolean();
+        tracked.computeIfPresent(queueId, (id, current) -> {
+            if (current != tracking || --current.callers > 0) {
+                return current;
+            }
+            last.set(true);
+            return null;
+        });
+        if (last.get()) {
+            tracking.shared.cancel(false);
+        }
+    }
+
+    /**
+     * The number of queue items currently being tracked.
+     *
+     * @return number of tracked queue items.
+     */
+    public int size() {
+        return tracked.size();
+    }
+
+    /**
+     * Stop tracking: every pending future is cancelled and, if the scheduler
+     * was created by this tracker, it is shut down.
+     */
+    @Override
+    public void close() {
+        for (final Tracking tracking : tracked.values()) {
+            tracking.shared.cancel(false);
+        }
+        if (ownsScheduler) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    // compute how long to wait before polling a running build again
+    long nextRunningDelay(final BuildInfo info, final long previousDelay, final long now) {
+        if (info.estimatedDuration() > 0) {
+            final long remaining = info.estimatedDuration() - (now - info.timestamp());
+            if (remaining > 0) {
+                // close in on the expected end of the build
+                return clamp(remaining / 2);
+            }
+        }
+        // no (or an overrun) estimate so back off from the minimum
+        return clamp(previousDelay * 2);
+    }
+
+    private long clamp(final long delay) {
+        return Math.max(minPollMillis, Math.min(maxPollMillis, delay));
+    }
+
+    // the poll of a queue id, shared by the callers tracking it
+    private static final class Tracking {
+
+        private final CompletableFuture<BuildInfo> shared = new CompletableFuture<>();
+        // completed like shared, once no longer tracked
+        private CompletableFuture<BuildInfo> settled;
+        // only read and written within compute calls of the map
+        private int callers;
+    }
+
+    private final class Poll implements Runnable {
+
+        private final String optionalFolderPath;
+        private final String jobName;
+        private final long queueId;
+        private final CompletableFuture<BuildInfo> future;
+        private Integer buildNumber;
+        private long delay;
+        private int failures;
+
+        Poll(final String optionalFolderPath, final String jobName, final long queueId, final CompletableFuture<BuildInfo> future) {
+            this.optionalFolderPath = optionalFolderPath;
+            this.jobName = jobName;
+            this.queueId = queueId;
+            this.future = future;
+        }
+
+        void schedule(final long delayMillis) {
+            if (!future.isDone()) {
+                this.delay = delayMillis;
+                scheduler.schedule(this, delayMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        @Override
+        public void run() {
+            if (future.isDone()) {
+                return;
+            }
+            try {
+                if (buildNumber == null) {
+                    pollQueue();
+                } else {
+                    pollBuild();
+                }
+                failures = 0;
+            } catch (final Exception e) {
+                if (++failures >= MAX_CONSECUTIVE_FAILURES) {
+                    future.completeExceptionally(e);
+                } else {
+                    schedule(clamp(delay * 2));
+                }
+            }
+        }
+
+        private void pollQueue() {
+            QueueItem item;
+            try {
+                item = jenkinsApi.queueApi().queueItem(queueId);
+            } catch (final ResourceNotFoundException e) {
+                item = null;
+            }
+            if (item == null) {
+                buildNumber = buildCreatedFromQueueItem();
+                if (buildNumber == null) {
+                    future.completeExceptionally(new IllegalStateException("Queue item " + queueId
+                            + " no longer exists and none of the last builds of " + jobName + " was created from it"));
+                } else {
+                    schedule(0);
+                }
+            } else if (item.cancelled()) {
+                future.completeExceptionally(new CancellationException("Queue item " + queueId + " was cancelled"));
+            } else if (item.executable() != null) {
+                buildNumber = item.executable().number();
+                schedule(0);
+            } else {
+                schedule(delay == 0 ? minPollMillis : clamp(delay * 2));
+            }
+        }
+
+        // the queue item has been purged, find the build it became
+        private Integer buildCreatedFromQueueItem() {
+            final JobInfo job = jenkinsApi.jobsApi().jobInfo(optionalFolderPath, jobName, RECENT_BUILDS_TREE);
+            if (job != null) {
+                for (final BuildInfo build : job.builds()) {
+                    if (build.queueId() == queueId) {
+                        return build.number();
+                    }
+                }
+            }
+            return null;
+        }
+
+        private void pollBuild() {
+            final BuildInfo info = jenkinsApi.jobsApi().buildInfo(optionalFolderPath, jobName, buildNumber);
+            if (info == null) {
+                // the build has left the queue but is not yet visible
+                schedule(minPollMillis);
+            } else if (!info.building()) {
+                future.complete(info);
+            } else {
+                schedule(nextRunningDelay(info, delay, System.currentTimeMillis()));
+            }
+        }
+    }
+
+    public static Builder builder(final JenkinsApi jenkinsApi) {
+        return new Builder(jenkinsApi);
+    }
+
+    public static class Builder {
+
+        private final JenkinsApi jenkinsApi;
+        private ScheduledExecutorService scheduler;
+        private long minPollMillis = TimeUnit.SECONDS.toMillis(1);
+        private long maxPollMillis = TimeUnit.SECONDS.toMillis(60);
+
+        Builder(final JenkinsApi jenkinsApi) {
+            this.jenkinsApi = Objects.requireNonNull(jenkinsApi, "jenkinsApi cannot be null");
+        }
+
+        /**
+         * Optional scheduler to run polls on. When not set a single daemon
+         * thread is created and shut down when the tracker is closed.
+         *
+         * @param scheduler the ScheduledExecutorService to poll on.
+         * @return this Builder.
+         */
+        public Builder scheduler(final ScheduledExecutorService scheduler) {
+            this.scheduler = scheduler;
+            return this;
+        }
+
+        /**
+         * Shortest time to wait between two polls. Defaults to 1 second.
+         *
+         * @param interval minimum poll interval.
+         * @param unit unit of interval.
+         * @return this Builder.
+         */
+        public Builder minPollInterval(final long interval, final TimeUnit unit) {
+            checkArgument(interval > 0, "interval must be > 0");
+            this.minPollMillis = unit.toMillis(interval);
+            return this;
+        }
+
+        /**
+         * Longest time to wait between two polls. Defaults to 60 seconds.
+         *
+         * @param interval maximum poll interval.
+         * @param unit unit of interval.
+         * @return this Builder.
+         */
+        public Builder maxPollInterval(final long interval, final TimeUnit unit) {
+            checkArgument(interval > 0, "interval must be > 0");
+            this.maxPollMillis = unit.toMillis(interval);
+            return this;
+        }
+
+        /**
+         * Build an instance of BuildTracker.
+         *
+         * @return BuildTracker
+         */
+        public BuildTracker build() {
+            checkArgument(minPollMillis <= maxPollMillis, "minPollInterval must be <= maxPollInterval");
+            return new BuildTracker(this);
+        }
+    }
+}
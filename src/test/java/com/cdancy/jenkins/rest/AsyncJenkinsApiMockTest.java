@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.jenkins.rest;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+
+import java.util.List;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.testng.annotations.Test;
+
+import com.cdancy.jenkins.rest.domain.job.BuildInfo;
+import com.cdancy.jenkins.rest.domain.queue.QueueItem;
+
+/**
+ * Mock tests for the {@link com.cdancy.jenkins.rest.AsyncJenkinsApi} class.
+ */
+@Test(groups = "unit", testName = "AsyncJenkinsApiMockTest")
+public class AsyncJenkinsApiMockTest extends BaseJenkinsMockTest {
+
+    public void testGetQueueAsync() throws Exception {
+        MockWebServer server = mockWebServer();
+        server.enqueue(new MockResponse().setBody(payloadFromResource("/queue.json")).setResponseCode(200));
+        JenkinsClient client = JenkinsClient.builder().endPoint(server.url("/").toString()).apiToken(USERNAME_APITOKEN).build();
+        try {
+            List<QueueItem> output = client.asyncApi().queueApi().queue().get();
+            assertEquals(output.size(), 2);
+            assertSent(server, "GET", "/queue/api/json");
+        } finally {
+            client.close();
+            server.shutdown();
+        }
+    }
+
+    public void testGetBuildInfoAsync() throws Exception {
+        MockWebServer server = mockWebServer();
+        server.enqueue(new MockResponse().setBody(payloadFromResource("/build-info.json")).setResponseCode(200));
+        JenkinsClient client = JenkinsClient.builder().endPoint(server.url("/").toString()).apiToken(USERNAME_APITOKEN).build();
+        try {
+            BuildInfo output = client.asyncApi().jobsApi().buildInfo(null, "fish", 10).join();
+            assertNotNull(output);
+            assertEquals(output.artifacts().size(), 1);
+            assertSent(server, "GET", "/job/fish/10/api/json");
+        } finally {
+            client.close();
+            server.shutdown();
+        }
+    }
+
+    public void testGetBuildInfoAsyncFallback() throws Exception {
+        MockWebServer server = mockWebServer();
+        server.enqueue(new MockResponse().setResponseCode(404));
+        JenkinsClient client = JenkinsClient.builder().endPoint(server.url("/").toString()).apiToken(USERNAME_APITOKEN).build();
+        try {
+            BuildInfo output = client.asyncApi().jobsApi().buildInfo(null, "fish", 10).join();
+            assertNull(output);
+            assertSent(server, "GET", "/job/fish/10/api/json");
+        } finally {
+            client.close();
+            server.shutdown();
+        }
+    }
+
+    public void testDelegatesAreReused() throws Exception {
+        MockWebServer server = mockWebServer();
+        JenkinsClient client = JenkinsClient.builder().endPoint(server.url("/").toString()).apiToken(USERNAME_APITOKEN).build();
+        try {
+            assertSame(client.asyncApi().jobsApi(), client.asyncApi().jobsApi());
+        } finally {
+            client.close();
+            server.shutdown();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.jenkins.rest;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.testng.annotations.Test;
+
+/**
+ * Mock tests for the {@link com.cdancy.jenkins.rest.JenkinsClient} class.
+ */
+@Test(groups = "unit", testName = "JenkinsClientMockTest")
+public class JenkinsClientMockTest extends BaseJenkinsMockTest {
+
+    public void testParallelOnVirtualThreads() throws Exception {
+        MockWebServer server = mockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(final RecordedRequest request) {
+                // /job/job-<n>/lastBuild/buildNumber
+                String name = request.getPath().split("/")[2];
+                return new MockResponse().setBody(name.substring("job-".length())).setResponseCode(200);
+            }
+        });
+        try (JenkinsClient client = JenkinsClient.builder()
+                .endPoint(server.url("/").toString())
+                .apiToken(USERNAME_APITOKEN)
+                .virtualThreads(true)
+                .build()) {
+            assertEquals(client.usesVirtualThreads(), Runtime.version().feature() >= 21);
+
+            List<Callable<Integer>> calls = new ArrayList<>();
+            List<Integer> expected = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                final String job = "job-" + i;
+                calls.add(() -> client.api().jobsApi().lastBuildNumber(null, job));
+                expected.add(i);
+            }
+            assertEquals(client.parallel(calls), expected);
+            assertEquals(server.getRequestCount(), 50);
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    public void testParallelRethrowsFirstFailure() throws Exception {
+        MockWebServer server = mockWebServer();
+        try (JenkinsClient client = JenkinsClient.builder()
+                .endPoint(server.url("/").toString())
+                .apiToken(USERNAME_APITOKEN)
+                .build()) {
+            assertEquals(client.usesVirtualThreads(), false);
+
+            List<Callable<String>> calls = new ArrayList<>();
+            calls.add(() -> "first");
+            calls.add(() -> {
+                throw new IllegalStateException("second failed");
+            });
+            try {
+                client.parallel(calls);
+                fail("Expected the failure of the second call");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof IllegalStateException);
+                assertEquals(e.getCause().getMessage(), "second failed");
+            }
+        } finally {
+            server.shutdown();
+        }
+    }
+}
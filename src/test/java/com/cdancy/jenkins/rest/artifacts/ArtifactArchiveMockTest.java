@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.jenkins.rest.artifacts;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileNotFoundException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okio.Buffer;
+import org.testng.annotations.Test;
+
+import com.cdancy.jenkins.rest.BaseJenkinsMockTest;
+import com.cdancy.jenkins.rest.JenkinsApi;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.MoreFiles;
+import com.google.common.io.RecursiveDeleteOption;
+
+/**
+ * Mock tests for the {@link com.cdancy.jenkins.rest.artifacts.ArtifactArchive} class.
+ */
+@Test(groups = "unit", testName = "ArtifactArchiveMockTest")
+public class ArtifactArchiveMockTest extends BaseJenkinsMockTest {
+
+    public void testForEachEntry() throws Exception {
+        MockWebServer server = mockWebServer();
+        server.enqueue(new MockResponse().setBody(zip(ImmutableMap.of("archive/a.txt", "hello", "archive/sub/b.txt", "world"))));
+        JenkinsApi jenkinsApi = api(server.url("/").url());
+        try {
+            Map<String, String> entries = Maps.newLinkedHashMap();
+            int count = ArtifactArchive.forEachEntry(jenkinsApi.jobsApi(), null, "fish", 10,
+                (path, content) -> entries.put(path, new String(ByteStreams.toByteArray(content), StandardCharsets.UTF_8)));
+            assertEquals(count, 2);
+            assertEquals(entries, ImmutableMap.of("a.txt", "hello", "sub/b.txt", "world"));
+            assertSentAccept(server, "GET", "/job/fish/10/artifact/%2Azip%2A/archive.zip", "*/*");
+        } finally {
+            jenkinsApi.close();
+            server.shutdown();
+        }
+    }
+
+    public void testExtract() throws Exception {
+        MockWebServer server = mockWebServer();
+        server.enqueue(new MockResponse().setBody(zip(ImmutableMap.of("archive/a.txt", "hello", "archive/sub/b.txt", "world"))));
+        JenkinsApi jenkinsApi = api(server.url("/").url());
+        Path directory = Files.createTempDirectory("archive");
+        try {
+            List<Path> paths = ArtifactArchive.extract(jenkinsApi.jobsApi(), "test-folder", "fish", 10, directory);
+            assertEquals(paths.size(), 2);
+            assertEquals(new String(Files.readAllBytes(directory.resolve("sub/b.txt")), StandardCharsets.UTF_8), "world");
+            assertSentAccept(server, "GET", "/job/test-folder/job/fish/10/artifact/%2Azip%2A/archive.zip", "*/*");
+        } finally {
+            MoreFiles.deleteRecursively(directory, RecursiveDeleteOption.ALLOW_INSECURE);
+            jenkinsApi.close();
+            server.shutdown();
+        }
+    }
+
+    public void testExtractRejectsEscapingEntries() throws Exception {
+        MockWebServer server = mockWebServer();
+        server.enqueue(new MockResponse().setBody(zip(ImmutableMap.of("archive/../../evil.txt", "evil"))));
+        JenkinsApi jenkinsApi = api(server.url("/").url());
+        Path directory = Files.createTempDirectory("archive");
+        try {
+            ArtifactArchive.extract(jenkinsApi.jobsApi(), null, "fish", 10, directory);
+            fail("Expected entry escaping the target directory to be rejected");
+        } catch (IllegalArgumentException e) {
+            assertFalse(Files.exists(directory.getParent().resolve("evil.txt")));
+        } finally {
+            MoreFiles.deleteRecursively(directory, RecursiveDeleteOption.ALLOW_INSECURE);
+            jenkinsApi.close();
+            server.shutdown();
+        }
+    }
+
+    @Test(expectedExceptions = FileNotFoundException.class)
+    public void testBuildNotFound() throws Exception {
+        MockWebServer server = mockWebServer();
+        server.enqueue(new MockResponse().setResponseCode(404));
+        JenkinsApi jenkinsApi = api(server.url("/").url());
+        try {
+            ArtifactArchive.forEachEntry(jenkinsApi.jobsApi(), null, "fish", 10, (path, content) -> { });
+        } finally {
+            jenkinsApi.close();
+            server.shutdown();
+        }
+    }
+
+    private static Buffer zip(Map<String, String> entries) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+            for (Map.Entry<String, String> entry : entries.entrySet()) {
+                zip.putNextEntry(new ZipEntry(entry.getKey()));
+                zip.write(entry.getValue().getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+            }
+        }
+        return new Buffer().write(bytes.toByteArray());
+    }
+}
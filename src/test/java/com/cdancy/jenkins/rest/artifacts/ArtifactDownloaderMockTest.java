@@ -0,0 +1,195 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.jenkins.rest.artifacts;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.io.FileNotFoundException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okhttp3.mockwebserver.SocketPolicy;
+import okio.Buffer;
+import org.testng.annotations.Test;
+
+import com.cdancy.jenkins.rest.BaseJenkinsMockTest;
+import com.cdancy.jenkins.rest.JenkinsApi;
+import com.cdancy.jenkins.rest.domain.job.Artifact;
+import com.cdancy.jenkins.rest.domain.job.BuildInfo;
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.MoreFiles;
+import com.google.common.io.RecursiveDeleteOption;
+
+/**
+ * Mock tests for the {@link com.cdancy.jenkins.rest.artifacts.ArtifactDownloader} class.
+ */
+@Test(groups = "unit", testName = "ArtifactDownloaderMockTest")
+public class ArtifactDownloaderMockTest extends BaseJenkinsMockTest {
+
+    public void testRangedDownloadResumes() throws Exception {
+        byte[] content = content(1000000);
+        MockWebServer server = mockWebServer();
+        RangeDispatcher dispatcher = new RangeDispatcher(content, true);
+        dispatcher.failOnce.add("bytes=300001-600000");
+        server.setDispatcher(dispatcher);
+        JenkinsApi jenkinsApi = api(server.url("/").url());
+        Path directory = Files.createTempDirectory("artifacts");
+        try (ArtifactDownloader downloader = ArtifactDownloader.builder(jenkinsApi.jobsApi())
+                .chunkSize(300000).retryDelay(0, TimeUnit.MILLISECONDS).build()) {
+            Path target = downloader.download(null, "fish", 10, "dir/fish.jar", directory.resolve("fish.jar")).get(10, TimeUnit.SECONDS);
+            assertEquals(Files.readAllBytes(target), content);
+            assertFalse(Files.exists(directory.resolve("fish.jar" + ArtifactDownloader.PART_SUFFIX)));
+            assertTrue(dispatcher.sent.contains("bytes=0-0"));
+            assertTrue(dispatcher.sent.contains("bytes=900001-999999"));
+            // the failed range was resumed rather than started over
+            assertTrue(dispatcher.sent.stream().anyMatch(range -> range.startsWith("bytes=") && range.endsWith("-600000") && !range.equals("bytes=300001-600000")));
+            assertEquals(server.getRequestCount(), 6);
+            assertEquals(server.takeRequest().getPath(), "/job/fish/10/artifact/dir/fish.jar");
+        } finally {
+            MoreFiles.deleteRecursively(directory, RecursiveDeleteOption.ALLOW_INSECURE);
+            jenkinsApi.close();
+            server.shutdown();
+        }
+    }
+
+    public void testUnknownLengthRestartsWhenRangeIgnored() throws Exception {
+        byte[] content = content(5000);
+        MockWebServer server = mockWebServer();
+        server.enqueue(new MockResponse().setResponseCode(206).setHeader("Content-Range", "bytes 0-0/*")
+                .setBody(new Buffer().write(content, 0, 1)));
+        server.enqueue(new MockResponse().setBody(new Buffer().write(content)));
+        JenkinsApi jenkinsApi = api(server.url("/").url());
+        Path directory = Files.createTempDirectory("artifacts");
+        try (ArtifactDownloader downloader = ArtifactDownloader.builder(jenkinsApi.jobsApi()).chunkSize(1000).build()) {
+            Path target = downloader.download(null, "fish", 10, "fish.jar", directory.resolve("fish.jar")).get(10, TimeUnit.SECONDS);
+            assertEquals(Files.readAllBytes(target), content);
+            assertEquals(server.getRequestCount(), 2);
+            assertEquals(server.takeRequest().getHeader("Range"), "bytes=0-0");
+            assertEquals(server.takeRequest().getHeader("Range"), "bytes=1-");
+        } finally {
+            MoreFiles.deleteRecursively(directory, RecursiveDeleteOption.ALLOW_INSECURE);
+            jenkinsApi.close();
+            server.shutdown();
+        }
+    }
+
+    public void testDownloadAllWithoutRangeSupport() throws Exception {
+        byte[] content = content(5000);
+        MockWebServer server = mockWebServer();
+        server.setDispatcher(new RangeDispatcher(content, false));
+        JenkinsApi jenkinsApi = api(server.url("/").url());
+        Path directory = Files.createTempDirectory("artifacts");
+        try (ArtifactDownloader downloader = ArtifactDownloader.builder(jenkinsApi.jobsApi()).chunkSize(1000).build()) {
+            BuildInfo buildInfo = BuildInfo.create(ImmutableList.of(Artifact.create(null, "a.txt", "a.txt"), Artifact.create(null, "b.txt", "sub/b.txt")),
+                null, false, null, null, 0, 0, null, null, false, 10, 1, null, 0, null, null, null, null);
+            List<Path> paths = downloader.downloadAll("test-folder", "fish", buildInfo, directory).get(10, TimeUnit.SECONDS);
+            assertEquals(paths.size(), 2);
+            assertEquals(Files.readAllBytes(directory.resolve("a.txt")), content);
+            assertEquals(Files.readAllBytes(directory.resolve("sub/b.txt")), content);
+            assertEquals(server.getRequestCount(), 2);
+        } finally {
+            MoreFiles.deleteRecursively(directory, RecursiveDeleteOption.ALLOW_INSECURE);
+            jenkinsApi.close();
+            server.shutdown();
+        }
+    }
+
+    public void testArtifactNotFound() throws Exception {
+        MockWebServer server = mockWebServer();
+        server.enqueue(new MockResponse().setResponseCode(404));
+        JenkinsApi jenkinsApi = api(server.url("/").url());
+        Path directory = Files.createTempDirectory("artifacts");
+        try (ArtifactDownloader downloader = ArtifactDownloader.builder(jenkinsApi.jobsApi()).build()) {
+            downloader.download(null, "fish", 10, "missing.jar", directory.resolve("missing.jar")).get(10, TimeUnit.SECONDS);
+            fail("Expected missing artifact to fail the download");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause().getCause() instanceof FileNotFoundException);
+            assertFalse(Files.exists(directory.resolve("missing.jar" + ArtifactDownloader.PART_SUFFIX)));
+            assertEquals(server.getRequestCount(), 1);
+        } finally {
+            MoreFiles.deleteRecursively(directory, RecursiveDeleteOption.ALLOW_INSECURE);
+            jenkinsApi.close();
+            server.shutdown();
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testArtifactPathEscapingTarget() {
+        ArtifactDownloader.resolve(Paths.get("target"), "../../etc/passwd");
+    }
+
+    public void testTotalLength() {
+        assertEquals(ArtifactDownloader.totalLength("bytes 0-0/1234"), 1234);
+        assertEquals(ArtifactDownloader.totalLength("bytes 0-0/*"), -1);
+        assertEquals(ArtifactDownloader.totalLength(null), -1);
+    }
+
+    private static byte[] content(int size) {
+        byte[] content = new byte[size];
+        for (int i = 0; i < size; i++) {
+            content[i] = (byte) (i * 31);
+        }
+        return content;
+    }
+
+    // serves `content` honouring Range headers, optionally cutting the connection once for some ranges
+    private static final class RangeDispatcher extends Dispatcher {
+
+        private final byte[] content;
+        private final boolean ranges;
+        private final Set<String> failOnce = ConcurrentHashMap.newKeySet();
+        private final Set<String> sent = ConcurrentHashMap.newKeySet();
+
+        RangeDispatcher(byte[] content, boolean ranges) {
+            this.content = content;
+            this.ranges = ranges;
+        }
+
+        @Override
+        public MockResponse dispatch(RecordedRequest request) {
+            String range = request.getHeader("Range");
+            sent.add(range);
+            if (!ranges) {
+                return new MockResponse().setBody(new Buffer().write(content));
+            }
+            String[] bounds = range.substring("bytes=".length()).split("-", -1);
+            int start = Integer.parseInt(bounds[0]);
+            int end = bounds[1].isEmpty() ? content.length - 1 : Integer.parseInt(bounds[1]);
+            MockResponse response = new MockResponse().setResponseCode(206)
+                .setHeader("Content-Range", "bytes " + start + "-" + end + "/" + content.length)
+                .setBody(new Buffer().write(content, start, end - start + 1));
+            if (failOnce.remove(range)) {
+                response.setSocketPolicy(SocketPolicy.DISCONNECT_DURING_RESPONSE_BODY);
+            }
+            return response;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.jenkins.rest.artifacts;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileNotFoundException;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okio.Buffer;
+import org.testng.annotations.Test;
+
+import com.cdancy.jenkins.rest.BaseJenkinsMockTest;
+import com.cdancy.jenkins.rest.JenkinsApi;
+import com.google.common.hash.Hashing;
+
+/**
+ * Mock tests for the {@link com.cdancy.jenkins.rest.artifacts.ArtifactTransfers} class.
+ */
+@Test(groups = "unit", testName = "ArtifactTransfersMockTest")
+public class ArtifactTransfersMockTest extends BaseJenkinsMockTest {
+
+    public void testTransferToPathWithChecksum() throws Exception {
+        byte[] content = content(200000);
+        MockWebServer server = mockWebServer();
+        server.enqueue(new MockResponse().setBody(new Buffer().write(content)));
+        JenkinsApi jenkinsApi = api(server.url("/").url());
+        Path target = Files.createTempFile("artifact", ".jar");
+        try {
+            TransferResult result = ArtifactTransfers.builder(jenkinsApi.jobsApi()).bufferSize(4096).build()
+                .transfer(null, "fish", 10, "dir/fish.jar", target, "SHA-256");
+            assertEquals(result.size(), content.length);
+            assertEquals(result.algorithm(), "SHA-256");
+            assertEquals(result.checksum(), Hashing.sha256().hashBytes(content).toString());
+            assertEquals(Files.readAllBytes(target), content);
+            assertSentAccept(server, "GET", "/job/fish/10/artifact/dir/fish.jar", "*/*");
+        } finally {
+            Files.deleteIfExists(target);
+            jenkinsApi.close();
+            server.shutdown();
+        }
+    }
+
+    public void testTransferToPath() throws Exception {
+        byte[] content = content(200000);
+        MockWebServer server = mockWebServer();
+        server.enqueue(new MockResponse().setBody(new Buffer().write(content)));
+        JenkinsApi jenkinsApi = api(server.url("/").url());
+        Path target = Files.createTempFile("artifact", ".jar");
+        try {
+            TransferResult result = ArtifactTransfers.builder(jenkinsApi.jobsApi()).build()
+                .transfer(null, "fish", 10, "fish.jar", target, null);
+            assertEquals(result.size(), content.length);
+            assertNull(result.checksum());
+            assertEquals(Files.readAllBytes(target), content);
+        } finally {
+            Files.deleteIfExists(target);
+            jenkinsApi.close();
+            server.shutdown();
+        }
+    }
+
+    public void testTransferToChannel() throws Exception {
+        byte[] content = content(10000);
+        MockWebServer server = mockWebServer();
+        server.enqueue(new MockResponse().setBody(new Buffer().write(content)));
+        JenkinsApi jenkinsApi = api(server.url("/").url());
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            TransferResult result = ArtifactTransfers.builder(jenkinsApi.jobsApi()).build()
+                .transfer("test-folder", "fish", 10, "fish.jar", Channels.newChannel(out), "MD5");
+            assertEquals(out.toByteArray(), content);
+            assertEquals(result.checksum(), Hashing.md5().hashBytes(content).toString());
+            assertSentAccept(server, "GET", "/job/test-folder/job/fish/10/artifact/fish.jar", "*/*");
+        } finally {
+            jenkinsApi.close();
+            server.shutdown();
+        }
+    }
+
+    @Test(expectedExceptions = FileNotFoundException.class)
+    public void testArtifactNotFound() throws Exception {
+        MockWebServer server = mockWebServer();
+        server.enqueue(new MockResponse().setResponseCode(404));
+        JenkinsApi jenkinsApi = api(server.url("/").url());
+        try {
+            ArtifactTransfers.builder(jenkinsApi.jobsApi()).build()
+                .transfer(null, "fish", 10, "fish.jar", Channels.newChannel(new ByteArrayOutputStream()), null);
+        } finally {
+            jenkinsApi.close();
+            server.shutdown();
+        }
+    }
+
+    private static byte[] content(int size) {
+        byte[] content = new byte[size];
+        for (int i = 0; i < size; i++) {
+            content[i] = (byte) (i * 31);
+        }
+        return content;
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.jenkins.rest.cache;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.Stream;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.testng.annotations.Test;
+
+import com.cdancy.jenkins.rest.BaseJenkinsMockTest;
+import com.cdancy.jenkins.rest.JenkinsApi;
+import com.cdancy.jenkins.rest.domain.job.BuildInfo;
+import com.cdancy.jenkins.rest.domain.job.Workflow;
+
+/**
+ * Mock tests for the {@link com.cdancy.jenkins.rest.cache.BuildStore} class.
+ */
+@Test(groups = "unit", testName = "BuildStoreMockTest")
+public class BuildStoreMockTest extends BaseJenkinsMockTest {
+
+    public void testFinishedBuildsSurviveReopen() throws Exception {
+        MockWebServer server = mockWebServer();
+        server.enqueue(new MockResponse().setBody(payloadFromResource("/build-info.json")).setResponseCode(200));
+        String finished = payloadFromResource("/workflow.json").replaceFirst("PAUSED_PENDING_INPUT", "SUCCESS");
+        server.enqueue(new MockResponse().setBody(finished).setResponseCode(200));
+        Path directory = Files.createTempDirectory("build-store");
+        try (JenkinsApi jenkinsApi = api(server.url("/").url())) {
+            BuildInfo buildInfo;
+            Workflow workflow;
+            try (BuildStore store = BuildStore.open(directory)) {
+                CompletedBuildCache cache = CompletedBuildCache.builder(jenkinsApi.jobsApi()).store(store).build();
+                buildInfo = cache.buildInfo("test-folder", "DevTest", 1);
+                workflow = cache.workflow("test-folder", "DevTest", 1);
+                assertEquals(store.size(), 2);
+            }
+
+            try (BuildStore store = BuildStore.open(directory)) {
+                assertEquals(store.size(), 2);
+                assertTrue(store.contains("test-folder", "DevTest", 1));
+                assertFalse(store.contains(null, "DevTest", 1));
+                CompletedBuildCache cache = CompletedBuildCache.builder(jenkinsApi.jobsApi()).store(store).build();
+                assertEquals(cache.buildInfo("test-folder", "DevTest", 1), buildInfo);
+                assertEquals(cache.workflow("test-folder", "DevTest", 1), workflow);
+                assertEquals(cache.stats().storeHits(), 2);
+                assertEquals(cache.stats().misses(), 0);
+            }
+            assertEquals(server.getRequestCount(), 2);
+        } finally {
+            server.shutdown();
+            deleteRecursively(directory);
+        }
+    }
+
+    public void testTornRecordDropped() throws Exception {
+        Path directory = Files.createTempDirectory("build-store");
+        try {
+            BuildInfo buildInfo = buildInfo();
+            try (BuildStore store = BuildStore.open(directory)) {
+                store.putBuildInfo(null, "DevTest", 1, buildInfo);
+                store.putBuildInfo(null, "DevTest", 2, buildInfo);
+            }
+
+            // corrupt the value of the second record
+            Path segment = directory.resolve("segment-00000000.log");
+            try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                ByteBuffer length = ByteBuffer.allocate(4);
+                channel.read(length, 8);
+                long second = 8 + 8 + length.flip().getInt();
+                channel.write(ByteBuffer.wrap(new byte[] { '#' }), second + 8 + 40);
+            }
+
+            try (BuildStore store = BuildStore.open(directory)) {
+                assertEquals(store.size(), 1);
+                assertEquals(store.buildInfo(null, "DevTest", 1), buildInfo);
+                assertNull(store.buildInfo(null, "DevTest", 2));
+
+                // appended after the intact records, over the torn one
+                store.putBuildInfo(null, "DevTest", 3, buildInfo);
+            }
+            try (BuildStore store = BuildStore.open(directory)) {
+                assertEquals(store.size(), 2);
+                assertEquals(store.buildInfo(null, "DevTest", 3), buildInfo);
+            }
+        } finally {
+            deleteRecursively(directory);
+        }
+    }
+
+    public void testSegmentsRollOver() throws Exception {
+        Path directory = Files.createTempDirectory("build-store");
+        try {
+            BuildInfo buildInfo = buildInfo();
+            try (BuildStore store = BuildStore.builder(directory).segmentSize(4096).open()) {
+                for (int number = 1; number <= 10; number++) {
+                    store.putBuildInfo(null, "DevTest", number, buildInfo);
+                }
+                // stored again, replacing the first record
+                store.putBuildInfo(null, "DevTest", 1, buildInfo);
+            }
+            try (Stream<Path> files = Files.list(directory)) {
+                assertTrue(files.filter(file -> file.getFileName().toString().startsWith("segment-")).count() > 1);
+            }
+
+            try (BuildStore store = BuildStore.builder(directory).segmentSize(4096).open()) {
+                assertEquals(store.size(), 10);
+                for (int number = 1; number <= 10; number++) {
+                    assertEquals(store.buildInfo(null, "DevTest", number), buildInfo);
+                }
+            }
+        } finally {
+            deleteRecursively(directory);
+        }
+    }
+
+    public void testDirectoryOpenedOnce() throws Exception {
+        Path directory = Files.createTempDirectory("build-store");
+        try {
+            BuildInfo buildInfo = buildInfo();
+            try (BuildStore store = BuildStore.open(directory)) {
+                store.putBuildInfo(null, "DevTest", 1, buildInfo);
+                try (BuildStore other = BuildStore.open(directory)) {
+                    fail("Expected the directory to be locked by the first store");
+                } catch (IOException e) {
+                    assertTrue(e.getMessage().contains("is already open"), e.getMessage());
+                }
+                assertEquals(store.buildInfo(null, "DevTest", 1), buildInfo);
+            }
+
+            // released on close
+            try (BuildStore store = BuildStore.open(directory)) {
+                assertEquals(store.buildInfo(null, "DevTest", 1), buildInfo);
+            }
+        } finally {
+            deleteRecursively(directory);
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testSmallSegmentRejected() {
+        BuildStore.builder(Path.of("build-store")).segmentSize(1024);
+    }
+
+    private BuildInfo buildInfo() throws Exception {
+        MockWebServer server = mockWebServer();
+        server.enqueue(new MockResponse().setBody(payloadFromResource("/build-info.json")).setResponseCode(200));
+        try (JenkinsApi jenkinsApi = api(server.url("/").url())) {
+            return jenkinsApi.jobsApi().buildInfo(null, "DevTest", 1);
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    private static void deleteRecursively(final Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+}
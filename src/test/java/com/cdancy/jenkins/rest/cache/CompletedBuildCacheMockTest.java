@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.jenkins.rest.cache;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertSame;
+
+import java.net.URL;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.testng.annotations.Test;
+
+import com.cdancy.jenkins.rest.BaseJenkinsMockTest;
+import com.cdancy.jenkins.rest.JenkinsApi;
+import com.cdancy.jenkins.rest.domain.job.BuildInfo;
+import com.cdancy.jenkins.rest.domain.job.Workflow;
+import com.google.gson.JsonObject;
+
+/**
+ * Mock tests for the {@link com.cdancy.jenkins.rest.cache.CompletedBuildCache} class.
+ */
+@Test(groups = "unit", testName = "CompletedBuildCacheMockTest")
+public class CompletedBuildCacheMockTest extends BaseJenkinsMockTest {
+
+    public void testFinishedBuildCached() throws Exception {
+        MockWebServer server = mockWebServer();
+        server.enqueue(new MockResponse().setBody(payloadFromResource("/build-info.json")).setResponseCode(200));
+        try (JenkinsApi jenkinsApi = api(server.url("/").url())) {
+            CompletedBuildCache cache = CompletedBuildCache.builder(jenkinsApi.jobsApi()).build();
+            BuildInfo first = cache.buildInfo("test-folder", "DevTest", 1);
+            assertNotNull(first);
+            assertSame(cache.buildInfo("test-folder", "DevTest", 1), first);
+            assertEquals(server.getRequestCount(), 1);
+
+            CompletedBuildCacheStats stats = cache.stats();
+            assertEquals(stats.hits(), 1);
+            assertEquals(stats.misses(), 1);
+            assertEquals(stats.hitRatio(), 0.5);
+            assertEquals(stats.entries(), 1);
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    public void testRunningBuildsBypassed() throws Exception {
+        MockWebServer server = mockWebServer();
+        String running = payloadFromResource("/build-info.json").replace("\"building\" : false", "\"building\" : true");
+        server.enqueue(new MockResponse().setBody(running).setResponseCode(200));
+        server.enqueue(new MockResponse().setBody(running).setResponseCode(200));
+        String paused = payloadFromResource("/workflow.json");
+        server.enqueue(new MockResponse().setBody(paused).setResponseCode(200));
+        server.enqueue(new MockResponse().setBody(paused.replaceFirst("PAUSED_PENDING_INPUT", "SUCCESS")).setResponseCode(200));
+        try (JenkinsApi jenkinsApi = api(server.url("/").url())) {
+            CompletedBuildCache cache = CompletedBuildCache.builder(jenkinsApi.jobsApi()).build();
+            cache.buildInfo(null, "DevTest", 1);
+            cache.buildInfo(null, "DevTest", 1);
+            assertEquals(cache.workflow(null, "DevTest", 1).status(), "PAUSED_PENDING_INPUT");
+            Workflow finished = cache.workflow(null, "DevTest", 1);
+            assertEquals(finished.status(), "SUCCESS");
+            assertSame(cache.workflow(null, "DevTest", 1), finished);
+            assertEquals(server.getRequestCount(), 4);
+
+            CompletedBuildCacheStats stats = cache.stats();
+            assertEquals(stats.bypassed(), 3);
+            assertEquals(stats.hits(), 1);
+            assertEquals(stats.entries(), 1);
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    public void testTestReportCachedOnceFinished() throws Exception {
+        MockWebServer server = mockWebServer();
+        server.enqueue(new MockResponse().setBody("{\"building\":false}").setResponseCode(200));
+        server.enqueue(new MockResponse().setBody("{\"failCount\":0,\"passCount\":12}").setResponseCode(200));
+        try (JenkinsApi jenkinsApi = api(server.url("/").url())) {
+            CompletedBuildCache cache = CompletedBuildCache.builder(jenkinsApi.jobsApi()).build();
+            JsonObject report = cache.testReport(null, "DevTest", 1);
+            assertEquals(report.get("passCount").getAsInt(), 12);
+            assertSame(cache.testReport(null, "DevTest", 1), report);
+
+            assertSentAccept(server, "GET", "/job/DevTest/1/api/json?tree=building", "application/json");
+            assertSentAccept(server, "GET", "/job/DevTest/1/testReport/api/json", "application/json");
+            assertEquals(server.getRequestCount(), 2);
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    public void testEvictionBySize() throws Exception {
+        MockWebServer server = mockWebServer();
+        server.enqueue(new MockResponse().setBody(payloadFromResource("/build-info.json")).setResponseCode(200));
+        server.enqueue(new MockResponse().setBody(payloadFromResource("/build-info.json")).setResponseCode(200));
+        try (JenkinsApi jenkinsApi = api(server.url("/").url())) {
+            CompletedBuildCache cache = CompletedBuildCache.builder(jenkinsApi.jobsApi()).maxBytes(64).build();
+            cache.buildInfo(null, "DevTest", 1);
+            cache.buildInfo(null, "DevTest", 1);
+            assertEquals(server.getRequestCount(), 2);
+
+            CompletedBuildCacheStats stats = cache.stats();
+            assertEquals(stats.evictions(), 2);
+            assertEquals(stats.entries(), 0);
+            assertEquals(stats.weightBytes(), 0);
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testZeroSizeRejected() throws Exception {
+        try (JenkinsApi jenkinsApi = api(new URL("http://localhost:8080"))) {
+            CompletedBuildCache.builder(jenkinsApi.jobsApi()).maxBytes(0);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.jenkins.rest.crawler;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.testng.annotations.Test;
+
+import com.cdancy.jenkins.rest.BaseJenkinsMockTest;
+import com.cdancy.jenkins.rest.JenkinsApi;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Mock tests for the {@link com.cdancy.jenkins.rest.crawler.JobCrawler} class.
+ */
+@Test(groups = "unit", testName = "JobCrawlerMockTest")
+public class JobCrawlerMockTest extends BaseJenkinsMockTest {
+
+    private static final String FOLDER = "com.cloudbees.hudson.plugins.folder.Folder";
+    private static final String PROJECT = "hudson.model.FreeStyleProject";
+
+    public void testCrawlFolders() throws Exception {
+        MockWebServer server = mockWebServer();
+        server.setDispatcher(dispatcher(ImmutableMap.of(
+                "/api/json", jobs(job(FOLDER, "a"), job(FOLDER, "b"), job(PROJECT, "top")),
+                "/job/a/api/json", jobs(job(PROJECT, "a1"), job(FOLDER, "nested")),
+                "/job/a/job/nested/api/json", jobs(job(PROJECT, "n1")),
+                "/job/b/api/json", jobs())));
+        JenkinsApi jenkinsApi = api(server.url("/").url());
+        try (JobCrawler crawler = JobCrawler.builder(jenkinsApi).parallelism(2).build()) {
+            Set<String> found = ConcurrentHashMap.newKeySet();
+            long count = crawler.crawl("", (folder, job) -> found.add(folder + ":" + job.name())).get(10, TimeUnit.SECONDS);
+            assertEquals(count, 6);
+            assertEquals(found, ImmutableSet.of(":a", ":b", ":top", "a:a1", "a:nested", "a/nested:n1"));
+            assertEquals(server.getRequestCount(), 4);
+        } finally {
+            jenkinsApi.close();
+            server.shutdown();
+        }
+    }
+
+    public void testCrawlWithDeepTree() throws Exception {
+        MockWebServer server = mockWebServer();
+        server.setDispatcher(dispatcher(ImmutableMap.of(
+                "/job/root/api/json", jobs(job(FOLDER, "a", job(PROJECT, "a1"), job(FOLDER, "nested")), job(PROJECT, "top")),
+                "/job/root/job/a/job/nested/api/json", jobs(job(PROJECT, "n1")))));
+        JenkinsApi jenkinsApi = api(server.url("/").url());
+        try (JobCrawler crawler = JobCrawler.builder(jenkinsApi).levels(2).build()) {
+            Set<String> found = ConcurrentHashMap.newKeySet();
+            long count = crawler.crawl("root", (folder, job) -> found.add(folder + ":" + job.name())).get(10, TimeUnit.SECONDS);
+            assertEquals(count, 5);
+            assertEquals(found, ImmutableSet.of("root:a", "root:top", "root/a:a1", "root/a:nested", "root/a/nested:n1"));
+            assertEquals(server.getRequestCount(), 2);
+            RecordedRequest request = server.takeRequest();
+            assertEquals(request.getRequestUrl().queryParameter("tree"), JobCrawler.jobsTree(2, false).toString());
+            assertEquals(JobCrawler.jobsTree(2, false).toString(), "jobs[_class,name,url,color,jobs[_class,name,url,color]]");
+        } finally {
+            jenkinsApi.close();
+            server.shutdown();
+        }
+    }
+
+    public void testRootFolderNotFound() throws Exception {
+        MockWebServer server = mockWebServer();
+        server.enqueue(new MockResponse().setResponseCode(404));
+        JenkinsApi jenkinsApi = api(server.url("/").url());
+        try (JobCrawler crawler = JobCrawler.builder(jenkinsApi).build()) {
+            crawler.crawl("missing", (folder, job) -> { }).get(10, TimeUnit.SECONDS);
+            fail("Expected missing root folder to fail the crawl");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof NoSuchElementException);
+        } finally {
+            jenkinsApi.close();
+            server.shutdown();
+        }
+    }
+
+    private static Dispatcher dispatcher(final Map<String, String> bodies) {
+        return new Dispatcher() {
+            @Override
+            public MockResponse dispatch(final RecordedRequest request) {
+                final String body = bodies.get(request.getRequestUrl().encodedPath());
+                return body != null ? new MockResponse().setBody(body) : new MockResponse().setResponseCode(404);
+            }
+        };
+    }
+
+    private static String jobs(final String... jobs) {
+        return "{\"jobs\":[" + String.join(",", jobs) + "]}";
+    }
+
+    private static String job(final String clazz, final String name, final String... jobs) {
+        final String job = "{\"_class\":\"" + clazz + "\",\"name\":\"" + name + "\",\"url\":\"http://localhost:8080/job/" + name + "/\"";
+        return jobs.length == 0 ? job + "}" : job + ",\"jobs\":[" + String.join(",", jobs) + "]}";
+    }
+}
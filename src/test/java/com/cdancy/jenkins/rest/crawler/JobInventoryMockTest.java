@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.jenkins.rest.crawler;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.testng.annotations.Test;
+
+import com.cdancy.jenkins.rest.BaseJenkinsMockTest;
+import com.cdancy.jenkins.rest.JenkinsApi;
+
+/**
+ * Mock tests for the {@link com.cdancy.jenkins.rest.crawler.JobInventory} class.
+ */
+@Test(groups = "unit", testName = "JobInventoryMockTest")
+public class JobInventoryMockTest extends BaseJenkinsMockTest {
+
+    private static final String FOLDER = "{\"_class\":\"com.cloudbees.hudson.plugins.folder.Folder\",\"name\":\"folder\",\"url\":\"http://localhost:8080/job/folder/\",\"jobs\":[%s]}";
+    private static final String JOB = "{\"_class\":\"hudson.model.FreeStyleProject\",\"name\":\"%s\",\"url\":\"http://localhost:8080/job/%s/\",\"color\":\"%s\",\"lastBuild\":{\"number\":%d}}";
+
+    public void testRefreshReportsChanges() throws Exception {
+        MockWebServer server = mockWebServer();
+        server.enqueue(new MockResponse().setBody(jobs(String.format(FOLDER, job("a", "blue", 1)), job("b", "blue", 3), job("c", "red", 7))));
+        server.enqueue(new MockResponse().setBody(jobs(String.format(FOLDER, job("a", "blue", 1)), job("b", "red", 4), job("d", "blue", 1))));
+        JenkinsApi jenkinsApi = api(server.url("/").url());
+        try (JobInventory inventory = JobInventory.builder(jenkinsApi).build()) {
+            List<JobEvent> received = new CopyOnWriteArrayList<>();
+            inventory.addListener(received::add);
+
+            List<JobEvent> events = inventory.refresh().get(10, TimeUnit.SECONDS);
+            assertEquals(events.size(), 4);
+            assertEquals(events.stream().filter(event -> event.type() == JobEvent.Type.ADDED).count(), 4);
+            assertEquals(inventory.snapshot().get("folder/a").lastBuildNumber(), Integer.valueOf(1));
+            assertNull(inventory.snapshot().get("folder").lastBuildNumber());
+
+            events = inventory.refresh().get(10, TimeUnit.SECONDS);
+            assertEquals(events.size(), 3);
+            for (JobEvent event : events) {
+                switch (event.path()) {
+                    case "b":
+                        assertEquals(event.type(), JobEvent.Type.CHANGED);
+                        assertEquals(event.previous().color(), "blue");
+                        assertEquals(event.current().lastBuildNumber(), Integer.valueOf(4));
+                        break;
+                    case "c":
+                        assertEquals(event.type(), JobEvent.Type.REMOVED);
+                        assertNull(event.current());
+                        break;
+                    default:
+                        assertEquals(event.path(), "d");
+                        assertEquals(event.type(), JobEvent.Type.ADDED);
+                }
+            }
+            assertEquals(received.size(), 7);
+            assertEquals(inventory.snapshot().size(), 4);
+
+            assertEquals(server.getRequestCount(), 2);
+            assertEquals(server.takeRequest().getRequestUrl().queryParameter("tree"), JobCrawler.jobsTree(4, true).toString());
+        } finally {
+            jenkinsApi.close();
+            server.shutdown();
+        }
+    }
+
+    public void testFailedRefreshKeepsSnapshot() throws Exception {
+        MockWebServer server = mockWebServer();
+        server.enqueue(new MockResponse().setBody(jobs(job("a", "blue", 1))));
+        server.enqueue(new MockResponse().setResponseCode(404));
+        JenkinsApi jenkinsApi = api(server.url("/").url());
+        try (JobInventory inventory = JobInventory.builder(jenkinsApi).levels(1).build()) {
+            inventory.refresh().get(10, TimeUnit.SECONDS);
+            assertEquals(inventory.refresh().handle((events, error) -> error != null).get(10, TimeUnit.SECONDS), Boolean.TRUE);
+            assertEquals(inventory.snapshot().keySet().iterator().next(), "a");
+        } finally {
+            jenkinsApi.close();
+            server.shutdown();
+        }
+    }
+
+    private static String jobs(final String... jobs) {
+        return "{\"jobs\":[" + String.join(",", jobs) + "]}";
+    }
+
+    private static String job(final String name, final String color, final int lastBuild) {
+        return String.format(JOB, name, name, color, lastBuild);
+    }
+}
@@ -20,6 +20,7 @@ import com.cdancy.jenkins.rest.BaseJenkinsMockTest;
 import com.cdancy.jenkins.rest.JenkinsApi;
 import com.cdancy.jenkins.rest.domain.common.LongResponse;
 import com.cdancy.jenkins.rest.domain.common.RequestStatus;
+import com.cdancy.jenkins.rest.domain.common.Tree;
 import com.cdancy.jenkins.rest.domain.job.*;
 import com.google.common.collect.Lists;
 import com.google.gson.JsonObject;
@@ -61,6 +62,68 @@ public class JobsApiMockTest extends BaseJenkinsMockTest {
         }
     }
 
+    public void testGetJobListWithTree() throws Exception {
+        MockWebServer server = mockWebServer();
+
+        server.enqueue(new MockResponse().setBody("{\"jobs\":[{\"name\":\"Test\",\"url\":\"http://localhost:8080/job/Folder1/job/Test/\","
+            + "\"lastBuild\":{\"number\":4,\"result\":\"FAILURE\"}}]}").setResponseCode(200));
+        JenkinsApi jenkinsApi = api(server.url("/").url());
+        JobsApi api = jenkinsApi.jobsApi();
+        try {
+            Tree tree = Tree.builder()
+                .field("jobs", Tree.builder().field("lastBuild", Tree.of("number", "result")).build(), 0, 100)
+                .build();
+            assertEquals(tree.toString(), "jobs[lastBuild[number,result]]{0,100}");
+            JobList output = api.jobList("Folder1", tree.toString());
+            assertNotNull(output);
+            assertEquals(output.jobs().size(), 1);
+            assertEquals(output.jobs().get(0).name(), "Test");
+            assertEquals(output.jobs().get(0).lastBuild().number(), 4);
+            assertEquals(output.jobs().get(0).lastBuild().result(), "FAILURE");
+            Map<String, Object> queryParams = new HashMap<>();
+            queryParams.put("tree", "jobs%5Bname,url,lastBuild%5Bnumber,result%5D%5D%7B0,100%7D");
+            assertSent(server, "GET", "/job/Folder1/api/json", queryParams);
+        } finally {
+            jenkinsApi.close();
+            server.shutdown();
+        }
+    }
+
+    public void testGetJobListWithNestedFolderTree() throws Exception {
+        MockWebServer server = mockWebServer();
+
+        server.enqueue(new MockResponse().setBody("{\"jobs\":[{\"name\":\"Folder2\",\"url\":\"http://localhost:8080/job/Folder1/job/Folder2/\","
+            + "\"jobs\":[{\"name\":\"Test\",\"url\":\"http://localhost:8080/job/Folder1/job/Folder2/job/Test/\",\"color\":\"blue\"}]}]}").setResponseCode(200));
+        JenkinsApi jenkinsApi = api(server.url("/").url());
+        JobsApi api = jenkinsApi.jobsApi();
+        try {
+            JobList output = api.jobList("Folder1", "jobs[jobs[color]]");
+            assertNotNull(output);
+            assertEquals(output.jobs().get(0).jobs().get(0).color(), "blue");
+            assertEquals(server.takeRequest().getRequestUrl().queryParameter("tree"), "jobs[name,url,jobs[name,url,color]]");
+        } finally {
+            jenkinsApi.close();
+            server.shutdown();
+        }
+    }
+
+    public void testGetJobListWithTreeWithoutJobs() throws Exception {
+        MockWebServer server = mockWebServer();
+
+        server.enqueue(new MockResponse().setBody("{\"url\":\"http://localhost:8080/job/Folder1/\",\"jobs\":[]}").setResponseCode(200));
+        JenkinsApi jenkinsApi = api(server.url("/").url());
+        JobsApi api = jenkinsApi.jobsApi();
+        try {
+            JobList output = api.jobList("Folder1", "url");
+            assertNotNull(output);
+            assertEquals(output.url(), "http://localhost:8080/job/Folder1/");
+            assertEquals(server.takeRequest().getRequestUrl().queryParameter("tree"), "url,jobs[name,url]");
+        } finally {
+            jenkinsApi.close();
+            server.shutdown();
+        }
+    }
+
     public void testGetRootFolderJobList() throws Exception {
         MockWebServer server = mockWebServer();
 
@@ -99,6 +162,48 @@ public class JobsApiMockTest extends BaseJenkinsMockTest {
         }
     }
 
+    public void testGetJobInfoWithTree() throws Exception {
+        MockWebServer server = mockWebServer();
+
+        server.enqueue(new MockResponse().setBody("{\"name\":\"fish\",\"url\":\"http://localhost:8080/job/fish/\",\"builds\":[{\"number\":1,\"building\":true}]}").setResponseCode(200));
+        JenkinsApi jenkinsApi = api(server.url("/").url());
+        JobsApi api = jenkinsApi.jobsApi();
+        try {
+            JobInfo output = api.jobInfo(null, "fish", "name,url,builds[number,building]");
+            assertNotNull(output);
+            assertEquals(output.builds().size(), 1);
+            assertTrue(output.builds().get(0).building());
+            Map<String, Object> queryParams = new HashMap<>();
+            queryParams.put("tree", "name,url,builds%5Bnumber,building%5D");
+            assertSent(server, "GET", "/job/fish/api/json", queryParams);
+        } finally {
+            jenkinsApi.close();
+            server.shutdown();
+        }
+    }
+
+    public void testGetJobInfoWithTreeAddsRequiredFields() throws Exception {
+        MockWebServer server = mockWebServer();
+
+        server.enqueue(new MockResponse().setBody("{\"name\":\"fish\",\"url\":\"http://localhost:8080/job/fish/\",\"lastBuild\":{\"number\":3,\"result\":\"FAILURE\"}}").setResponseCode(200));
+        JenkinsApi jenkinsApi = api(server.url("/").url());
+        JobsApi api = jenkinsApi.jobsApi();
+        try {
+            Tree tree = Tree.builder().field("lastBuild", Tree.of("number", "result")).build();
+            JobInfo output = api.jobInfo(null, "fish", tree.toString());
+            assertNotNull(output);
+            assertEquals(output.name(), "fish");
+            assertEquals(output.lastBuild().number(), 3);
+            assertEquals(output.lastBuild().result(), "FAILURE");
+            Map<String, Object> queryParams = new HashMap<>();
+            queryParams.put("tree", "name,url,lastBuild%5Bnumber,result%5D");
+            assertSent(server, "GET", "/job/fish/api/json", queryParams);
+        } finally {
+            jenkinsApi.close();
+            server.shutdown();
+        }
+    }
+
     public void testGetJobInfoNotFound() throws Exception {
         MockWebServer server = mockWebServer();
 
@@ -115,6 +220,27 @@ public class JobsApiMockTest extends BaseJenkinsMockTest {
         }
     }
 
+    public void testGetBuildInfoWithTree() throws Exception {
+        MockWebServer server = mockWebServer();
+
+        server.enqueue(new MockResponse().setBody("{\"number\":10,\"result\":\"SUCCESS\",\"building\":false}").setResponseCode(200));
+        JenkinsApi jenkinsApi = api(server.url("/").url());
+        JobsApi api = jenkinsApi.jobsApi();
+        try {
+            BuildInfo output = api.buildInfo(null, "fish", 10, Tree.of("number", "result", "building").toString());
+            assertNotNull(output);
+            assertEquals(output.number(), 10);
+            assertEquals(output.result(), "SUCCESS");
+            assertTrue(output.artifacts().isEmpty());
+            Map<String, Object> queryParams = new HashMap<>();
+            queryParams.put("tree", "number,result,building");
+            assertSent(server, "GET", "/job/fish/10/api/json", queryParams);
+        } finally {
+            jenkinsApi.close();
+            server.shutdown();
+        }
+    }
+
     public void testGetBuildInfo() throws Exception {
         MockWebServer server = mockWebServer();
 
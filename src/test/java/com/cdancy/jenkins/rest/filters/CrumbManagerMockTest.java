@@ -0,0 +1,126 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.jenkins.rest.filters;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.testng.annotations.Test;
+
+import com.cdancy.jenkins.rest.BaseJenkinsMockTest;
+import com.cdancy.jenkins.rest.JenkinsApi;
+import com.cdancy.jenkins.rest.exception.ForbiddenException;
+
+/**
+ * Mock tests for the {@link com.cdancy.jenkins.rest.filters.CrumbManager} class.
+ */
+@Test(groups = "unit", testName = "CrumbManagerMockTest")
+public class CrumbManagerMockTest extends BaseJenkinsMockTest {
+
+    private static final String INVALID_CRUMB = "<html><body>No valid crumb was included in the request</body></html>";
+
+    public void testRetryWithNewCrumbOnInvalidCrumb() throws Exception {
+        MockWebServer server = mockWebServer();
+        server.enqueue(new MockResponse().setBody("Jenkins-Crumb:first").setResponseCode(200));
+        server.enqueue(new MockResponse().setBody(INVALID_CRUMB).setResponseCode(403));
+        server.enqueue(new MockResponse().setBody("Jenkins-Crumb:second").setResponseCode(200));
+        server.enqueue(new MockResponse().setResponseCode(200));
+        JenkinsApi jenkinsApi = anonymousAuthApi(server.url("/").url());
+        try {
+            assertTrue(jenkinsApi.jobsApi().enable(null, "DevTest"));
+            assertEquals(server.getRequestCount(), 4);
+            server.takeRequest();
+            assertEquals(server.takeRequest().getHeader("Jenkins-Crumb"), "first");
+            server.takeRequest();
+            assertEquals(server.takeRequest().getHeader("Jenkins-Crumb"), "second");
+        } finally {
+            jenkinsApi.close();
+            server.shutdown();
+        }
+    }
+
+    public void testRetryOnlyOnce() throws Exception {
+        MockWebServer server = mockWebServer();
+        server.enqueue(new MockResponse().setBody("Jenkins-Crumb:first").setResponseCode(200));
+        server.enqueue(new MockResponse().setBody(INVALID_CRUMB).setResponseCode(403));
+        server.enqueue(new MockResponse().setBody("Jenkins-Crumb:second").setResponseCode(200));
+        server.enqueue(new MockResponse().setBody(INVALID_CRUMB).setResponseCode(403));
+        JenkinsApi jenkinsApi = anonymousAuthApi(server.url("/").url());
+        try {
+            jenkinsApi.jobsApi().enable(null, "DevTest");
+            fail("Expected the second rejection to be reported");
+        } catch (ForbiddenException e) {
+            assertTrue(e.getMessage().contains("No valid crumb"));
+            assertEquals(server.getRequestCount(), 4);
+        } finally {
+            jenkinsApi.close();
+            server.shutdown();
+        }
+    }
+
+    public void testCrumbReusedUntilExpired() throws Exception {
+        MockWebServer server = mockWebServer();
+        server.enqueue(new MockResponse().setBody("Jenkins-Crumb:first").setResponseCode(200));
+        server.enqueue(new MockResponse().setBody("Jenkins-Crumb:second").setResponseCode(200));
+        JenkinsApi jenkinsApi = anonymousAuthApi(server.url("/").url());
+        try {
+            CrumbManager crumbManager = new CrumbManager(jenkinsApi, 200, TimeUnit.MILLISECONDS, null);
+            assertEquals(crumbManager.crumb().value(), "first");
+            assertEquals(crumbManager.crumb().value(), "first");
+            assertEquals(server.getRequestCount(), 1);
+
+            Thread.sleep(250);
+            assertEquals(crumbManager.crumb().value(), "second");
+            assertEquals(server.getRequestCount(), 2);
+        } finally {
+            jenkinsApi.close();
+            server.shutdown();
+        }
+    }
+
+    public void testConcurrentInvalidationFetchesOnce() throws Exception {
+        MockWebServer server = mockWebServer();
+        server.enqueue(new MockResponse().setBody("Jenkins-Crumb:first").setResponseCode(200));
+        server.enqueue(new MockResponse().setBody("Jenkins-Crumb:second").setResponseCode(200));
+        JenkinsApi jenkinsApi = anonymousAuthApi(server.url("/").url());
+        ExecutorService other = Executors.newSingleThreadExecutor();
+        try {
+            CrumbManager crumbManager = new CrumbManager(jenkinsApi, 0, TimeUnit.SECONDS, null);
+            assertEquals(crumbManager.crumb().value(), "first");
+            assertEquals(other.submit(() -> crumbManager.crumb().value()).get(), "first");
+
+            // both threads saw the first crumb rejected, only the first invalidation discards it
+            assertTrue(crumbManager.invalidate());
+            assertEquals(crumbManager.crumb().value(), "second");
+            assertTrue(other.submit(crumbManager::invalidate).get());
+            assertEquals(other.submit(() -> crumbManager.crumb().value()).get(), "second");
+            assertEquals(server.getRequestCount(), 2);
+        } finally {
+            other.shutdownNow();
+            jenkinsApi.close();
+            server.shutdown();
+        }
+    }
+}
@@ -30,6 +30,7 @@ import org.jclouds.http.HttpRequest;
 
 import org.testng.annotations.Test;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
 import static org.testng.Assert.assertTrue;
 
 import com.google.common.collect.Multimap;
@@ -129,4 +130,44 @@ public class JenkinsAuthenticationFilterMockTest extends BaseJenkinsMockTest {
             server.shutdown();
         }
     }
+
+    @Test
+    public void testUserInjectedWithAuthentication() throws Exception {
+        MockWebServer server = mockWebServer();
+
+        JenkinsApi jenkinsApi = api(server.url("/").url());
+
+        JenkinsAuthentication creds = creds(AuthenticationType.UsernameApiToken, "random_user:random_token");
+        JenkinsAuthenticationFilter filter = new JenkinsAuthenticationFilter(creds, jenkinsApi);
+        JenkinsUserInjectionFilter userFilter = new JenkinsUserInjectionFilter(creds, filter);
+        HttpRequest httpRequest = HttpRequest.builder().endpoint(server.url("/user/%7Buser%7D/api/json").url().toString()).method("GET").build();
+        try {
+            httpRequest = userFilter.filter(httpRequest);
+            assertEquals(httpRequest.getEndpoint().toString(), server.url("/user/random_user/api/json").url().toString());
+            Multimap<String,String> headers = httpRequest.getHeaders();
+            assertEquals(headers.size(), 1);
+            assertTrue(headers.containsEntry("Authorization", creds.authHeader()));
+        } finally {
+            jenkinsApi.close();
+            server.shutdown();
+        }
+    }
+
+    @Test
+    public void testAnonymousGetIsNotRebuilt() throws Exception {
+        MockWebServer server = mockWebServer();
+
+        JenkinsApi jenkinsApi = anonymousAuthApi(server.url("/").url());
+
+        JenkinsAuthentication creds = creds(AuthenticationType.Anonymous, null);
+        JenkinsAuthenticationFilter filter = new JenkinsAuthenticationFilter(creds, jenkinsApi);
+        HttpRequest httpRequest = HttpRequest.builder().endpoint(server.url("/").url().toString()).method("GET").build();
+        try {
+            assertSame(filter.filter(httpRequest), httpRequest);
+            assertEquals(server.getRequestCount(), 0);
+        } finally {
+            jenkinsApi.close();
+            server.shutdown();
+        }
+    }
 }
@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.jenkins.rest.http;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.jclouds.Constants;
+import org.testng.annotations.Test;
+
+import com.cdancy.jenkins.rest.BaseJenkinsMockTest;
+import com.cdancy.jenkins.rest.JenkinsClient;
+import com.cdancy.jenkins.rest.metrics.SimpleJenkinsMetrics;
+
+/**
+ * Mock tests for the {@link com.cdancy.jenkins.rest.http.AdaptiveConcurrencyLimit} class.
+ */
+@Test(groups = "unit", testName = "AdaptiveConcurrencyLimitMockTest")
+public class AdaptiveConcurrencyLimitMockTest extends BaseJenkinsMockTest {
+
+    public void testLimitHalvedOnOverloadAndGrownOnSuccess() throws Exception {
+        MockWebServer server = mockWebServer();
+        server.enqueue(new MockResponse().setResponseCode(503));
+        server.enqueue(new MockResponse().setResponseCode(504));
+        server.enqueue(systemInfoResponse());
+        SimpleJenkinsMetrics metrics = new SimpleJenkinsMetrics();
+        try (JenkinsClient client = client(server, metrics, null)) {
+            assertFalse(client.api().systemApi().systemInfo().errors().isEmpty());
+            assertEquals(metrics.concurrencyLimit(), 2);
+            assertFalse(client.api().systemApi().systemInfo().errors().isEmpty());
+            assertEquals(metrics.concurrencyLimit(), 1);
+            assertTrue(client.api().systemApi().systemInfo().errors().isEmpty());
+            assertEquals(metrics.concurrencyLimit(), 2);
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    public void testLimitHalvedOnSlowResponse() throws Exception {
+        MockWebServer server = mockWebServer();
+        server.enqueue(systemInfoResponse().setHeadersDelay(300, TimeUnit.MILLISECONDS));
+        SimpleJenkinsMetrics metrics = new SimpleJenkinsMetrics();
+        try (JenkinsClient client = client(server, metrics, Duration.ofMillis(100))) {
+            assertTrue(client.api().systemApi().systemInfo().errors().isEmpty());
+            assertEquals(metrics.concurrencyLimit(), 2);
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    public void testLatencyExcludesClientSideQueueing() throws Exception {
+        SimpleJenkinsMetrics metrics = new SimpleJenkinsMetrics();
+        AdaptiveConcurrencyLimit adaptiveLimit = new AdaptiveConcurrencyLimit(metrics, 4, 8, 100);
+        Runnable release = adaptiveLimit.acquire(0);
+        // waiting for a connection once room was made
+        Thread.sleep(300);
+        adaptiveLimit.markSent();
+        adaptiveLimit.onResponse(200);
+        release.run();
+        assertEquals(adaptiveLimit.limit(), 4);
+
+        release = adaptiveLimit.acquire(0);
+        adaptiveLimit.markSent();
+        Thread.sleep(300);
+        adaptiveLimit.onResponse(200);
+        release.run();
+        assertEquals(adaptiveLimit.limit(), 2);
+        assertEquals(metrics.concurrencyLimit(), 2);
+    }
+
+    public void testWaitForRoomTimesOut() throws Exception {
+        MockWebServer server = mockWebServer();
+        server.enqueue(new MockResponse().setBody("artifact").setResponseCode(200));
+        server.enqueue(systemInfoResponse());
+        server.enqueue(systemInfoResponse());
+        Properties overrides = new Properties();
+        overrides.setProperty(Constants.PROPERTY_MAX_RETRIES, "0");
+        try (JenkinsClient client = JenkinsClient.builder()
+                .endPoint(server.url("/").toString())
+                .apiToken(USERNAME_APITOKEN)
+                .overrides(overrides)
+                .adaptiveConcurrency(1, 1, null)
+                .connectTimeout(Duration.ofMillis(200))
+                .build()) {
+            try (InputStream artifact = client.api().jobsApi().artifact(null, "DevTest", 1, "file.txt")) {
+                assertNotNull(artifact);
+                try {
+                    client.api().jobsApi().jobInfo(null, "DevTest");
+                    fail("Expected the only request allowed in flight to be taken");
+                } catch (RuntimeException e) {
+                    assertTrue(e.getMessage().contains("allowed by the adaptive concurrency limit"), e.getMessage());
+                }
+            }
+            // header-only responses give their room back straight away
+            assertTrue(client.api().systemApi().systemInfo().errors().isEmpty());
+            assertTrue(client.api().systemApi().systemInfo().errors().isEmpty());
+            assertEquals(server.getRequestCount(), 3);
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testMaxBelowInitialRejected() {
+        JenkinsClient.builder().adaptiveConcurrency(8, 4, null);
+    }
+
+    private static MockResponse systemInfoResponse() {
+        return new MockResponse().setHeader("X-Hudson", "1.395").setHeader("X-Jenkins", "2.0")
+                .setHeader("X-Jenkins-Session", "cc323b8d").setHeader("X-Instance-Identity", "fdsa")
+                .setHeader("X-SSH-Endpoint", "127.0.1.1:46126").setHeader("Server", "Jetty(winstone-2.9)").setResponseCode(200);
+    }
+
+    private static JenkinsClient client(final MockWebServer server, final SimpleJenkinsMetrics metrics, final Duration latencyThreshold) {
+        Properties overrides = new Properties();
+        overrides.setProperty(Constants.PROPERTY_MAX_RETRIES, "0");
+        return JenkinsClient.builder()
+                .endPoint(server.url("/").toString())
+                .apiToken(USERNAME_APITOKEN)
+                .overrides(overrides)
+                .adaptiveConcurrency(4, 8, latencyThreshold)
+                .metrics(metrics)
+                .build();
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.jenkins.rest.http;
+
+import static com.google.common.io.BaseEncoding.base64;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.testng.annotations.Test;
+
+import com.cdancy.jenkins.rest.BaseJenkinsMockTest;
+import com.cdancy.jenkins.rest.JenkinsClient;
+import com.cdancy.jenkins.rest.JenkinsConstants;
+import com.cdancy.jenkins.rest.domain.common.LongResponse;
+import com.cdancy.jenkins.rest.domain.job.JobInfo;
+import com.cdancy.jenkins.rest.metrics.SimpleJenkinsMetrics;
+import com.google.common.collect.Lists;
+
+/**
+ * Mock tests for the {@link com.cdancy.jenkins.rest.http.Transport#HTTP_CLIENT} transport.
+ */
+@Test(groups = "unit", testName = "HttpClientTransportMockTest")
+public class HttpClientTransportMockTest extends BaseJenkinsMockTest {
+
+    public void testGetReusesConnection() throws Exception {
+        MockWebServer server = mockWebServer();
+        String body = payloadFromResource("/job-info.json");
+        server.enqueue(new MockResponse().setBody(body).setResponseCode(200));
+        server.enqueue(new MockResponse().setResponseCode(404));
+        SimpleJenkinsMetrics metrics = new SimpleJenkinsMetrics();
+        try (JenkinsClient client = JenkinsClient.builder()
+                .endPoint(server.url("/").toString())
+                .apiToken(USERNAME_APITOKEN)
+                .transport(Transport.HTTP_CLIENT)
+                .metrics(metrics)
+                .build()) {
+            JobInfo output = client.api().jobsApi().jobInfo(null, "DevTest");
+            assertNotNull(output);
+            assertEquals(output.name(), "fish");
+            // HttpClient returns the connection to its pool asynchronously
+            Thread.sleep(50);
+            assertNull(client.api().jobsApi().jobInfo(null, "DevTest"));
+
+            RecordedRequest first = server.takeRequest();
+            assertEquals(first.getMethod(), "GET");
+            assertEquals(first.getPath(), "/job/DevTest/api/json");
+            assertEquals(first.getHeader("Authorization"), "Basic " + base64().encode(USERNAME_APITOKEN.getBytes(UTF_8)));
+            // HTTP/2 is asked for, MockWebServer declines the upgrade
+            assertEquals(first.getHeader("Upgrade"), "h2c");
+            assertEquals(server.takeRequest().getSequenceNumber(), 1);
+            assertEquals(metrics.operation("jobs:job-info").bytesReceived(), body.length());
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    public void testPostFormAsHttp11() throws Exception {
+        MockWebServer server = mockWebServer();
+        server.enqueue(new MockResponse().setHeader("Location", "http://127.0.1.1:8080/queue/item/1/").setResponseCode(201));
+        Properties overrides = new Properties();
+        overrides.setProperty(JenkinsConstants.TRANSPORT_PROPERTY, "http_client");
+        overrides.setProperty(JenkinsConstants.HTTP_VERSION_PROPERTY, "HTTP_1_1");
+        try (JenkinsClient client = JenkinsClient.builder()
+                .endPoint(server.url("/").toString())
+                .apiToken(USERNAME_APITOKEN)
+                .overrides(overrides)
+                .build()) {
+            Map<String, List<String>> params = new HashMap<>();
+            params.put("SomeKey", Lists.newArrayList("SomeVeryNewValue"));
+            LongResponse output = client.api().jobsApi().buildWithParameters(null, "DevTest", params);
+            assertEquals((long) output.value(), 1);
+            assertEquals(output.errors().size(), 0);
+
+            RecordedRequest request = server.takeRequest();
+            assertEquals(request.getMethod(), "POST");
+            assertEquals(request.getPath(), "/job/DevTest/buildWithParameters");
+            assertNull(request.getHeader("Upgrade"));
+            assertEquals(request.getHeader("Content-Type"), "application/x-www-form-urlencoded");
+            assertEquals(request.getBody().readUtf8(), "SomeKey=SomeVeryNewValue");
+        } finally {
+            server.shutdown();
+        }
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.jenkins.rest.http;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.jclouds.Constants;
+import org.testng.annotations.Test;
+
+import com.cdancy.jenkins.rest.BaseJenkinsMockTest;
+import com.cdancy.jenkins.rest.JenkinsClient;
+import com.cdancy.jenkins.rest.domain.job.JobInfo;
+import com.cdancy.jenkins.rest.metrics.SimpleJenkinsMetrics;
+
+/**
+ * Mock tests for the {@link com.cdancy.jenkins.rest.http.RequestThrottle} class.
+ */
+@Test(groups = "unit", testName = "RequestThrottleMockTest")
+public class RequestThrottleMockTest extends BaseJenkinsMockTest {
+
+    public void testMaxInFlightReads() throws Exception {
+        MockWebServer server = mockWebServer();
+        server.enqueue(new MockResponse().setBody("artifact").setResponseCode(200));
+        server.enqueue(new MockResponse().setBody(payloadFromResource("/job-info.json")).setResponseCode(200));
+        SimpleJenkinsMetrics metrics = new SimpleJenkinsMetrics();
+        try (JenkinsClient client = JenkinsClient.builder()
+                .endPoint(server.url("/").toString())
+                .apiToken(USERNAME_APITOKEN)
+                .throttle(RequestThrottle.READS, 0, 1)
+                .metrics(metrics)
+                .build()) {
+            CompletableFuture<JobInfo> jobInfo;
+            try (InputStream artifact = client.api().jobsApi().artifact(null, "DevTest", 1, "file.txt")) {
+                assertNotNull(artifact);
+                jobInfo = client.asyncApi().jobsApi().jobInfo(null, "DevTest");
+                Thread.sleep(200);
+                assertFalse(jobInfo.isDone());
+                assertEquals(server.getRequestCount(), 1);
+            }
+            assertNotNull(jobInfo.get(5, TimeUnit.SECONDS));
+
+            SimpleJenkinsMetrics.Operation queued = metrics.operation("jobs:job-info");
+            assertEquals(queued.throttled(), 1);
+            assertTrue(queued.queuedNanos() >= TimeUnit.MILLISECONDS.toNanos(150), Long.toString(queued.queuedNanos()));
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    public void testMaxInFlightReleasedByHeaderOnlyResponses() throws Exception {
+        MockWebServer server = mockWebServer();
+        server.enqueue(new MockResponse().setHeader("Location", "http://127.0.1.1:8080/queue/item/1/").setResponseCode(201));
+        server.enqueue(new MockResponse().setHeader("Location", "http://127.0.1.1:8080/queue/item/2/")
+                .setBody("<html>queued</html>").setResponseCode(201));
+        server.enqueue(new MockResponse().setHeader("Location", "http://127.0.1.1:8080/queue/item/3/").setResponseCode(201));
+        try (JenkinsClient client = JenkinsClient.builder()
+                .endPoint(server.url("/").toString())
+                .apiToken(USERNAME_APITOKEN)
+                .throttle("jobs:build", 1, 1)
+                .connectTimeout(Duration.ofSeconds(3))
+                .build()) {
+            assertEquals(client.api().jobsApi().build(null, "DevTest").value(), Long.valueOf(1));
+            assertEquals(client.api().jobsApi().build(null, "DevTest").value(), Long.valueOf(2));
+            assertEquals(client.api().jobsApi().build(null, "DevTest").value(), Long.valueOf(3));
+            assertEquals(server.getRequestCount(), 3);
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    public void testMaxInFlightTimesOut() throws Exception {
+        MockWebServer server = mockWebServer();
+        server.enqueue(new MockResponse().setBody("artifact").setResponseCode(200));
+        Properties overrides = new Properties();
+        overrides.setProperty(Constants.PROPERTY_MAX_RETRIES, "0");
+        try (JenkinsClient client = JenkinsClient.builder()
+                .endPoint(server.url("/").toString())
+                .apiToken(USERNAME_APITOKEN)
+                .throttle(RequestThrottle.READS, 0, 1)
+                .connectTimeout(Duration.ofMillis(200))
+                .overrides(overrides)
+                .build()) {
+            try (InputStream artifact = client.api().jobsApi().artifact(null, "DevTest", 1, "file.txt")) {
+                assertNotNull(artifact);
+                try {
+                    client.api().jobsApi().jobInfo(null, "DevTest");
+                    fail("Expected the only request in flight to be taken");
+                } catch (RuntimeException e) {
+                    assertTrue(e.getMessage().contains("waiting for one of the 1 requests in flight allowed for jobs:job-info"),
+                            e.getMessage());
+                }
+            }
+            assertEquals(server.getRequestCount(), 1);
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    public void testRatePerOperation() throws Exception {
+        MockWebServer server = mockWebServer();
+        for (int i = 0; i < 4; i++) {
+            server.enqueue(new MockResponse().setHeader("Location", "http://127.0.1.1:8080/queue/item/1/").setResponseCode(201));
+        }
+        server.enqueue(new MockResponse().setBody(payloadFromResource("/job-info.json")).setResponseCode(200));
+        SimpleJenkinsMetrics metrics = new SimpleJenkinsMetrics();
+        try (JenkinsClient client = JenkinsClient.builder()
+                .endPoint(server.url("/").toString())
+                .apiToken(USERNAME_APITOKEN)
+                .throttle("jobs:build", 5, 0)
+                .metrics(metrics)
+                .build()) {
+            long start = System.nanoTime();
+            for (int i = 0; i < 4; i++) {
+                assertEquals(client.api().jobsApi().build(null, "DevTest").errors().size(), 0);
+            }
+            // the first build goes straight through, the others are 200ms apart
+            assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(550));
+            assertNotNull(client.api().jobsApi().jobInfo(null, "DevTest"));
+
+            assertEquals(metrics.operation("jobs:build").throttled(), 4);
+            assertEquals(metrics.operation("jobs:job-info").throttled(), 0);
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testThrottleWithoutLimitRejected() {
+        JenkinsClient.builder().throttle(RequestThrottle.WRITES, 0, 0);
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.jenkins.rest.http;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+import java.util.Collections;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.testng.annotations.Test;
+
+import com.cdancy.jenkins.rest.BaseJenkinsMockTest;
+import com.cdancy.jenkins.rest.JenkinsClient;
+import com.cdancy.jenkins.rest.domain.job.JobInfo;
+import com.cdancy.jenkins.rest.metrics.SimpleJenkinsMetrics;
+
+/**
+ * Mock tests for the {@link com.cdancy.jenkins.rest.http.ResponseCache} class.
+ */
+@Test(groups = "unit", testName = "ResponseCacheMockTest")
+public class ResponseCacheMockTest extends BaseJenkinsMockTest {
+
+    public void testNotModifiedServedFromCache() throws Exception {
+        MockWebServer server = mockWebServer();
+        server.enqueue(new MockResponse().setBody(payloadFromResource("/job-info.json")).setHeader("ETag", "\"abc\"").setResponseCode(200));
+        server.enqueue(new MockResponse().setResponseCode(304));
+        SimpleJenkinsMetrics metrics = new SimpleJenkinsMetrics();
+        try (JenkinsClient client = JenkinsClient.builder()
+                .endPoint(server.url("/").toString())
+                .apiToken(USERNAME_APITOKEN)
+                .responseCache(1024 * 1024)
+                .metrics(metrics)
+                .build()) {
+            JobInfo first = client.api().jobsApi().jobInfo(null, "DevTest");
+            JobInfo second = client.api().jobsApi().jobInfo(null, "DevTest");
+            assertEquals(second, first);
+
+            assertNull(server.takeRequest().getHeader("If-None-Match"));
+            assertEquals(server.takeRequest().getHeader("If-None-Match"), "\"abc\"");
+            SimpleJenkinsMetrics.Operation jobInfo = metrics.operation("jobs:job-info");
+            assertEquals(jobInfo.cacheMisses(), 1);
+            assertEquals(jobInfo.cacheHits(), 1);
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    public void testLastModifiedWithHttpClient() throws Exception {
+        MockWebServer server = mockWebServer();
+        String lastModified = "Wed, 21 Oct 2015 07:28:00 GMT";
+        server.enqueue(new MockResponse().setBody("<project/>").setHeader("Last-Modified", lastModified).setResponseCode(200));
+        server.enqueue(new MockResponse().setResponseCode(304));
+        server.enqueue(new MockResponse().setBody("<project><disabled>true</disabled></project>").setResponseCode(200));
+        SimpleJenkinsMetrics metrics = new SimpleJenkinsMetrics();
+        try (JenkinsClient client = JenkinsClient.builder()
+                .endPoint(server.url("/").toString())
+                .apiToken(USERNAME_APITOKEN)
+                .transport(Transport.HTTP_CLIENT)
+                .responseCache(1024 * 1024)
+                .metrics(metrics)
+                .build()) {
+            assertEquals(client.api().jobsApi().config(null, "DevTest"), "<project/>");
+            assertEquals(client.api().jobsApi().config(null, "DevTest"), "<project/>");
+            // changed, and no longer carrying validators
+            assertEquals(client.api().jobsApi().config(null, "DevTest"), "<project><disabled>true</disabled></project>");
+
+            assertNull(server.takeRequest().getHeader("If-Modified-Since"));
+            assertEquals(server.takeRequest().getHeader("If-Modified-Since"), lastModified);
+            assertEquals(server.takeRequest().getHeader("If-Modified-Since"), lastModified);
+            SimpleJenkinsMetrics.Operation config = metrics.operation("jobs:get-config");
+            assertEquals(config.cacheMisses(), 2);
+            assertEquals(config.cacheHits(), 1);
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    public void testOnlyConfiguredOperationsAndSizesCached() throws Exception {
+        MockWebServer server = mockWebServer();
+        for (int i = 0; i < 2; i++) {
+            server.enqueue(new MockResponse().setBody(payloadFromResource("/job-info.json")).setHeader("ETag", "\"abc\"").setResponseCode(200));
+        }
+        for (int i = 0; i < 2; i++) {
+            server.enqueue(new MockResponse().setBody("<project/>").setHeader("ETag", "\"def\"").setResponseCode(200));
+        }
+        try (JenkinsClient client = JenkinsClient.builder()
+                .endPoint(server.url("/").toString())
+                .apiToken(USERNAME_APITOKEN)
+                .responseCache(64, Collections.singleton("jobs:job-info"))
+                .build()) {
+            // job-info.json does not fit in 64 bytes, config is not cached
+            client.api().jobsApi().jobInfo(null, "DevTest");
+            client.api().jobsApi().jobInfo(null, "DevTest");
+            client.api().jobsApi().config(null, "DevTest");
+            client.api().jobsApi().config(null, "DevTest");
+
+            for (int i = 0; i < 4; i++) {
+                RecordedRequest request = server.takeRequest();
+                assertNull(request.getHeader("If-None-Match"), request.getPath());
+            }
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testZeroSizeRejected() {
+        JenkinsClient.builder().responseCache(0);
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.jenkins.rest.http;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.jclouds.Constants;
+import org.testng.annotations.Test;
+
+import com.cdancy.jenkins.rest.BaseJenkinsMockTest;
+import com.cdancy.jenkins.rest.JenkinsClient;
+import com.cdancy.jenkins.rest.domain.system.SystemInfo;
+
+/**
+ * Mock tests for the connection settings of {@link com.cdancy.jenkins.rest.JenkinsClient.Builder}.
+ */
+@Test(groups = "unit", testName = "TransportOptionsMockTest")
+public class TransportOptionsMockTest extends BaseJenkinsMockTest {
+
+    public void testMaxConnectionsPerHost() throws Exception {
+        MockWebServer server = mockWebServer();
+        server.enqueue(new MockResponse().setBody("artifact").setResponseCode(200));
+        server.enqueue(new MockResponse().setBody(payloadFromResource("/job-info.json")).setResponseCode(200));
+        try (JenkinsClient client = builder(server)
+                .maxConnectionsPerHost(1)
+                .connectTimeout(Duration.ofMillis(200))
+                .build()) {
+            String host = "http://" + server.getHostName() + ":" + server.getPort();
+            try (InputStream artifact = client.api().jobsApi().artifact(null, "DevTest", 1, "file.txt")) {
+                assertNotNull(artifact);
+                TransportStats.HostStats stats = client.transportStats().hosts().get(host);
+                assertEquals(stats.inUse(), 1);
+                try {
+                    client.api().jobsApi().jobInfo(null, "DevTest");
+                    fail("Expected the only connection to be in use");
+                } catch (RuntimeException e) {
+                    assertTrue(e.getMessage().contains("waiting for one of the 1 connections"), e.getMessage());
+                }
+            }
+            assertNotNull(client.api().jobsApi().jobInfo(null, "DevTest"));
+
+            TransportStats stats = client.transportStats();
+            assertEquals(stats.transport(), "URL_CONNECTION");
+            assertEquals(stats.maxConnectionsPerHost(), 1);
+            assertEquals(stats.hosts().get(host).inUse(), 0);
+            assertEquals(stats.hosts().get(host).peakInUse(), 1);
+            assertEquals(stats.hosts().get(host).leases(), 2);
+            assertEquals(server.getRequestCount(), 2);
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    public void testHeaderOnlyResponsesReleaseConnection() throws Exception {
+        for (Transport transport : Transport.values()) {
+            MockWebServer server = mockWebServer();
+            server.enqueue(systemInfoResponse());
+            server.enqueue(systemInfoResponse());
+            server.enqueue(new MockResponse().setBody("<html>deleted</html>").setResponseCode(200));
+            server.enqueue(systemInfoResponse());
+            try (JenkinsClient client = builder(server)
+                    .transport(transport)
+                    .maxConnectionsPerHost(1)
+                    .connectTimeout(Duration.ofMillis(200))
+                    .build()) {
+                String host = "http://" + server.getHostName() + ":" + server.getPort();
+                assertTrue(client.api().systemApi().systemInfo().errors().isEmpty(), transport.name());
+                assertEquals(client.transportStats().hosts().get(host).inUse(), 0, transport.name());
+                assertTrue(client.api().systemApi().systemInfo().errors().isEmpty(), transport.name());
+                assertTrue(client.api().jobsApi().delete(null, "DevTest").value(), transport.name());
+                assertEquals(client.transportStats().hosts().get(host).inUse(), 0, transport.name());
+                assertTrue(client.api().systemApi().systemInfo().errors().isEmpty(), transport.name());
+
+                TransportStats.HostStats stats = client.transportStats().hosts().get(host);
+                assertEquals(stats.inUse(), 0, transport.name());
+                assertEquals(stats.leases(), 4, transport.name());
+                assertEquals(server.getRequestCount(), 4, transport.name());
+            } finally {
+                server.shutdown();
+            }
+        }
+    }
+
+    public void testReadTimeoutPerOperation() throws Exception {
+        MockWebServer server = mockWebServer();
+        server.enqueue(systemInfoResponse().setHeadersDelay(1, TimeUnit.SECONDS).setResponseCode(200));
+        server.enqueue(new MockResponse().setBody(payloadFromResource("/job-info.json")).setHeadersDelay(300, TimeUnit.MILLISECONDS).setResponseCode(200));
+        try (JenkinsClient client = builder(server)
+                .readTimeout("system:info", Duration.ofMillis(100))
+                .build()) {
+            SystemInfo info = client.api().systemApi().systemInfo();
+            assertFalse(info.errors().isEmpty());
+            assertTrue(info.errors().get(0).message().contains("timed out"), info.errors().get(0).message());
+            assertNotNull(client.api().jobsApi().jobInfo(null, "DevTest"));
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    public void testKeepAliveOff() throws Exception {
+        MockWebServer server = mockWebServer();
+        server.enqueue(systemInfoResponse().setResponseCode(200));
+        try (JenkinsClient client = builder(server)
+                .keepAlive(false)
+                .build()) {
+            assertTrue(client.api().systemApi().systemInfo().errors().isEmpty());
+            assertEquals(server.takeRequest().getHeader("Connection"), "close");
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    public void testIdleTimeout() throws Exception {
+        MockWebServer server = mockWebServer();
+        for (int i = 0; i < 3; i++) {
+            server.enqueue(systemInfoResponse().setResponseCode(200));
+        }
+        try (JenkinsClient client = builder(server)
+                .transport(Transport.HTTP_CLIENT)
+                .idleTimeout(Duration.ofMillis(500))
+                .build()) {
+            assertTrue(client.api().systemApi().systemInfo().errors().isEmpty());
+            // HttpClient returns the connection to its pool asynchronously
+            Thread.sleep(50);
+            assertTrue(client.api().systemApi().systemInfo().errors().isEmpty());
+            Thread.sleep(800);
+            assertTrue(client.api().systemApi().systemInfo().errors().isEmpty());
+            assertEquals(server.takeRequest().getSequenceNumber(), 0);
+            assertEquals(server.takeRequest().getSequenceNumber(), 1);
+            assertEquals(server.takeRequest().getSequenceNumber(), 0);
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class, expectedExceptionsMessageRegExp = "idleTimeout requires the HTTP_CLIENT transport")
+    public void testIdleTimeoutRequiresHttpClient() {
+        JenkinsClient.builder().idleTimeout(Duration.ofSeconds(30)).build();
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class, expectedExceptionsMessageRegExp = "keepAlive\\(false\\) requires the URL_CONNECTION transport")
+    public void testKeepAliveOffRequiresUrlConnection() {
+        JenkinsClient.builder().transport(Transport.HTTP_CLIENT).keepAlive(false).build();
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testNegativeTimeoutRejected() {
+        JenkinsClient.builder().readTimeout("jobs:artifact", Duration.ofSeconds(-1));
+    }
+
+    private static MockResponse systemInfoResponse() {
+        return new MockResponse().setHeader("X-Hudson", "1.395").setHeader("X-Jenkins", "2.0")
+                .setHeader("X-Jenkins-Session", "cc323b8d").setHeader("X-Instance-Identity", "fdsa")
+                .setHeader("X-SSH-Endpoint", "127.0.1.1:46126").setHeader("Server", "Jetty(winstone-2.9)").setResponseCode(200);
+    }
+
+    private static JenkinsClient.Builder builder(final MockWebServer server) {
+        Properties overrides = new Properties();
+        overrides.setProperty(Constants.PROPERTY_MAX_RETRIES, "0");
+        return JenkinsClient.builder()
+                .endPoint(server.url("/").toString())
+                .apiToken(USERNAME_APITOKEN)
+                .overrides(overrides);
+    }
+}
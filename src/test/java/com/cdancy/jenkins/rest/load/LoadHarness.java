@@ -0,0 +1,493 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.jenkins.rest.load;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import javax.net.ServerSocketFactory;
+
+import com.cdancy.jenkins.rest.JenkinsApi;
+import com.cdancy.jenkins.rest.JenkinsClient;
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.io.ByteStreams;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+/**
+ * Drive a JenkinsClient at a fixed concurrency against a MockWebServer
+ * serving the test fixtures, one endpoint at a time, and report for each the
+ * throughput, latency percentiles, allocations of the calling threads and
+ * number of connections opened.
+ *
+ * <p>Run with `./gradlew loadTest`, configured through system properties:
+ * <ul>
+ *  <li>`load.threads`: number of calling threads, defaults to 8.
+ *  <li>`load.duration`: seconds each endpoint is measured for, defaults to 10.
+ *  <li>`load.warmup`: seconds each endpoint is called for beforehand, defaults to 2.
+ *  <li>`load.endpoints`: comma separated endpoints to run, defaults to all of {@link #ENDPOINTS}.
+ *  <li>`jenkins.rest.jclouds.*`: jclouds properties passed to the client, to compare transport configurations.
+ * </ul>
+ */
+public final class LoadHarness {
+
+    static final String JOB = "DevTest";
+
+    // the operations measured, keyed by the name reported
+    static final Map<String, Function<JenkinsApi, Object>> ENDPOINTS = ImmutableMap.<String, Function<JenkinsApi, Object>>builder()
+            .put("jobs:get-jobs", api -> api.jobsApi().jobList(""))
+            .put("jobs:job-info", api -> api.jobsApi().jobInfo(null, JOB))
+            .put("jobs:build-info", api -> api.jobsApi().buildInfo(null, JOB, 10))
+            .put("jobs:last-build-number", api -> api.jobsApi().lastBuildNumber(null, JOB))
+            .put("jobs:progressive-text", api -> api.jobsApi().progressiveText(null, JOB, 0))
+            .put("jobs:build", api -> api.jobsApi().build(null, JOB))
+            .put("queue:queue", api -> api.queueApi().queue())
+            .put("queue:item", api -> api.queueApi().queueItem(143))
+            .build();
+
+    // latencies kept per thread, calls beyond that are counted but not sampled
+    private static final int MAX_SAMPLES = 1 << 18;
+
+    private final int threads;
+    private final long durationNanos;
+    private final long warmupNanos;
+    private final List<String> endpoints;
+    private final Properties overrides;
+    private final AtomicLong connections = new AtomicLong();
+
+    private LoadHarness(final Builder builder) {
+        this.threads = builder.threads;
+        this.durationNanos = builder.durationNanos;
+        this.warmupNanos = builder.warmupNanos;
+        this.endpoints = builder.endpoints;
+        this.overrides = builder.overrides;
+    }
+
+    /**
+     * Start the server and client, and measure every endpoint in turn.
+     *
+     * @return the result of each endpoint.
+     * @throws IOException if the server could not be started.
+     * @throws InterruptedException if interrupted while measuring.
+     */
+    public List<Result> run() throws IOException, InterruptedException {
+        final MockWebServer server = new MockWebServer();
+        server.setDispatcher(new FixtureDispatcher());
+        server.setServerSocketFactory(new NoDelayServerSocketFactory());
+        server.start();
+        final List<Result> results = new ArrayList<>();
+        try (JenkinsClient client = JenkinsClient.builder()
+                .endPoint(server.url("/").toString())
+                .apiToken("user:token")
+                .overrides(overrides)
+                .build()) {
+            for (final String endpoint : endpoints) {
+                final Function<JenkinsApi, Object> call = ENDPOINTS.get(endpoint);
+                if (call == null) {
+                    throw new IllegalArgumentException("Unknown endpoint '" + endpoint + "', expected one of " + ENDPOINTS.keySet());
+                }
+                measure(client.api(), call, warmupNanos);
+                connections.set(0);
+                results.add(measure(client.api(), call, durationNanos).named(endpoint, connections.get()));
+            }
+        } finally {
+            server.shutdown();
+        }
+        return results;
+    }
+
+    private Result measure(final JenkinsApi api, final Function<JenkinsApi, Object> call, final long nanos) throws InterruptedException {
+        final Worker[] workers = new Worker[threads];
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(threads);
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Worker(api, call, start, done);
+            final Thread thread = new Thread(workers[i], "load-harness-" + i);
+            thread.setDaemon(true);
+            thread.start();
+        }
+        final long begin = System.nanoTime();
+        for (final Worker worker : workers) {
+            worker.deadline = begin + nanos;
+        }
+        start.countDown();
+        done.await();
+        final long elapsed = System.nanoTime() - begin;
+
+        long calls = 0;
+        long errors = 0;
+        long allocated = 0;
+        int samples = 0;
+        for (final Worker worker : workers) {
+            calls += worker.calls;
+            errors += worker.errors;
+            allocated += worker.allocated;
+            samples += Math.min(worker.calls, MAX_SAMPLES);
+        }
+        final long[] latencies = new long[samples];
+        int offset = 0;
+        for (final Worker worker : workers) {
+            final int count = (int) Math.min(worker.calls, MAX_SAMPLES);
+            System.arraycopy(worker.latencies, 0, latencies, offset, count);
+            offset += count;
+        }
+        Arrays.sort(latencies);
+        return new Result(calls, errors, elapsed, percentile(latencies, 0.50), percentile(latencies, 0.99), allocated);
+    }
+
+    private static long percentile(final long[] sorted, final double percentile) {
+        return sorted.length == 0 ? 0 : sorted[Math.min(sorted.length - 1, (int) (sorted.length * percentile))];
+    }
+
+    private static final class Worker implements Runnable {
+
+        private final JenkinsApi api;
+        private final Function<JenkinsApi, Object> call;
+        private final CountDownLatch start;
+        private final CountDownLatch done;
+        private final long[] latencies = new long[MAX_SAMPLES];
+        private volatile long deadline;
+        private long calls;
+        private long errors;
+        private long allocated;
+
+        Worker(final JenkinsApi api, final Function<JenkinsApi, Object> call, final CountDownLatch start, final CountDownLatch done) {
+            this.api = api;
+            this.call = call;
+            this.start = start;
+            this.done = done;
+        }
+
+        @Override
+        public void run() {
+            try {
+                start.await();
+                final long allocatedBefore = allocatedBytes();
+                final long end = deadline;
+                long now = System.nanoTime();
+                while (now < end) {
+                    try {
+                        call.apply(api);
+                    } catch (final RuntimeException e) {
+                        errors++;
+                    }
+                    final long finished = System.nanoTime();
+                    if (calls < MAX_SAMPLES) {
+                        latencies[(int) calls] = finished - now;
+                    }
+                    calls++;
+                    now = finished;
+                }
+                allocated = allocatedBytes() - allocatedBefore;
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                done.countDown();
+            }
+        }
+
+        private static long allocatedBytes() {
+            final java.lang.management.ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+            if (threadBean instanceof com.sun.management.ThreadMXBean) {
+                return ((com.sun.management.ThreadMXBean) threadBean).getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+            return 0;
+        }
+    }
+
+    // serve the test fixtures, counting the connections opened as their first request comes in
+    private final class FixtureDispatcher extends Dispatcher {
+
+        private final Map<String, MockResponse> responses;
+
+        FixtureDispatcher() throws IOException {
+            final String jobPath = "/job/" + JOB;
+            this.responses = ImmutableMap.<String, MockResponse>builder()
+                    .put("/api/json", json("/jobsInRootFolder.json"))
+                    .put(jobPath + "/api/json", json("/job-info.json"))
+                    .put(jobPath + "/10/api/json", json("/build-info.json"))
+                    .put(jobPath + "/lastBuild/buildNumber", text("/build-number.txt"))
+                    .put(jobPath + "/lastBuild/logText/progressiveText", text("/progressive-text.txt")
+                            .setHeader("X-Text-Size", "123").setHeader("X-More-Data", "false"))
+                    .put(jobPath + "/build", new MockResponse().setResponseCode(201)
+                            .setHeader("Location", "http://127.0.0.1:8080/queue/item/143/"))
+                    .put("/queue/api/json", json("/queue.json"))
+                    .put("/queue/item/143/api/json", json("/queueItemRunning.json"))
+                    .build();
+        }
+
+        @Override
+        public MockResponse dispatch(final RecordedRequest request) {
+            if (request.getSequenceNumber() == 0) {
+                connections.incrementAndGet();
+            }
+            final String path = request.getPath();
+            final int query = path.indexOf('?');
+            final MockResponse response = responses.get(query < 0 ? path : path.substring(0, query));
+            return response != null ? response : new MockResponse().setResponseCode(404);
+        }
+
+        private MockResponse json(final String resource) throws IOException {
+            return text(resource).setHeader("Content-Type", "application/json");
+        }
+
+        private MockResponse text(final String resource) throws IOException {
+            try (InputStream in = Objects.requireNonNull(LoadHarness.class.getResourceAsStream(resource), resource)) {
+                return new MockResponse().setResponseCode(200).setBody(new String(ByteStreams.toByteArray(in), StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    // without TCP_NODELAY the server's separate writes of headers and body stall on delayed ACKs
+    private static final class NoDelayServerSocketFactory extends ServerSocketFactory {
+
+        @Override
+        public ServerSocket createServerSocket() throws IOException {
+            return new ServerSocket() {
+                @Override
+                public Socket accept() throws IOException {
+                    final Socket socket = super.accept();
+                    socket.setTcpNoDelay(true);
+                    return socket;
+                }
+            };
+        }
+
+        @Override
+        public ServerSocket createServerSocket(final int port) throws IOException {
+            return createServerSocket(port, 50, null);
+        }
+
+        @Override
+        public ServerSocket createServerSocket(final int port, final int backlog) throws IOException {
+            return createServerSocket(port, backlog, null);
+        }
+
+        @Override
+        public ServerSocket createServerSocket(final int port, final int backlog, final InetAddress address) throws IOException {
+            final ServerSocket serverSocket = createServerSocket();
+            try {
+                serverSocket.bind(new InetSocketAddress(address, port), backlog);
+            } catch (IOException e) {
+                serverSocket.close();
+                throw e;
+            }
+            return serverSocket;
+        }
+    }
+
+    /**
+     * The measurements of one endpoint.
+     */
+    public static final class Result {
+
+        private final String endpoint;
+        private final long requests;
+        private final long errors;
+        private final long elapsedNanos;
+        private final long p50Nanos;
+        private final long p99Nanos;
+        private final long allocatedBytes;
+        private final long connections;
+
+        private Result(final long requests, final long errors, final long elapsedNanos,
+                final long p50Nanos, final long p99Nanos, final long allocatedBytes) {
+            this(null, requests, errors, elapsedNanos, p50Nanos, p99Nanos, allocatedBytes, 0);
+        }
+
+        private Result(final String endpoint, final long requests, final long errors, final long elapsedNanos,
+                final long p50Nanos, final long p99Nanos, final long allocatedBytes, final long connections) {
+            this.endpoint = endpoint;
+            this.requests = requests;
+            this.errors = errors;
+            this.elapsedNanos = elapsedNanos;
+            this.p50Nanos = p50Nanos;
+            this.p99Nanos = p99Nanos;
+            this.allocatedBytes = allocatedBytes;
+            this.connections = connections;
+        }
+
+        Result named(final String name, final long connectionCount) {
+            return new Result(name, requests, errors, elapsedNanos, p50Nanos, p99Nanos, allocatedBytes, connectionCount);
+        }
+
+        public String endpoint() {
+            return endpoint;
+        }
+
+        public long requests() {
+            return requests;
+        }
+
+        public long errors() {
+            return errors;
+        }
+
+        public double requestsPerSecond() {
+            return requests * 1e9 / elapsedNanos;
+        }
+
+        public long p50Nanos() {
+            return p50Nanos;
+        }
+
+        public long p99Nanos() {
+            return p99Nanos;
+        }
+
+        public double allocatedMegabytesPerSecond() {
+            return allocatedBytes * 1e9 / elapsedNanos / (1024 * 1024);
+        }
+
+        public long allocatedBytesPerRequest() {
+            return requests == 0 ? 0 : allocatedBytes / requests;
+        }
+
+        public long connections() {
+            return connections;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-24s %10d %8d %12.1f %10.3f %10.3f %12.1f %12d %8d",
+                    endpoint, requests, errors, requestsPerSecond(), p50Nanos / 1e6, p99Nanos / 1e6,
+                    allocatedMegabytesPerSecond(), allocatedBytesPerRequest(), connections);
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+
+        private int threads = 8;
+        private long durationNanos = TimeUnit.SECONDS.toNanos(10);
+        private long warmupNanos = TimeUnit.SECONDS.toNanos(2);
+        private List<String> endpoints = new ArrayList<>(ENDPOINTS.keySet());
+        private Properties overrides = new Properties();
+
+        /**
+         * Number of threads calling the endpoint at the same time. Defaults to 8.
+         *
+         * @param threads number of calling threads.
+         * @return this Builder.
+         */
+        public Builder threads(final int threads) {
+            checkArgument(threads > 0, "threads must be > 0");
+            this.threads = threads;
+            return this;
+        }
+
+        /**
+         * How long each endpoint is measured for. Defaults to 10 seconds.
+         *
+         * @param duration duration of the measurement.
+         * @param unit unit of the duration.
+         * @return this Builder.
+         */
+        public Builder duration(final long duration, final TimeUnit unit) {
+            this.durationNanos = unit.toNanos(duration);
+            return this;
+        }
+
+        /**
+         * How long each endpoint is called for before being measured.
+         * Defaults to 2 seconds.
+         *
+         * @param warmup duration of the warmup.
+         * @param unit unit of the warmup.
+         * @return this Builder.
+         */
+        public Builder warmup(final long warmup, final TimeUnit unit) {
+            this.warmupNanos = unit.toNanos(warmup);
+            return this;
+        }
+
+        /**
+         * The endpoints to measure, in order. Defaults to all of {@link #ENDPOINTS}.
+         *
+         * @param endpoints names of the endpoints.
+         * @return this Builder.
+         */
+        public Builder endpoints(final List<String> endpoints) {
+            this.endpoints = new ArrayList<>(endpoints);
+            return this;
+        }
+
+        /**
+         * jclouds properties to create the client with.
+         *
+         * @param overrides jclouds Properties to override.
+         * @return this Builder.
+         */
+        public Builder overrides(final Properties overrides) {
+            this.overrides = overrides;
+            return this;
+        }
+
+        /**
+         * Build an instance of LoadHarness.
+         *
+         * @return LoadHarness
+         */
+        public LoadHarness build() {
+            return new LoadHarness(this);
+        }
+    }
+
+    public static void main(final String[] args) throws Exception {
+        final Builder builder = builder()
+                .threads(Integer.getInteger("load.threads", 8))
+                .duration(Long.getLong("load.duration", 10), TimeUnit.SECONDS)
+                .warmup(Long.getLong("load.warmup", 2), TimeUnit.SECONDS);
+        final String endpoints = System.getProperty("load.endpoints");
+        if (endpoints != null && !endpoints.trim().isEmpty()) {
+            builder.endpoints(Splitter.on(',').trimResults().omitEmptyStrings().splitToList(endpoints));
+        }
+
+        final List<Result> results = builder.build().run();
+        System.out.println(String.format("%-24s %10s %8s %12s %10s %10s %12s %12s %8s",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p99 ms", "alloc MB/s", "alloc B/req", "conns"));
+        for (final Result result : results) {
+            System.out.println(result);
+        }
+    }
+}
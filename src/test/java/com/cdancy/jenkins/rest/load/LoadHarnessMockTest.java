@@ -0,0 +1,53 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.jenkins.rest.load;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.annotations.Test;
+
+/**
+ * Mock tests for the {@link com.cdancy.jenkins.rest.load.LoadHarness} class.
+ */
+@Test(groups = "unit", testName = "LoadHarnessMockTest")
+public class LoadHarnessMockTest {
+
+    public void testEveryEndpointIsServed() throws Exception {
+        List<LoadHarness.Result> results = LoadHarness.builder()
+                .threads(2)
+                .warmup(0, TimeUnit.MILLISECONDS)
+                .duration(50, TimeUnit.MILLISECONDS)
+                .build().run();
+        assertEquals(results.size(), LoadHarness.ENDPOINTS.size());
+        for (LoadHarness.Result result : results) {
+            assertTrue(result.requests() > 0, result.endpoint());
+            assertEquals(result.errors(), 0, result.endpoint());
+            assertTrue(result.p99Nanos() >= result.p50Nanos(), result.endpoint());
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testUnknownEndpoint() throws Exception {
+        LoadHarness.builder().endpoints(Arrays.asList("jobs:unknown")).build().run();
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.jenkins.rest.logs;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.testng.annotations.Test;
+
+import com.cdancy.jenkins.rest.BaseJenkinsMockTest;
+import com.cdancy.jenkins.rest.JenkinsApi;
+import com.google.common.collect.Lists;
+import com.google.common.io.CharStreams;
+
+/**
+ * Mock tests for the {@link com.cdancy.jenkins.rest.logs.BuildLogStream} class.
+ */
+@Test(groups = "unit", testName = "BuildLogStreamMockTest")
+public class BuildLogStreamMockTest extends BaseJenkinsMockTest {
+
+    public void testFollowsMoreData() throws Exception {
+        MockWebServer server = mockWebServer();
+        server.enqueue(new MockResponse().setHeader("X-Text-Size", "6").setHeader("X-More-Data", "true").setBody("hello\n"));
+        server.enqueue(new MockResponse().setHeader("X-Text-Size", "6").setHeader("X-More-Data", "true").setBody(""));
+        server.enqueue(new MockResponse().setHeader("X-Text-Size", "12").setBody("world\n"));
+        JenkinsApi jenkinsApi = api(server.url("/").url());
+        try (BuildLogStream log = BuildLogStream.builder(jenkinsApi.jobsApi())
+                .jobName("DevTest").buildNumber(1).pollInterval(0, TimeUnit.MILLISECONDS).build()) {
+            assertEquals(CharStreams.toString(log.reader()), "hello\nworld\n");
+            assertEquals(log.offset(), 12);
+            assertSentAcceptText(server, "GET", "/job/DevTest/1/logText/progressiveText?start=0");
+            assertSentAcceptText(server, "GET", "/job/DevTest/1/logText/progressiveText?start=6");
+            assertSentAcceptText(server, "GET", "/job/DevTest/1/logText/progressiveText?start=6");
+        } finally {
+            jenkinsApi.close();
+            server.shutdown();
+        }
+    }
+
+    public void testNoFollowStopsAfterFirstChunk() throws Exception {
+        MockWebServer server = mockWebServer();
+        server.enqueue(new MockResponse().setHeader("X-Text-Size", "14").setHeader("X-More-Data", "true").setBody("line1\nline2\n"));
+        JenkinsApi jenkinsApi = api(server.url("/").url());
+        try {
+            List<String> lines = Lists.newArrayList();
+            BuildLogStream.builder(jenkinsApi.jobsApi())
+                    .optionalFolderPath("test-folder").jobName("DevTest").buildNumber(1).start(2).follow(false)
+                    .build().forEachLine(lines::add);
+            assertEquals(lines, Lists.newArrayList("line1", "line2"));
+            assertEquals(server.getRequestCount(), 1);
+            assertSentAcceptText(server, "GET", "/job/test-folder/job/DevTest/1/logText/progressiveText?start=2");
+        } finally {
+            jenkinsApi.close();
+            server.shutdown();
+        }
+    }
+
+    public void testMissingTextSizeWithMoreDataFails() throws Exception {
+        MockWebServer server = mockWebServer();
+        server.enqueue(new MockResponse().setHeader("X-Text-Size", "6").setHeader("X-More-Data", "true").setBody("hello\n"));
+        server.enqueue(new MockResponse().setHeader("X-More-Data", "true").setBody(""));
+        JenkinsApi jenkinsApi = api(server.url("/").url());
+        try (BuildLogStream log = BuildLogStream.builder(jenkinsApi.jobsApi())
+                .jobName("DevTest").buildNumber(1).pollInterval(0, TimeUnit.MILLISECONDS).build()) {
+            byte[] buffer = new byte[16];
+            assertEquals(log.read(buffer, 0, buffer.length), 6);
+            try {
+                log.read(buffer, 0, buffer.length);
+                fail("Expected the missing X-Text-Size header to fail the read");
+            } catch (IOException e) {
+                assertTrue(e.getMessage().contains("No X-Text-Size header"), e.getMessage());
+            }
+            assertEquals(log.read(), -1);
+            assertEquals(server.getRequestCount(), 2);
+        } finally {
+            jenkinsApi.close();
+            server.shutdown();
+        }
+    }
+
+    public void testMissingTextSizeWithoutMoreDataEnds() throws Exception {
+        MockWebServer server = mockWebServer();
+        server.enqueue(new MockResponse().setBody("done\n"));
+        JenkinsApi jenkinsApi = api(server.url("/").url());
+        try (BuildLogStream log = BuildLogStream.builder(jenkinsApi.jobsApi())
+                .jobName("DevTest").buildNumber(1).pollInterval(0, TimeUnit.MILLISECONDS).build()) {
+            assertEquals(CharStreams.toString(log.reader()), "done\n");
+            assertEquals(server.getRequestCount(), 1);
+        } finally {
+            jenkinsApi.close();
+            server.shutdown();
+        }
+    }
+
+    @Test(expectedExceptions = FileNotFoundException.class)
+    public void testBuildNotFound() throws Exception {
+        MockWebServer server = mockWebServer();
+        server.enqueue(new MockResponse().setResponseCode(404));
+        JenkinsApi jenkinsApi = api(server.url("/").url());
+        try (BuildLogStream log = BuildLogStream.builder(jenkinsApi.jobsApi()).jobName("DevTest").buildNumber(1).build()) {
+            log.read();
+        } finally {
+            jenkinsApi.close();
+            server.shutdown();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.jenkins.rest.metrics;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import java.util.Properties;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.jclouds.Constants;
+import org.testng.annotations.Test;
+
+import com.cdancy.jenkins.rest.BaseJenkinsMockTest;
+import com.cdancy.jenkins.rest.JenkinsClient;
+
+/**
+ * Mock tests for the {@link com.cdancy.jenkins.rest.metrics.JenkinsMetrics} reporting.
+ */
+@Test(groups = "unit", testName = "JenkinsMetricsMockTest")
+public class JenkinsMetricsMockTest extends BaseJenkinsMockTest {
+
+    public void testRequestsRecordedPerOperation() throws Exception {
+        MockWebServer server = mockWebServer();
+        String body = payloadFromResource("/job-info.json");
+        server.enqueue(new MockResponse().setBody(body).setResponseCode(200));
+        server.enqueue(new MockResponse().setResponseCode(404));
+        SimpleJenkinsMetrics metrics = new SimpleJenkinsMetrics();
+        try (JenkinsClient client = client(server, metrics, 0)) {
+            assertNotNull(client.api().jobsApi().jobInfo(null, "DevTest"));
+            assertNull(client.api().jobsApi().jobInfo(null, "DevTest"));
+
+            SimpleJenkinsMetrics.Operation jobInfo = metrics.operation("jobs:job-info");
+            assertEquals(jobInfo.count(), 2);
+            assertEquals(jobInfo.statusCodes().get(200), Long.valueOf(1));
+            assertEquals(jobInfo.statusCodes().get(404), Long.valueOf(1));
+            assertEquals(jobInfo.bytesReceived(), body.length());
+            assertEquals(jobInfo.retries(), 0);
+            assertEquals(jobInfo.fallbacks(), 1);
+            assertTrue(jobInfo.percentileMillis(0.99) > 0);
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    public void testRetriesRecorded() throws Exception {
+        MockWebServer server = mockWebServer();
+        server.enqueue(new MockResponse().setResponseCode(500));
+        server.enqueue(new MockResponse().setBody("{}").setResponseCode(200));
+        SimpleJenkinsMetrics metrics = new SimpleJenkinsMetrics();
+        try (JenkinsClient client = client(server, metrics, 1)) {
+            assertNotNull(client.api().systemApi().systemInfo());
+
+            SimpleJenkinsMetrics.Operation systemInfo = metrics.operation("system:info");
+            assertEquals(systemInfo.count(), 1);
+            assertEquals(systemInfo.retries(), 1);
+            assertEquals(systemInfo.statusCodes().get(200), Long.valueOf(1));
+            assertEquals(server.getRequestCount(), 2);
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    private static JenkinsClient client(final MockWebServer server, final JenkinsMetrics metrics, final int maxRetries) {
+        Properties overrides = new Properties();
+        overrides.setProperty(Constants.PROPERTY_MAX_RETRIES, Integer.toString(maxRetries));
+        return JenkinsClient.builder()
+                .endPoint(server.url("/").toString())
+                .apiToken(USERNAME_APITOKEN)
+                .overrides(overrides)
+                .metrics(metrics)
+                .build();
+    }
+}
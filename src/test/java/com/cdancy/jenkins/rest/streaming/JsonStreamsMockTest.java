@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.jenkins.rest.streaming;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileNotFoundException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.testng.annotations.Test;
+
+import com.cdancy.jenkins.rest.BaseJenkinsMockTest;
+import com.cdancy.jenkins.rest.JenkinsApi;
+import com.cdancy.jenkins.rest.domain.job.Job;
+import com.cdancy.jenkins.rest.domain.job.Workflow;
+import com.cdancy.jenkins.rest.domain.queue.QueueItem;
+
+/**
+ * Mock tests for the {@link com.cdancy.jenkins.rest.streaming.JsonStreams} class.
+ */
+@Test(groups = "unit", testName = "JsonStreamsMockTest")
+public class JsonStreamsMockTest extends BaseJenkinsMockTest {
+
+    public void testJobsMatchJobList() throws Exception {
+        MockWebServer server = mockWebServer();
+        String body = payloadFromResource("/jobsInJenkinsFolder.json");
+        server.enqueue(new MockResponse().setBody(body).setResponseCode(200));
+        server.enqueue(new MockResponse().setBody(body).setResponseCode(200));
+        try (JenkinsApi jenkinsApi = api(server.url("/").url())) {
+            List<Job> expected = jenkinsApi.jobsApi().jobList("Jenkins").jobs();
+            List<Job> streamed = new ArrayList<>();
+            long count = JsonStreams.forEachJob(jenkinsApi.jobsApi(), "Jenkins", "jobs[name,url,color]", streamed::add);
+            assertEquals(count, expected.size());
+            assertEquals(streamed, expected);
+
+            server.takeRequest();
+            RecordedRequest request = server.takeRequest();
+            assertEquals(request.getRequestUrl().encodedPath(), "/job/Jenkins/api/json");
+            assertEquals(request.getRequestUrl().queryParameter("tree"), "jobs[name,url,color]");
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    public void testQueueItemsMatchQueue() throws Exception {
+        MockWebServer server = mockWebServer();
+        String body = payloadFromResource("/queue.json");
+        server.enqueue(new MockResponse().setBody(body).setResponseCode(200));
+        server.enqueue(new MockResponse().setBody(body).setResponseCode(200));
+        try (JenkinsApi jenkinsApi = api(server.url("/").url())) {
+            List<QueueItem> expected = jenkinsApi.queueApi().queue();
+            List<QueueItem> streamed = new ArrayList<>();
+            try (JsonArrayIterator<QueueItem> items = JsonStreams.queueItems(jenkinsApi.queueApi())) {
+                items.forEachRemaining(streamed::add);
+                assertFalse(items.hasNext());
+            }
+            assertEquals(streamed, expected);
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    public void testRunsMatchRunHistory() throws Exception {
+        MockWebServer server = mockWebServer();
+        String body = payloadFromResource("/runHistory.json");
+        server.enqueue(new MockResponse().setBody(body).setResponseCode(200));
+        server.enqueue(new MockResponse().setBody(body).setResponseCode(200));
+        try (JenkinsApi jenkinsApi = api(server.url("/").url())) {
+            List<Workflow> expected = jenkinsApi.jobsApi().runHistory(null, "MockJob");
+            List<Workflow> streamed = new ArrayList<>();
+            assertEquals(JsonStreams.forEachRun(jenkinsApi.jobsApi(), null, "MockJob", streamed::add), expected.size());
+            assertEquals(streamed, expected);
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    public void testMissingOrNullArrayIsEmpty() throws Exception {
+        String json = "{\"_class\":\"hudson.model.Hudson\",\"views\":[{\"name\":\"all\"}],\"jobs\":null}";
+        try (JsonArrayIterator<Job> jobs = JsonStreams.iterate(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), "jobs", Job.class)) {
+            assertFalse(jobs.hasNext());
+        }
+        json = "{\"jobs\":[{\"name\":\"a\",\"url\":\"http://localhost:8080/job/a/\"},{\"name\":\"b\",\"url\":\"http://localhost:8080/job/b/\"}]}";
+        try (JsonArrayIterator<Job> jobs = JsonStreams.iterate(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), "jobs", Job.class)) {
+            assertTrue(jobs.hasNext());
+            assertEquals(jobs.next().name(), "a");
+            // given up before the end
+        }
+    }
+
+    @Test(expectedExceptions = FileNotFoundException.class)
+    public void testMissingFolder() throws Exception {
+        MockWebServer server = mockWebServer();
+        server.enqueue(new MockResponse().setResponseCode(404));
+        try (JenkinsApi jenkinsApi = api(server.url("/").url())) {
+            JsonStreams.jobs(jenkinsApi.jobsApi(), "Missing", null);
+        } finally {
+            server.shutdown();
+        }
+    }
+}
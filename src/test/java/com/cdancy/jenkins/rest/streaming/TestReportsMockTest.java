@@ -0,0 +1,131 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.jenkins.rest.streaming;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileNotFoundException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.testng.annotations.Test;
+
+import com.cdancy.jenkins.rest.BaseJenkinsMockTest;
+import com.cdancy.jenkins.rest.JenkinsApi;
+import com.cdancy.jenkins.rest.domain.job.TestCase;
+import com.cdancy.jenkins.rest.domain.job.TestReport;
+import com.cdancy.jenkins.rest.domain.job.TestSuite;
+
+/**
+ * Mock tests for the {@link com.cdancy.jenkins.rest.streaming.TestReports} class.
+ */
+@Test(groups = "unit", testName = "TestReportsMockTest")
+public class TestReportsMockTest extends BaseJenkinsMockTest {
+
+    public void testReadWholeReport() throws Exception {
+        MockWebServer server = mockWebServer();
+        server.enqueue(new MockResponse().setBody(payloadFromResource("/test-report.json")).setResponseCode(200));
+        try (JenkinsApi jenkinsApi = api(server.url("/").url())) {
+            TestReport report = TestReports.read(jenkinsApi.jobsApi(), "test-folder", "DevTest", 1, testCase -> true);
+            assertEquals(report.failCount(), 1);
+            assertEquals(report.passCount(), 2);
+            assertEquals(report.skipCount(), 1);
+            assertEquals(report.duration(), 1.75);
+            assertEquals(report.suites().size(), 3);
+
+            TestSuite calculator = report.suites().get(0);
+            assertEquals(calculator.name(), "com.example.CalculatorTest");
+            assertNull(calculator.id());
+            assertEquals(calculator.timestamp(), "2024-03-01T10:15:30");
+            assertEquals(calculator.cases().size(), 2);
+            TestCase divide = calculator.cases().get(1);
+            assertEquals(divide.name(), "testDivide");
+            assertEquals(divide.status(), TestCase.REGRESSION);
+            assertTrue(divide.failed());
+            assertEquals(divide.age(), 2);
+            assertEquals(divide.failedSince(), 7);
+            assertEquals(divide.errorDetails(), "expected:<4> but was:<5>");
+            // repeated class names are shared within the report
+            assertSame(divide.className(), calculator.cases().get(0).className());
+            assertSame(calculator.name(), divide.className());
+
+            assertSentAccept(server, "GET", "/job/test-folder/job/DevTest/1/testReport/api/json", "application/json");
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    public void testKeepFailedOrSkipped() throws Exception {
+        MockWebServer server = mockWebServer();
+        server.enqueue(new MockResponse().setBody(payloadFromResource("/test-report.json")).setResponseCode(200));
+        try (JenkinsApi jenkinsApi = api(server.url("/").url())) {
+            TestReport report = TestReports.read(jenkinsApi.jobsApi(), null, "DevTest", 1, TestReports.FAILED_OR_SKIPPED);
+            // counts still cover every case
+            assertEquals(report.passCount(), 2);
+            assertEquals(report.suites().size(), 2);
+            assertEquals(report.suites().get(0).cases().size(), 1);
+            assertEquals(report.suites().get(0).cases().get(0).name(), "testDivide");
+            TestCase skipped = report.suites().get(1).cases().get(0);
+            assertEquals(skipped.name(), "testParseLarge");
+            assertTrue(skipped.skipped());
+            assertEquals(skipped.skippedMessage(), "too slow");
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    public void testVisitCasesAndSuites() throws Exception {
+        List<String> visited = new ArrayList<>();
+        TestReport summary = TestReports.visit(
+                new ByteArrayInputStream(payloadFromResource("/test-report.json").getBytes(StandardCharsets.UTF_8)),
+                new TestReportVisitor() {
+                    @Override
+                    public void visitCase(final TestCase testCase) {
+                        visited.add(testCase.name());
+                    }
+
+                    @Override
+                    public void visitSuite(final TestSuite suite) {
+                        visited.add(suite.name());
+                    }
+                });
+        assertEquals(visited.size(), 8);
+        assertEquals(visited.get(0), "testAdd");
+        assertEquals(visited.get(2), "com.example.CalculatorTest");
+        assertEquals(summary.failCount(), 1);
+        assertTrue(summary.suites().isEmpty());
+    }
+
+    @Test(expectedExceptions = FileNotFoundException.class)
+    public void testMissingReport() throws Exception {
+        MockWebServer server = mockWebServer();
+        server.enqueue(new MockResponse().setResponseCode(404));
+        try (JenkinsApi jenkinsApi = api(server.url("/").url())) {
+            TestReports.visit(jenkinsApi.jobsApi(), null, "DevTest", 1, testCase -> { });
+        } finally {
+            server.shutdown();
+        }
+    }
+}
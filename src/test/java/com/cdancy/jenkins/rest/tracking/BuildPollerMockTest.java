@@ -0,0 +1,157 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.jenkins.rest.tracking;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.testng.annotations.Test;
+
+import com.cdancy.jenkins.rest.BaseJenkinsMockTest;
+import com.cdancy.jenkins.rest.JenkinsApi;
+import com.cdancy.jenkins.rest.domain.job.BuildInfo;
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Mock tests for the {@link com.cdancy.jenkins.rest.tracking.BuildPoller} class.
+ */
+@Test(groups = "unit", testName = "BuildPollerMockTest")
+public class BuildPollerMockTest extends BaseJenkinsMockTest {
+
+    private static final Map<String, String> TREE = ImmutableMap.of("tree", BuildPoller.BUILDS_TREE.replace("[", "%5B").replace("]", "%5D"));
+
+    public void testOneRequestPerJob() throws Exception {
+        MockWebServer server = mockWebServer();
+        server.enqueue(new MockResponse().setBody(builds("{\"number\":7,\"building\":true},{\"number\":6,\"building\":false,\"result\":\"SUCCESS\"}")));
+        server.enqueue(new MockResponse().setBody(builds("{\"number\":7,\"building\":false,\"result\":\"FAILURE\"},{\"number\":6,\"building\":false}")));
+        JenkinsApi jenkinsApi = api(server.url("/").url());
+        try (BuildPoller poller = BuildPoller.builder(jenkinsApi).pollInterval(50, TimeUnit.MILLISECONDS).build()) {
+            CompletableFuture<BuildInfo> six = poller.track(null, "fish", 6);
+            CompletableFuture<BuildInfo> seven = poller.track(null, "fish", 7);
+            CompletableFuture<BuildInfo> again = poller.track(null, "fish", 7);
+            assertNotSame(again, seven);
+            assertEquals(poller.size(), 2);
+
+            assertEquals(six.get(10, TimeUnit.SECONDS).result(), "SUCCESS");
+            BuildInfo build = seven.get(10, TimeUnit.SECONDS);
+            assertFalse(build.building());
+            assertEquals(build.result(), "FAILURE");
+            assertEquals(again.get(10, TimeUnit.SECONDS), build);
+            assertEquals(server.getRequestCount(), 2);
+            assertSent(server, "GET", "/job/fish/api/json", TREE);
+            assertSent(server, "GET", "/job/fish/api/json", TREE);
+            assertEquals(poller.size(), 0);
+        } finally {
+            jenkinsApi.close();
+            server.shutdown();
+        }
+    }
+
+    public void testCancelOneCallerKeepsOthersTracking() throws Exception {
+        MockWebServer server = mockWebServer();
+        server.enqueue(new MockResponse().setBody(builds("{\"number\":7,\"building\":false,\"result\":\"SUCCESS\"}")));
+        JenkinsApi jenkinsApi = api(server.url("/").url());
+        try (BuildPoller poller = BuildPoller.builder(jenkinsApi).pollInterval(50, TimeUnit.MILLISECONDS).build()) {
+            CompletableFuture<BuildInfo> first = poller.track(null, "fish", 7);
+            CompletableFuture<BuildInfo> second = poller.track(null, "fish", 7);
+            assertTrue(first.cancel(true));
+
+            assertEquals(second.get(10, TimeUnit.SECONDS).result(), "SUCCESS");
+            assertTrue(first.isCancelled());
+            assertEquals(server.getRequestCount(), 1);
+            assertEquals(poller.size(), 0);
+        } finally {
+            jenkinsApi.close();
+            server.shutdown();
+        }
+    }
+
+    public void testCancelEveryCallerStopsTracking() throws Exception {
+        MockWebServer server = mockWebServer();
+        JenkinsApi jenkinsApi = api(server.url("/").url());
+        try (BuildPoller poller = BuildPoller.builder(jenkinsApi).pollInterval(1, TimeUnit.HOURS).build()) {
+            CompletableFuture<BuildInfo> first = poller.track(null, "fish", 7);
+            CompletableFuture<BuildInfo> second = poller.track(null, "fish", 7);
+            first.cancel(true);
+            assertEquals(poller.size(), 1);
+            second.cancel(true);
+
+            assertEquals(poller.size(), 0);
+            try {
+                second.get(10, TimeUnit.SECONDS);
+                fail("Expected CancellationException");
+            } catch (CancellationException e) {
+                assertTrue(second.isCancelled());
+            }
+            assertEquals(server.getRequestCount(), 0);
+        } finally {
+            jenkinsApi.close();
+            server.shutdown();
+        }
+    }
+
+    public void testBuildOutsideWindow() throws Exception {
+        MockWebServer server = mockWebServer();
+        server.enqueue(new MockResponse().setBody(builds("{\"number\":12,\"building\":true}")));
+        server.enqueue(new MockResponse().setBody("{\"number\":10,\"url\":\"http://localhost:8080/job/test-folder/job/fish/10/\","
+                + "\"building\":false,\"result\":\"SUCCESS\",\"duration\":20,\"estimatedDuration\":30,\"timestamp\":1000}"));
+        JenkinsApi jenkinsApi = api(server.url("/").url());
+        try (BuildPoller poller = BuildPoller.builder(jenkinsApi).pollInterval(50, TimeUnit.MILLISECONDS).build()) {
+            BuildInfo build = poller.track("test-folder", "fish", 10).get(10, TimeUnit.SECONDS);
+            assertFalse(build.building());
+            assertEquals(build.result(), "SUCCESS");
+            assertSent(server, "GET", "/job/test-folder/job/fish/api/json", TREE);
+            assertSent(server, "GET", "/job/test-folder/job/fish/10/api/json", ImmutableMap.of("tree", BuildPoller.BUILD_TREE));
+        } finally {
+            jenkinsApi.close();
+            server.shutdown();
+        }
+    }
+
+    public void testJobNotFound() throws Exception {
+        MockWebServer server = mockWebServer();
+        server.enqueue(new MockResponse().setResponseCode(404));
+        JenkinsApi jenkinsApi = api(server.url("/").url());
+        try (BuildPoller poller = BuildPoller.builder(jenkinsApi).pollInterval(50, TimeUnit.MILLISECONDS).build()) {
+            poller.track(null, "fish", 1).get(10, TimeUnit.SECONDS);
+            fail("Expected missing job to fail the future");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof NoSuchElementException);
+            assertSent(server, "GET", "/job/fish/api/json", TREE);
+        } finally {
+            jenkinsApi.close();
+            server.shutdown();
+        }
+    }
+
+    private static String builds(String builds) {
+        return "{\"name\":\"fish\",\"url\":\"http://localhost:8080/job/fish/\",\"builds\":[" + builds + "]}";
+    }
+}
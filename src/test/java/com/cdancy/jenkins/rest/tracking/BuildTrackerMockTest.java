@@ -0,0 +1,202 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cdancy.jenkins.rest.tracking;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.testng.annotations.Test;
+
+import com.cdancy.jenkins.rest.BaseJenkinsMockTest;
+import com.cdancy.jenkins.rest.JenkinsApi;
+import com.cdancy.jenkins.rest.domain.common.LongResponse;
+import com.cdancy.jenkins.rest.domain.job.BuildInfo;
+
+/**
+ * Mock tests for the {@link com.cdancy.jenkins.rest.tracking.BuildTracker} class.
+ */
+@Test(groups = "unit", testName = "BuildTrackerMockTest")
+public class BuildTrackerMockTest extends BaseJenkinsMockTest {
+
+    public void testTrackUntilComplete() throws Exception {
+        MockWebServer server = mockWebServer();
+        server.enqueue(new MockResponse().setBody(payloadFromResource("/queueItemPending.json")).setResponseCode(200));
+        server.enqueue(new MockResponse().setBody(payloadFromResource("/queueItemRunning.json")).setResponseCode(200));
+        server.enqueue(new MockResponse().setBody("{\"number\":14,\"building\":true,\"estimatedDuration\":10,\"timestamp\":0}").setResponseCode(200));
+        server.enqueue(new MockResponse().setBody(payloadFromResource("/build-info.json")).setResponseCode(200));
+        JenkinsApi jenkinsApi = api(server.url("/").url());
+        try (BuildTracker tracker = BuildTracker.builder(jenkinsApi)
+                .minPollInterval(1, TimeUnit.MILLISECONDS).maxPollInterval(5, TimeUnit.MILLISECONDS).build()) {
+            CompletableFuture<BuildInfo> first = tracker.track(null, "test", LongResponse.create(143L, null));
+            CompletableFuture<BuildInfo> second = tracker.track(null, "test", 143);
+            assertNotSame(first, second);
+
+            BuildInfo info = first.get(10, TimeUnit.SECONDS);
+            assertFalse(info.building());
+            assertEquals(second.get(10, TimeUnit.SECONDS), info);
+            assertEquals(server.getRequestCount(), 4);
+            assertSent(server, "GET", "/queue/item/143/api/json");
+            assertSent(server, "GET", "/queue/item/143/api/json");
+            assertSent(server, "GET", "/job/test/14/api/json");
+            assertSent(server, "GET", "/job/test/14/api/json");
+            assertEquals(tracker.size(), 0);
+        } finally {
+            jenkinsApi.close();
+            server.shutdown();
+        }
+    }
+
+    public void testCancelOneCallerKeepsOthersTracking() throws Exception {
+        MockWebServer server = mockWebServer();
+        server.enqueue(new MockResponse().setBody(payloadFromResource("/queueItemPending.json")).setResponseCode(200));
+        server.enqueue(new MockResponse().setBody(payloadFromResource("/queueItemRunning.json")).setResponseCode(200));
+        server.enqueue(new MockResponse().setBody(payloadFromResource("/build-info.json")).setResponseCode(200));
+        JenkinsApi jenkinsApi = api(server.url("/").url());
+        try (BuildTracker tracker = BuildTracker.builder(jenkinsApi)
+                .minPollInterval(100, TimeUnit.MILLISECONDS).maxPollInterval(200, TimeUnit.MILLISECONDS).build()) {
+            CompletableFuture<BuildInfo> first = tracker.track(null, "test", 143);
+            CompletableFuture<BuildInfo> second = tracker.track(null, "test", 143);
+            assertTrue(first.cancel(true));
+
+            assertFalse(second.get(10, TimeUnit.SECONDS).building());
+            assertTrue(first.isCancelled());
+            assertEquals(server.getRequestCount(), 3);
+            assertEquals(tracker.size(), 0);
+        } finally {
+            jenkinsApi.close();
+            server.shutdown();
+        }
+    }
+
+    public void testCancelEveryCallerStopsPolling() throws Exception {
+        MockWebServer server = mockWebServer();
+        for (int i = 0; i < 10; i++) {
+            server.enqueue(new MockResponse().setBody(payloadFromResource("/queueItemPending.json")).setResponseCode(200));
+        }
+        JenkinsApi jenkinsApi = api(server.url("/").url());
+        try (BuildTracker tracker = BuildTracker.builder(jenkinsApi)
+                .minPollInterval(50, TimeUnit.MILLISECONDS).maxPollInterval(50, TimeUnit.MILLISECONDS).build()) {
+            CompletableFuture<BuildInfo> first = tracker.track(null, "test", 143);
+            CompletableFuture<BuildInfo> second = tracker.track(null, "test", 143);
+            first.cancel(true);
+            assertEquals(tracker.size(), 1);
+            second.cancel(true);
+            assertEquals(tracker.size(), 0);
+
+            Thread.sleep(100);
+            int polled = server.getRequestCount();
+            Thread.sleep(300);
+            assertEquals(server.getRequestCount(), polled);
+            assertTrue(polled <= 3, Integer.toString(polled));
+        } finally {
+            jenkinsApi.close();
+            server.shutdown();
+        }
+    }
+
+    public void testCancelledQueueItem() throws Exception {
+        MockWebServer server = mockWebServer();
+        server.enqueue(new MockResponse().setBody(payloadFromResource("/queueItemCancelled.json")).setResponseCode(200));
+        JenkinsApi jenkinsApi = api(server.url("/").url());
+        try (BuildTracker tracker = BuildTracker.builder(jenkinsApi).build()) {
+            tracker.track(null, "test", 143).get(10, TimeUnit.SECONDS);
+            fail("Expected cancelled queue item to fail the future");
+        } catch (CancellationException e) {
+            assertEquals(server.getRequestCount(), 1);
+        } finally {
+            jenkinsApi.close();
+            server.shutdown();
+        }
+    }
+
+    public void testPurgedQueueItemFoundAmongBuilds() throws Exception {
+        MockWebServer server = mockWebServer();
+        server.enqueue(new MockResponse().setResponseCode(404));
+        server.enqueue(new MockResponse().setBody("{\"name\":\"test\",\"url\":\"http://localhost:8080/job/test/\","
+                + "\"builds\":[{\"number\":15,\"queueId\":144},{\"number\":14,\"queueId\":143}]}").setResponseCode(200));
+        server.enqueue(new MockResponse().setBody(payloadFromResource("/build-info.json")).setResponseCode(200));
+        JenkinsApi jenkinsApi = api(server.url("/").url());
+        try (BuildTracker tracker = BuildTracker.builder(jenkinsApi).build()) {
+            assertFalse(tracker.track(null, "test", 143).get(10, TimeUnit.SECONDS).building());
+            assertSent(server, "GET", "/queue/item/143/api/json");
+            assertEquals(server.takeRequest().getRequestUrl().queryParameter("tree"), "name,url,builds[number,queueId]{0,100}");
+            assertSent(server, "GET", "/job/test/14/api/json");
+        } finally {
+            jenkinsApi.close();
+            server.shutdown();
+        }
+    }
+
+    public void testPurgedQueueItemWithoutBuild() throws Exception {
+        MockWebServer server = mockWebServer();
+        server.enqueue(new MockResponse().setResponseCode(404));
+        server.enqueue(new MockResponse().setBody("{\"name\":\"test\",\"url\":\"http://localhost:8080/job/test/\","
+                + "\"builds\":[{\"number\":15,\"queueId\":144}]}").setResponseCode(200));
+        JenkinsApi jenkinsApi = api(server.url("/").url());
+        try (BuildTracker tracker = BuildTracker.builder(jenkinsApi).build()) {
+            tracker.track(null, "test", 143).get(10, TimeUnit.SECONDS);
+            fail("Expected a purged queue item without build to fail the future");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException, e.getCause().toString());
+            assertTrue(e.getCause().getMessage().contains("Queue item 143 no longer exists"), e.getCause().getMessage());
+            assertEquals(server.getRequestCount(), 2);
+        } finally {
+            jenkinsApi.close();
+            server.shutdown();
+        }
+    }
+
+    public void testNoQueueIdToTrack() throws Exception {
+        MockWebServer server = mockWebServer();
+        JenkinsApi jenkinsApi = api(server.url("/").url());
+        try (BuildTracker tracker = BuildTracker.builder(jenkinsApi).build()) {
+            CompletableFuture<BuildInfo> future = tracker.track(null, "test", LongResponse.create(null, null));
+            assertTrue(future.isCompletedExceptionally());
+            assertEquals(server.getRequestCount(), 0);
+        } finally {
+            jenkinsApi.close();
+            server.shutdown();
+        }
+    }
+
+    public void testRunningDelayFollowsEstimate() throws Exception {
+        MockWebServer server = mockWebServer();
+        JenkinsApi jenkinsApi = api(server.url("/").url());
+        try (BuildTracker tracker = BuildTracker.builder(jenkinsApi)
+                .minPollInterval(1, TimeUnit.SECONDS).maxPollInterval(30, TimeUnit.SECONDS).build()) {
+            BuildInfo info = BuildInfo.create(null, null, true, null, null, 0, 20000, null, null, false, 14, 143, null, 1000, null, null, null, null);
+            assertEquals(tracker.nextRunningDelay(info, 1000, 1000), 10000);
+            assertEquals(tracker.nextRunningDelay(info, 1000, 20000), 1000);
+            assertEquals(tracker.nextRunningDelay(info, 4000, 60000), 8000);
+            assertEquals(tracker.nextRunningDelay(info, 20000, 60000), 30000);
+        } finally {
+            jenkinsApi.close();
+            server.shutdown();
+        }
+    }
+}